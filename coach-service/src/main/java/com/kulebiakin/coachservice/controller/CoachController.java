@@ -1,19 +1,30 @@
 package com.kulebiakin.coachservice.controller;
 
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.dto.RatingHistory;
 import com.kulebiakin.coachservice.entity.Coach;
 import com.kulebiakin.coachservice.entity.CoachStatus;
 import com.kulebiakin.coachservice.service.CoachService;
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachRatingBatchRequest;
 import com.kulebiakin.common.dto.CoachRatingRequest;
+import com.kulebiakin.common.dto.CoachRatingResult;
 import com.kulebiakin.common.dto.CoachStatusRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,13 +34,56 @@ import java.util.List;
 @Tag(name = "Coach Management", description = "Endpoints for managing coaches")
 public class CoachController {
 
+    static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    static final int MAX_LEADERBOARD_SIZE = 100;
+    static final int DEFAULT_SEARCH_RESULTS = 10;
+    static final int MAX_SEARCH_RESULTS = 50;
+
     private final CoachService coachService;
 
+    /**
+     * Served from a pre-serialized snapshot. Spring answers a matching {@code If-None-Match} with
+     * {@code 304 Not Modified}; {@code no-cache} lets clients and edges store the list but revalidate it.
+     */
     @GetMapping
     @Operation(summary = "Get all coaches")
-    public ResponseEntity<List<Coach>> getAllCoaches() {
+    public ResponseEntity<byte[]> getAllCoaches() {
         log.info("GET /api/coaches - Fetching all coaches");
-        return ResponseEntity.ok(coachService.getAllCoaches());
+        CoachListSnapshot snapshot = coachService.getAllCoaches();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.json());
+    }
+
+    @GetMapping("/leaderboard")
+    @Operation(summary = "Get active coaches ranked by rating, optionally only those with a minimum number of sessions")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + DEFAULT_LEADERBOARD_SIZE) int limit,
+            @RequestParam(defaultValue = "0") long minSessions) {
+        log.info("GET /api/coaches/leaderboard - Fetching leaderboard (offset={}, limit={}, minSessions={})",
+                offset, limit, minSessions);
+        return ResponseEntity.ok(coachService.getLeaderboard(
+                Math.max(0, offset), Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE)), minSessions));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search coaches by name, best matches first")
+    public ResponseEntity<List<CoachSearchResult>> searchCoaches(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_RESULTS) int limit) {
+        log.info("GET /api/coaches/search - Searching coaches (q={}, limit={})", q, limit);
+        return ResponseEntity.ok(coachService.searchCoaches(q, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
+    }
+
+    @GetMapping("/directory")
+    @Operation(summary = "Get coach ids and statuses changed since a time (all coaches if omitted)")
+    public ResponseEntity<CoachDirectoryDelta> getDirectory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("GET /api/coaches/directory - Fetching coach directory since {}", since);
+        return ResponseEntity.ok(coachService.getDirectory(since));
     }
 
     @GetMapping("/{coachId}")
@@ -39,6 +93,16 @@ public class CoachController {
         return ResponseEntity.ok(coachService.getCoachById(coachId));
     }
 
+    @GetMapping("/{coachId}/rating-history")
+    @Operation(summary = "Get a coach's rating history over a time range (last 30 days if omitted)")
+    public ResponseEntity<RatingHistory> getRatingHistory(
+            @PathVariable Long coachId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("GET /api/coaches/{}/rating-history - Fetching rating history from {} to {}", coachId, from, to);
+        return ResponseEntity.ok(coachService.getRatingHistory(coachId, from, to));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new coach")
     public ResponseEntity<Coach> createCoach(@Valid @RequestBody Coach coach) {
@@ -61,10 +125,18 @@ public class CoachController {
         return ResponseEntity.ok(coachService.updateCoachRating(
                 request.getCoachId(),
                 request.getRating(),
-                request.getTotalSessions()
+                request.getTotalSessions(),
+                request.getVersion()
         ));
     }
 
+    @PostMapping("/ratings")
+    @Operation(summary = "Update the ratings of many coaches in one transaction")
+    public ResponseEntity<List<CoachRatingResult>> updateCoachRatings(@Valid @RequestBody CoachRatingBatchRequest request) {
+        log.info("POST /api/coaches/ratings - Updating ratings in one batch ({} updates)", request.getRatings().size());
+        return ResponseEntity.ok(coachService.updateCoachRatings(request.getRatings()));
+    }
+
     @PostMapping("/status")
     @Operation(summary = "Update coach status (activate/deactivate)")
     public ResponseEntity<Coach> updateCoachStatus(@Valid @RequestBody CoachStatusRequest request) {
@@ -0,0 +1,9 @@
+package com.kulebiakin.coachservice.dto;
+
+/**
+ * The coach list serialized as a JSON array. {@code etag} is derived from the bytes, so instances
+ * holding the same coaches agree on it; {@code version} counts local rebuilds. The array must not
+ * be modified.
+ */
+public record CoachListSnapshot(long version, String etag, byte[] json) {
+}
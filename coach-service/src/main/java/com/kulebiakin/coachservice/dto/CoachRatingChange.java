@@ -0,0 +1,10 @@
+package com.kulebiakin.coachservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An applied rating update, as recorded in the rating history.
+ */
+public record CoachRatingChange(Long coachId, BigDecimal rating, long totalSessions, LocalDateTime recordedAt) {
+}
@@ -0,0 +1,6 @@
+package com.kulebiakin.coachservice.dto;
+
+import com.kulebiakin.coachservice.entity.CoachStatus;
+
+public record CoachSearchResult(Long coachId, String firstName, String lastName, CoachStatus coachStatus) {
+}
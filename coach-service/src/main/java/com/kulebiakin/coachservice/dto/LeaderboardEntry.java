@@ -0,0 +1,15 @@
+package com.kulebiakin.coachservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A coach's position on the leaderboard. {@code rank} is 1-based within the requested filter.
+ */
+public record LeaderboardEntry(
+        int rank,
+        Long coachId,
+        String firstName,
+        String lastName,
+        BigDecimal rating,
+        long totalSessions) {
+}
@@ -0,0 +1,9 @@
+package com.kulebiakin.coachservice.dto;
+
+import java.util.List;
+
+/**
+ * A coach's rating history over a time range, at the resolution chosen for the range.
+ */
+public record RatingHistory(Long coachId, RatingResolution resolution, List<RatingHistoryPoint> points) {
+}
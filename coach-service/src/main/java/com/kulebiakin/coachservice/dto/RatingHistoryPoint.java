@@ -0,0 +1,17 @@
+package com.kulebiakin.coachservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One point of a rating history. For rollups {@code time} is the bucket start and the ratings
+ * summarize the {@code samples} updates in the bucket; raw points are single updates.
+ */
+public record RatingHistoryPoint(
+        LocalDateTime time,
+        BigDecimal average,
+        BigDecimal min,
+        BigDecimal max,
+        BigDecimal last,
+        int samples) {
+}
@@ -0,0 +1,10 @@
+package com.kulebiakin.coachservice.dto;
+
+/**
+ * Granularity of a rating history: every recorded rating, or hourly or daily rollups.
+ */
+public enum RatingResolution {
+    RAW,
+    HOUR,
+    DAY
+}
@@ -1,5 +1,6 @@
 package com.kulebiakin.coachservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
@@ -11,6 +12,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "coaches")
@@ -41,6 +43,21 @@ public class Coach {
     @Builder.Default
     private BigDecimal rating = BigDecimal.ZERO;
 
+    /**
+     * Sessions behind the current rating, as reported with the last rating update.
+     */
+    @Column(name = "total_sessions", nullable = false)
+    @Builder.Default
+    private Long totalSessions = 0L;
+
+    /**
+     * Version of the last applied rating update, as sent by SessionService.
+     */
+    @JsonIgnore
+    @Column(name = "rating_version", nullable = false)
+    @Builder.Default
+    private Long ratingVersion = 0L;
+
     @Column(name = "strike_count")
     @Builder.Default
     private Integer strikeCount = 0;
@@ -49,4 +66,17 @@ public class Coach {
     @Column(name = "coach_status", nullable = false, length = 20)
     @Builder.Default
     private CoachStatus coachStatus = CoachStatus.ACTIVE;
+
+    /**
+     * Last change time, used by the coach directory delta feed.
+     */
+    @JsonIgnore
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
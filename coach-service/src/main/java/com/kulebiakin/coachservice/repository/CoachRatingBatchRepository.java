@@ -0,0 +1,101 @@
+package com.kulebiakin.coachservice.repository;
+
+import com.kulebiakin.common.dto.CoachRatingRequest;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Applies many rating updates as one JDBC batch, with the same strike rule as
+ * {@link CoachRepository#updateRatingAndApplyStrikes}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoachRatingBatchRepository {
+
+    /**
+     * Statements sent to the database per round trip.
+     */
+    static final int BATCH_SIZE = 100;
+
+    private static final String UPDATE_RATING_AND_APPLY_STRIKES = "UPDATE coaches SET "
+            + "rating = ?, "
+            + "total_sessions = ?, "
+            + "strike_count = CASE WHEN ? < ? THEN ISNULL(strike_count, 0) + 1 ELSE strike_count END, "
+            + "coach_status = CASE WHEN ? < ? AND ISNULL(strike_count, 0) + 1 >= ? "
+            + "THEN 'DEACTIVATED' ELSE coach_status END, "
+            + "rating_version = CASE WHEN ? < 0 THEN rating_version ELSE ? END, "
+            + "updated_at = ? "
+            + "WHERE coach_id = ? AND (? < 0 OR rating_version < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Runs the updates within the caller's transaction, stably sorted by coach id. Every writer
+     * therefore locks {@code coaches} rows in ascending id order, so concurrent batches cannot
+     * deadlock, while updates of one coach keep their request order. Updates of missing coaches,
+     * and versioned updates not newer than the stored version, change nothing. Like
+     * {@code @Modifying(flushAutomatically = true, clearAutomatically = true)}, pending entity
+     * changes are flushed first and the persistence context is cleared afterwards, so coaches
+     * read next reflect the batch.
+     * <p>
+     * Whether an update applied is read from its row count, which the SQL Server driver reports for
+     * every statement in a batch. A driver that answers {@link Statement#SUCCESS_NO_INFO} instead
+     * would make a stale versioned update indistinguishable from an applied one, so that is
+     * rejected rather than guessed.
+     *
+     * @return whether each update was applied, in request order
+     * @throws IllegalStateException if the driver did not report a row count
+     */
+    public boolean[] updateRatingsAndApplyStrikes(List<CoachRatingRequest> ratings,
+                                                  BigDecimal strikeThreshold,
+                                                  int maxStrikes,
+                                                  LocalDateTime updatedAt) {
+        entityManager.flush();
+        Timestamp updatedAtTimestamp = Timestamp.valueOf(updatedAt);
+        List<Integer> order = IntStream.range(0, ratings.size()).boxed()
+                .sorted(Comparator.comparing(i -> ratings.get(i).getCoachId()))
+                .toList();
+        List<CoachRatingRequest> sorted = order.stream().map(ratings::get).toList();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_RATING_AND_APPLY_STRIKES, sorted, BATCH_SIZE,
+                (statement, rating) -> {
+                    long version = rating.getVersion() != null ? rating.getVersion() : CoachRepository.UNVERSIONED;
+                    statement.setBigDecimal(1, rating.getRating());
+                    statement.setLong(2, rating.getTotalSessions());
+                    statement.setBigDecimal(3, rating.getRating());
+                    statement.setBigDecimal(4, strikeThreshold);
+                    statement.setBigDecimal(5, rating.getRating());
+                    statement.setBigDecimal(6, strikeThreshold);
+                    statement.setInt(7, maxStrikes);
+                    statement.setLong(8, version);
+                    statement.setLong(9, version);
+                    statement.setTimestamp(10, updatedAtTimestamp);
+                    statement.setLong(11, rating.getCoachId());
+                    statement.setLong(12, version);
+                    statement.setLong(13, version);
+                });
+        entityManager.clear();
+
+        boolean[] applied = new boolean[ratings.size()];
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("JDBC driver did not report the row count of a rating update");
+                }
+                applied[order.get(index++)] = count > 0;
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,153 @@
+package com.kulebiakin.coachservice.repository;
+
+import com.kulebiakin.coachservice.dto.CoachRatingChange;
+import com.kulebiakin.coachservice.dto.RatingHistoryPoint;
+import com.kulebiakin.coachservice.dto.RatingResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only rating history ({@code coach_rating_history}) and its hourly and daily rollups
+ * ({@code coach_rating_rollup}). Writes are JDBC-batched and join the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoachRatingHistoryRepository {
+
+    /**
+     * Statements sent to the database per round trip.
+     */
+    static final int BATCH_SIZE = 100;
+
+    private static final String INSERT_HISTORY = "INSERT INTO coach_rating_history "
+            + "(coach_id, rating, total_sessions, recorded_at) VALUES (?, ?, ?, ?)";
+
+    private static final String ADD_TO_ROLLUP = "UPDATE coach_rating_rollup SET "
+            + "sample_count = sample_count + ?, "
+            + "rating_sum = rating_sum + ?, "
+            + "min_rating = CASE WHEN ? < min_rating THEN ? ELSE min_rating END, "
+            + "max_rating = CASE WHEN ? > max_rating THEN ? ELSE max_rating END, "
+            + "last_rating = ? "
+            + "WHERE coach_id = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final String INSERT_ROLLUP = "INSERT INTO coach_rating_rollup "
+            + "(coach_id, resolution, bucket_start, sample_count, rating_sum, min_rating, max_rating, last_rating) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_HISTORY = "SELECT recorded_at, rating FROM coach_rating_history "
+            + "WHERE coach_id = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at";
+
+    private static final String SELECT_ROLLUPS = "SELECT bucket_start, sample_count, rating_sum, "
+            + "min_rating, max_rating, last_rating FROM coach_rating_rollup "
+            + "WHERE coach_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ? "
+            + "ORDER BY bucket_start";
+
+    private static final RowMapper<RatingHistoryPoint> HISTORY_POINT = (rs, rowNum) -> {
+        BigDecimal rating = rs.getBigDecimal("rating");
+        return new RatingHistoryPoint(rs.getTimestamp("recorded_at").toLocalDateTime(),
+                rating, rating, rating, rating, 1);
+    };
+
+    private static final RowMapper<RatingHistoryPoint> ROLLUP_POINT = (rs, rowNum) -> {
+        int samples = rs.getInt("sample_count");
+        return new RatingHistoryPoint(rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getBigDecimal("rating_sum").divide(BigDecimal.valueOf(samples), 2, RoundingMode.HALF_UP),
+                rs.getBigDecimal("min_rating"), rs.getBigDecimal("max_rating"), rs.getBigDecimal("last_rating"),
+                samples);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertHistory(List<CoachRatingChange> changes) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, changes, BATCH_SIZE, (statement, change) -> {
+            statement.setLong(1, change.coachId());
+            statement.setBigDecimal(2, change.rating());
+            statement.setLong(3, change.totalSessions());
+            statement.setTimestamp(4, Timestamp.valueOf(change.recordedAt()));
+        });
+    }
+
+    /**
+     * Adds each rollup to its stored bucket, creating the buckets that do not exist yet. Rollups
+     * must have distinct buckets, and concurrent merges into one bucket must be serialized by the
+     * caller; rating updates are, by the coach row lock.
+     */
+    public void mergeRollups(List<Rollup> rollups) {
+        int[][] counts = jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, rollups, BATCH_SIZE, (statement, rollup) -> {
+            statement.setInt(1, rollup.samples());
+            statement.setBigDecimal(2, rollup.sum());
+            statement.setBigDecimal(3, rollup.min());
+            statement.setBigDecimal(4, rollup.min());
+            statement.setBigDecimal(5, rollup.max());
+            statement.setBigDecimal(6, rollup.max());
+            statement.setBigDecimal(7, rollup.last());
+            statement.setLong(8, rollup.coachId());
+            statement.setString(9, rollup.resolution().name());
+            statement.setTimestamp(10, Timestamp.valueOf(rollup.bucketStart()));
+        });
+
+        List<Rollup> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(rollups.get(index));
+                }
+                index++;
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP, missing, BATCH_SIZE, (statement, rollup) -> {
+            statement.setLong(1, rollup.coachId());
+            statement.setString(2, rollup.resolution().name());
+            statement.setTimestamp(3, Timestamp.valueOf(rollup.bucketStart()));
+            statement.setInt(4, rollup.samples());
+            statement.setBigDecimal(5, rollup.sum());
+            statement.setBigDecimal(6, rollup.min());
+            statement.setBigDecimal(7, rollup.max());
+            statement.setBigDecimal(8, rollup.last());
+        });
+    }
+
+    /**
+     * Recorded ratings of the coach in {@code [from, to)}, oldest first.
+     */
+    public List<RatingHistoryPoint> findHistory(Long coachId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(SELECT_HISTORY, HISTORY_POINT,
+                coachId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Rollups of the coach at {@code resolution} with bucket starts in {@code [from, to)}, oldest first.
+     */
+    public List<RatingHistoryPoint> findRollups(Long coachId, RatingResolution resolution,
+                                                LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(SELECT_ROLLUPS, ROLLUP_POINT,
+                coachId, resolution.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public int deleteHistoryBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM coach_rating_history WHERE recorded_at < ?",
+                Timestamp.valueOf(cutoff));
+    }
+
+    public int deleteRollupsBefore(RatingResolution resolution, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM coach_rating_rollup WHERE resolution = ? AND bucket_start < ?",
+                resolution.name(), Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Ratings recorded for one coach within one bucket: their count, sum, extremes and the latest.
+     */
+    public record Rollup(Long coachId, RatingResolution resolution, LocalDateTime bucketStart,
+                         int samples, BigDecimal sum, BigDecimal min, BigDecimal max, BigDecimal last) {
+    }
+}
@@ -2,15 +2,68 @@ package com.kulebiakin.coachservice.repository;
 
 import com.kulebiakin.coachservice.entity.Coach;
 import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CoachRepository extends JpaRepository<Coach, Long> {
 
+    /**
+     * Rating version standing for an update sent without one.
+     */
+    long UNVERSIONED = -1;
+
     List<Coach> findByCoachStatus(CoachStatus status);
 
-    List<Coach> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
+    /**
+     * Sets the rating and applies the strike rule in one statement: a rating below
+     * {@code strikeThreshold} adds a strike, and the strike that reaches {@code maxStrikes}
+     * deactivates the coach. SET expressions read the pre-update row, so concurrent ratings
+     * cannot lose strikes. The updated row is returned through OUTPUT in the same round trip.
+     * The statement bypasses entity callbacks, so {@code updatedAt} is passed in explicitly.
+     * <p>
+     * With a {@code version} of 0 or more, the row is only updated if its {@code rating_version} is
+     * lower, and the version is stored. {@link #UNVERSIONED} updates unconditionally and keeps the
+     * stored version; it is passed instead of null, which a native query cannot bind reliably.
+     *
+     * @return the updated coach, empty if it does not exist or the update is stale
+     */
+    @Query(value = "UPDATE coaches SET "
+            + "rating = :rating, "
+            + "total_sessions = :totalSessions, "
+            + "strike_count = CASE WHEN :rating < :strikeThreshold "
+            + "THEN ISNULL(strike_count, 0) + 1 ELSE strike_count END, "
+            + "coach_status = CASE WHEN :rating < :strikeThreshold AND ISNULL(strike_count, 0) + 1 >= :maxStrikes "
+            + "THEN 'DEACTIVATED' ELSE coach_status END, "
+            + "rating_version = CASE WHEN :version < 0 THEN rating_version ELSE :version END, "
+            + "updated_at = :updatedAt "
+            + "OUTPUT inserted.* "
+            + "WHERE coach_id = :coachId AND (:version < 0 OR rating_version < :version)",
+            nativeQuery = true)
+    Optional<Coach> updateRatingAndApplyStrikes(@Param("coachId") Long coachId,
+                                                @Param("rating") BigDecimal rating,
+                                                @Param("totalSessions") Long totalSessions,
+                                                @Param("version") long version,
+                                                @Param("strikeThreshold") BigDecimal strikeThreshold,
+                                                @Param("maxStrikes") int maxStrikes,
+                                                @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Id and status of every coach changed at or after {@code since}.
+     */
+    @Query("SELECT new com.kulebiakin.common.dto.CoachDirectoryEntry(c.coachId, CAST(c.coachStatus AS String)) "
+            + "FROM Coach c WHERE c.updatedAt >= :since")
+    List<CoachDirectoryEntry> findDirectoryEntriesChangedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.kulebiakin.common.dto.CoachDirectoryEntry(c.coachId, CAST(c.coachStatus AS String)) "
+            + "FROM Coach c")
+    List<CoachDirectoryEntry> findAllDirectoryEntries();
 }
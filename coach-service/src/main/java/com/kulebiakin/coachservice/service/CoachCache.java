@@ -0,0 +1,104 @@
+package com.kulebiakin.coachservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache of coaches by id, in front of the {@code coaches} table.
+ * <p>
+ * Concurrent misses for the same id share one database load. Entries are detached copies,
+ * and every read returns a fresh copy, so callers never share or mutate a cached instance.
+ * Writes made through {@link CoachService} replace or drop the entry once their transaction
+ * commits; changes made through other instances are picked up when the entry expires.
+ * Hit, miss, load time and eviction metrics are published under the {@code coach} cache name.
+ */
+@Component
+@Slf4j
+public class CoachCache {
+
+    private final CoachRepository coachRepository;
+    private final Cache<Long, Coach> cache;
+
+    public CoachCache(CoachRepository coachRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${coach.cache.max-size:10000}") long maxSize,
+                      @Value("${coach.cache.ttl:60s}") Duration ttl) {
+        this.coachRepository = coachRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "coach");
+    }
+
+    /**
+     * The coach, loaded from the database on a miss. Missing coaches are not cached.
+     */
+    public Optional<Coach> get(Long coachId) {
+        return Optional.ofNullable(cache.get(coachId, this::load)).map(CoachCache::copy);
+    }
+
+    /**
+     * Replaces the cached coach with the saved state once the caller's transaction commits.
+     */
+    public void put(Coach coach) {
+        Long coachId = coach.getCoachId();
+        Coach saved = copy(coach);
+        afterCommit(() -> cache.put(coachId, saved));
+    }
+
+    /**
+     * Drops the cached coach once the caller's transaction commits.
+     */
+    public void invalidate(Long coachId) {
+        afterCommit(() -> cache.invalidate(coachId));
+    }
+
+    private Coach load(Long coachId) {
+        log.debug("Coach cache miss for id: {}", coachId);
+        return coachRepository.findById(coachId).map(CoachCache::copy).orElse(null);
+    }
+
+    /**
+     * Runs the action once the caller's transaction commits, or immediately outside a transaction.
+     * A load racing with the commit finishes before the action replaces its result.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Coach copy(Coach coach) {
+        return Coach.builder()
+                .coachId(coach.getCoachId())
+                .firstName(coach.getFirstName())
+                .lastName(coach.getLastName())
+                .rating(coach.getRating())
+                .totalSessions(coach.getTotalSessions())
+                .strikeCount(coach.getStrikeCount())
+                .coachStatus(coach.getCoachStatus())
+                .updatedAt(coach.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.kulebiakin.coachservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The full coach list as a pre-serialized JSON snapshot, serving {@code GET /api/coaches} without
+ * database reads or per-request serialization.
+ * <p>
+ * Each coach is serialized once, when it is loaded or changed. A change bumps the catalog version,
+ * and the next read joins the stored fragments into a new immutable snapshot with a content hash
+ * as its ETag, so an unchanged list costs neither CPU nor a response body.
+ */
+@Component
+@Slf4j
+public class CoachCatalog extends InMemoryCoachIndex<CoachCatalog.Catalog> {
+
+    private static final int ETAG_HASH_BYTES = 16;
+
+    private final CoachRepository coachRepository;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    public CoachCatalog(CoachRepository coachRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super("coach catalog", new Catalog());
+        this.coachRepository = coachRepository;
+        this.objectMapper = objectMapper;
+        Gauge.builder("coach.catalog.size", this, catalog -> catalog.state().fragments.size())
+                .description("Coaches in the in-memory coach list snapshot")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${coach.catalog.reload-interval:PT5M}",
+            initialDelayString = "${coach.catalog.reload-interval:PT5M}")
+    public void reload() {
+        super.reload();
+    }
+
+    @Override
+    protected Catalog load() {
+        Catalog loaded = new Catalog();
+        coachRepository.findAll().forEach(coach -> loaded.put(coach.getCoachId(), serialize(coach)));
+        log.info("Loaded {} coaches into the coach catalog", loaded.fragments.size());
+        return loaded;
+    }
+
+    /**
+     * Replaces the coach's entry once the caller's transaction commits.
+     */
+    public void update(Coach coach) {
+        Long coachId = coach.getCoachId();
+        byte[] fragment = serialize(coach);
+        afterCommit(catalog -> catalog.put(coachId, fragment));
+    }
+
+    /**
+     * Drops the coach once the caller's transaction commits.
+     */
+    public void remove(Long coachId) {
+        afterCommit(catalog -> catalog.remove(coachId));
+    }
+
+    /**
+     * The current list, ordered by coach id. Rebuilt only when a coach changed since the last call.
+     */
+    public CoachListSnapshot snapshot() {
+        Catalog catalog = state();
+        CoachListSnapshot current = catalog.snapshot;
+        if (current != null && current.version() == catalog.version.get()) {
+            return current;
+        }
+        snapshotLock.lock();
+        try {
+            catalog = state();
+            long version = catalog.version.get();
+            current = catalog.snapshot;
+            if (current == null || current.version() != version) {
+                current = build(catalog.fragments, version);
+                catalog.snapshot = current;
+            }
+            return current;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Joins the fragments into a JSON array. A change applied while joining bumps the version past
+     * {@code version}, so the next read rebuilds.
+     */
+    private static CoachListSnapshot build(NavigableMap<Long, byte[]> fragments, long version) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        boolean first = true;
+        for (byte[] fragment : fragments.values()) {
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(fragment);
+            first = false;
+        }
+        json.write(']');
+        byte[] bytes = json.toByteArray();
+        return new CoachListSnapshot(version, etagOf(bytes), bytes);
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, ETAG_HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] serialize(Coach coach) {
+        try {
+            return objectMapper.writeValueAsBytes(coach);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize coach " + coach.getCoachId(), e);
+        }
+    }
+
+    static final class Catalog {
+
+        private final NavigableMap<Long, byte[]> fragments = new ConcurrentSkipListMap<>();
+        private final AtomicLong version = new AtomicLong();
+        private volatile CoachListSnapshot snapshot;
+
+        void put(Long coachId, byte[] fragment) {
+            byte[] previous = fragments.put(coachId, fragment);
+            if (!Arrays.equals(previous, fragment)) {
+                version.incrementAndGet();
+            }
+        }
+
+        void remove(Long coachId) {
+            if (fragments.remove(coachId) != null) {
+                version.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory ranking of active coaches by rating, then coach id, serving the leaderboard
+ * without database reads.
+ * <p>
+ * Standings are held in a skip list, so reads walk it without locking while writes re-rank
+ * one coach in O(log n).
+ */
+@Component
+@Slf4j
+public class CoachLeaderboard extends InMemoryCoachIndex<CoachLeaderboard.Ranking> {
+
+    private static final Comparator<Standing> BY_RANK = Comparator.comparing(Standing::rating).reversed()
+            .thenComparing(Standing::coachId);
+
+    private final CoachRepository coachRepository;
+
+    public CoachLeaderboard(CoachRepository coachRepository, MeterRegistry meterRegistry) {
+        super("coach leaderboard", new Ranking());
+        this.coachRepository = coachRepository;
+        Gauge.builder("coach.leaderboard.size", this, leaderboard -> leaderboard.state().byId.size())
+                .description("Active coaches on the in-memory leaderboard")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${coach.leaderboard.reload-interval:PT5M}",
+            initialDelayString = "${coach.leaderboard.reload-interval:PT5M}")
+    public void reload() {
+        super.reload();
+    }
+
+    @Override
+    protected Ranking load() {
+        Ranking loaded = new Ranking();
+        coachRepository.findByCoachStatus(CoachStatus.ACTIVE).forEach(coach -> loaded.put(Standing.of(coach)));
+        log.info("Loaded {} active coaches into the leaderboard", loaded.byId.size());
+        return loaded;
+    }
+
+    /**
+     * Re-ranks the coach, or drops it if it is no longer active, once the caller's transaction commits.
+     */
+    public void update(Coach coach) {
+        Standing standing = coach.getCoachStatus() == CoachStatus.ACTIVE ? Standing.of(coach) : null;
+        Long coachId = coach.getCoachId();
+        afterCommit(ranking -> {
+            if (standing != null) {
+                ranking.put(standing);
+            } else {
+                ranking.remove(coachId);
+            }
+        });
+    }
+
+    /**
+     * Drops the coach once the caller's transaction commits.
+     */
+    public void remove(Long coachId) {
+        afterCommit(ranking -> ranking.remove(coachId));
+    }
+
+    /**
+     * Coaches ranked {@code offset + 1} to {@code offset + limit} among those with at least {@code minSessions} sessions.
+     */
+    public List<LeaderboardEntry> top(int offset, int limit, long minSessions) {
+        List<LeaderboardEntry> entries = new ArrayList<>(limit);
+        int rank = 0;
+        for (Standing standing : state().ranked) {
+            if (standing.totalSessions() < minSessions) {
+                continue;
+            }
+            rank++;
+            if (rank > offset) {
+                entries.add(standing.toEntry(rank));
+                if (entries.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    static final class Ranking {
+
+        private final NavigableSet<Standing> ranked = new ConcurrentSkipListSet<>(BY_RANK);
+        private final Map<Long, Standing> byId = new ConcurrentHashMap<>();
+
+        void put(Standing standing) {
+            Standing previous = byId.put(standing.coachId(), standing);
+            if (previous != null) {
+                ranked.remove(previous);
+            }
+            ranked.add(standing);
+        }
+
+        void remove(Long coachId) {
+            Standing previous = byId.remove(coachId);
+            if (previous != null) {
+                ranked.remove(previous);
+            }
+        }
+    }
+
+    private record Standing(Long coachId, String firstName, String lastName, BigDecimal rating, long totalSessions) {
+
+        static Standing of(Coach coach) {
+            return new Standing(coach.getCoachId(), coach.getFirstName(), coach.getLastName(),
+                    coach.getRating() != null ? coach.getRating() : BigDecimal.ZERO,
+                    coach.getTotalSessions() != null ? coach.getTotalSessions() : 0L);
+        }
+
+        LeaderboardEntry toEntry(int rank) {
+            return new LeaderboardEntry(rank, coachId, firstName, lastName, rating, totalSessions);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of coach names for type-ahead search, replacing {@code LIKE '%term%'} scans.
+ * <p>
+ * Names are normalized (lower case, accents removed) and split into words. Every trigram of
+ * every word, and every word prefix of up to three characters, maps to the coaches containing it.
+ * A query term of three or more characters matches anywhere in a word, a shorter term only at
+ * the start of a word, and all terms must match. Results are ranked by how well the terms match
+ * (whole word, then word prefix, then elsewhere in a word), then by name length and id.
+ * <p>
+ * Postings are kept in that tie-break order and scanned best-first, stopping once {@code limit}
+ * matches are found that no later candidate can outscore. Word-start matches are looked for in the
+ * small prefix postings first; the rarest trigram posting of the query is only scanned when
+ * those do not fill the page.
+ */
+@Component
+@Slf4j
+public class CoachNameIndex extends InMemoryCoachIndex<CoachNameIndex.Names> {
+
+    private static final int GRAM = 3;
+    private static final String PREFIX = "^";
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Entry> SHORTEST_FIRST = Comparator.comparingInt(Entry::length)
+            .thenComparing(Entry::coachId);
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(Match::entry, SHORTEST_FIRST);
+
+    private final CoachRepository coachRepository;
+
+    public CoachNameIndex(CoachRepository coachRepository, MeterRegistry meterRegistry) {
+        super("coach name index", new Names());
+        this.coachRepository = coachRepository;
+        Gauge.builder("coach.search.index.size", this, index -> index.state().byId.size())
+                .description("Coaches in the in-memory name search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${coach.search.reload-interval:PT5M}",
+            initialDelayString = "${coach.search.reload-interval:PT5M}")
+    public void reload() {
+        super.reload();
+    }
+
+    @Override
+    protected Names load() {
+        Names loaded = new Names();
+        coachRepository.findAll().forEach(coach -> loaded.put(Entry.of(coach)));
+        log.info("Loaded {} coaches into the name search index", loaded.byId.size());
+        return loaded;
+    }
+
+    /**
+     * Indexes the coach's current name and status once the caller's transaction commits.
+     */
+    public void update(Coach coach) {
+        Entry entry = Entry.of(coach);
+        afterCommit(names -> names.put(entry));
+    }
+
+    /**
+     * Drops the coach once the caller's transaction commits.
+     */
+    public void remove(Long coachId) {
+        afterCommit(names -> names.remove(coachId));
+    }
+
+    /**
+     * The best {@code limit} coaches whose names contain every term of the query.
+     */
+    public List<CoachSearchResult> search(String query, int limit) {
+        String[] terms = words(query);
+        if (terms.length == 0) {
+            return List.of();
+        }
+        Names names = state();
+        int[] bestScores = names.bestAttainableScores(terms);
+        int bestScore = Arrays.stream(bestScores).sum();
+        TopMatches top = new TopMatches(terms, limit);
+        // A coach with the best attainable score matches each term at its best, so if that is a
+        // word start, it is among the coaches with a word starting like the term.
+        String prefixTerm = null;
+        for (int i = 0; i < terms.length; i++) {
+            if (bestScores[i] >= 2 && (prefixTerm == null || names.prefixSize(terms[i]) < names.prefixSize(prefixTerm))) {
+                prefixTerm = terms[i];
+            }
+        }
+        if (prefixTerm == null) {
+            top.scan(names.candidates(terms), bestScore);
+        } else if (!top.scan(names.prefixCandidates(prefixTerm), bestScore) && prefixTerm.length() >= GRAM) {
+            // every best-score match has been seen; short terms only match word starts, so
+            // only a longer term can have further matches elsewhere in a word
+            top.scan(names.candidates(terms), bestScore - 1);
+        }
+        return top.results();
+    }
+
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(normalized)).filter(word -> !word.isEmpty()).toArray(String[]::new);
+    }
+
+    /**
+     * Posting keys of a name: the trigrams of its words and their prefixes of up to three
+     * characters, marked with a leading {@code ^}.
+     */
+    private static Set<String> keys(String[] words) {
+        Set<String> keys = new HashSet<>();
+        for (String word : words) {
+            for (int i = 1; i <= GRAM && i <= word.length(); i++) {
+                keys.add(PREFIX + word.substring(0, i));
+            }
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                keys.add(word.substring(i, i + GRAM));
+            }
+        }
+        return keys;
+    }
+
+    static final class Names {
+
+        private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        private final Map<String, Posting> byKey = new ConcurrentHashMap<>();
+        private final NavigableMap<String, Set<Long>> byWord = new ConcurrentSkipListMap<>();
+
+        void put(Entry entry) {
+            Entry previous = byId.get(entry.coachId());
+            if (previous != null && previous.sameAs(entry)) {
+                return;
+            }
+            remove(entry.coachId());
+            byId.put(entry.coachId(), entry);
+            for (String key : keys(entry.words())) {
+                byKey.computeIfAbsent(key, k -> new Posting()).add(entry);
+            }
+            for (String word : entry.words()) {
+                byWord.computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(entry.coachId());
+            }
+        }
+
+        void remove(Long coachId) {
+            Entry previous = byId.remove(coachId);
+            if (previous == null) {
+                return;
+            }
+            for (String key : keys(previous.words())) {
+                byKey.computeIfPresent(key, (k, posting) -> posting.remove(previous) ? null : posting);
+            }
+            for (String word : previous.words()) {
+                byWord.computeIfPresent(word, (k, ids) -> {
+                    ids.remove(coachId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        /**
+         * Coaches that may match every term, in tie-break order, taken from the rarest term.
+         */
+        Collection<Entry> candidates(String[] terms) {
+            Posting rarest = null;
+            for (String term : terms) {
+                Posting posting = term.length() >= GRAM ? rarestGram(term) : byKey.get(prefixKey(term));
+                if (posting == null) {
+                    return List.of();
+                }
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+            return rarest.entries;
+        }
+
+        /**
+         * The highest score any coach could reach: per term, 3 if some name has it as a word,
+         * 2 if some word starts with it, otherwise 1.
+         */
+        int[] bestAttainableScores(String[] terms) {
+            int[] scores = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                String ceiling = byWord.ceilingKey(terms[i]);
+                if (terms[i].equals(ceiling)) {
+                    scores[i] = 3;
+                } else if (ceiling != null && ceiling.startsWith(terms[i])) {
+                    scores[i] = 2;
+                } else {
+                    scores[i] = 1;
+                }
+            }
+            return scores;
+        }
+
+        /**
+         * Coaches with a word starting like the term (its first three characters), in tie-break order.
+         */
+        Collection<Entry> prefixCandidates(String term) {
+            Posting posting = byKey.get(prefixKey(term));
+            return posting != null ? posting.entries : List.of();
+        }
+
+        int prefixSize(String term) {
+            Posting posting = byKey.get(prefixKey(term));
+            return posting != null ? posting.size() : 0;
+        }
+
+        private static String prefixKey(String term) {
+            return PREFIX + term.substring(0, Math.min(term.length(), GRAM));
+        }
+
+        private Posting rarestGram(String term) {
+            Posting rarest = null;
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                Posting posting = byKey.get(term.substring(i, i + GRAM));
+                if (posting == null) {
+                    return null;
+                }
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+            return rarest;
+        }
+    }
+
+    /**
+     * Coaches sharing a posting key, shortest name first. The size is tracked separately because
+     * counting a skip list walks it.
+     */
+    private static final class Posting {
+
+        private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(SHORTEST_FIRST);
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(Entry entry) {
+            if (entries.add(entry)) {
+                size.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return true if the posting is now empty
+         */
+        boolean remove(Entry entry) {
+            if (entries.remove(entry)) {
+                size.decrementAndGet();
+            }
+            return entries.isEmpty();
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
+
+    private record Entry(Long coachId, String firstName, String lastName, CoachStatus coachStatus, String[] words) {
+
+        static Entry of(Coach coach) {
+            return new Entry(coach.getCoachId(), coach.getFirstName(), coach.getLastName(), coach.getCoachStatus(),
+                    CoachNameIndex.words(coach.getFirstName() + " " + coach.getLastName()));
+        }
+
+        boolean sameAs(Entry other) {
+            return firstName.equals(other.firstName) && lastName.equals(other.lastName)
+                    && coachStatus == other.coachStatus;
+        }
+
+        int length() {
+            return firstName.length() + lastName.length();
+        }
+
+        /**
+         * Sum over the terms of the best match in any word: 3 for the whole word, 2 for a word
+         * prefix, 1 anywhere in a word. Zero if some term matches no word.
+         */
+        int score(String[] terms) {
+            int total = 0;
+            for (String term : terms) {
+                int best = 0;
+                for (String word : words) {
+                    if (word.equals(term)) {
+                        best = 3;
+                        break;
+                    } else if (word.startsWith(term)) {
+                        best = Math.max(best, 2);
+                    } else if (term.length() >= GRAM && word.contains(term)) {
+                        best = Math.max(best, 1);
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        CoachSearchResult toResult() {
+            return new CoachSearchResult(coachId, firstName, lastName, coachStatus);
+        }
+    }
+
+    /**
+     * Collects the best matches from candidate scans in tie-break order.
+     */
+    private static final class TopMatches {
+
+        private final String[] terms;
+        private final int limit;
+        private final PriorityQueue<Match> best;
+        private final Set<Long> matched = new HashSet<>();
+
+        TopMatches(String[] terms, int limit) {
+            this.terms = terms;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        }
+
+        /**
+         * Scans candidates, which come in tie-break order and score at most {@code ceiling}, until
+         * the page is full and its worst match ranks at or above the next candidate scoring the
+         * ceiling. Matches already on the page may come from an earlier scan, so the stop compares
+         * full ranks rather than scores: a shorter candidate still wins a tie on score.
+         *
+         * @return true if the page is full of matches scoring at least {@code ceiling}
+         */
+        boolean scan(Collection<Entry> candidates, int ceiling) {
+            for (Entry entry : candidates) {
+                if (best.size() == limit && BEST_FIRST.compare(best.peek(), new Match(entry, ceiling)) <= 0) {
+                    break;
+                }
+                int score = entry.score(terms);
+                if (score == 0 || !matched.add(entry.coachId())) {
+                    continue;
+                }
+                best.add(new Match(entry, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            return best.size() == limit && best.peek().score() >= ceiling;
+        }
+
+        List<CoachSearchResult> results() {
+            return best.stream()
+                    .sorted(BEST_FIRST)
+                    .map(match -> match.entry().toResult())
+                    .toList();
+        }
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+}
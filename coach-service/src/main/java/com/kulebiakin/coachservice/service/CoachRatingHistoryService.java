@@ -0,0 +1,141 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.CoachRatingChange;
+import com.kulebiakin.coachservice.dto.RatingHistory;
+import com.kulebiakin.coachservice.dto.RatingResolution;
+import com.kulebiakin.coachservice.repository.CoachRatingHistoryRepository;
+import com.kulebiakin.coachservice.repository.CoachRatingHistoryRepository.Rollup;
+import com.kulebiakin.common.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coach rating history: every applied rating update is appended to the raw history and added to
+ * its hourly and daily rollup buckets in the same transaction, so the rollups are always current.
+ * <p>
+ * Raw updates and hourly buckets are deleted once past their retention; daily buckets are kept.
+ * A range query reads the finest resolution that is both retained for the whole range and small
+ * enough for it, so a chart over several years reads one row per day.
+ */
+@Service
+@Slf4j
+public class CoachRatingHistoryService {
+
+    private final CoachRatingHistoryRepository historyRepository;
+    private final Duration rawRetention;
+    private final Duration hourlyRetention;
+    private final Duration rawMaxWindow;
+    private final Duration hourlyMaxWindow;
+
+    public CoachRatingHistoryService(
+            CoachRatingHistoryRepository historyRepository,
+            @Value("${coach.rating-history.raw-retention:30d}") Duration rawRetention,
+            @Value("${coach.rating-history.hourly-retention:365d}") Duration hourlyRetention,
+            @Value("${coach.rating-history.raw-max-window:2d}") Duration rawMaxWindow,
+            @Value("${coach.rating-history.hourly-max-window:60d}") Duration hourlyMaxWindow) {
+        this.historyRepository = historyRepository;
+        this.rawRetention = rawRetention;
+        this.hourlyRetention = hourlyRetention;
+        this.rawMaxWindow = rawMaxWindow;
+        this.hourlyMaxWindow = hourlyMaxWindow;
+    }
+
+    /**
+     * Records the changes in the caller's transaction, which must hold the rows of their coaches.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<CoachRatingChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        historyRepository.insertHistory(changes);
+        historyRepository.mergeRollups(rollupsOf(changes));
+    }
+
+    /**
+     * Ratings of the coach in {@code [from, to)}, at the resolution chosen for the range. Rollup
+     * buckets are included from the one containing {@code from}.
+     */
+    public RatingHistory getHistory(Long coachId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("'from' must be before 'to'");
+        }
+        RatingResolution resolution = resolutionFor(from, to, LocalDateTime.now());
+        log.debug("Fetching {} rating history of coach {} from {} to {}", resolution, coachId, from, to);
+        return new RatingHistory(coachId, resolution, switch (resolution) {
+            case RAW -> historyRepository.findHistory(coachId, from, to);
+            case HOUR, DAY -> historyRepository.findRollups(coachId, resolution, bucketStart(from, resolution), to);
+        });
+    }
+
+    /**
+     * Deletes raw updates and hourly buckets past their retention.
+     */
+    @Scheduled(fixedDelayString = "${coach.rating-history.prune-interval:PT1H}",
+            initialDelayString = "${coach.rating-history.prune-interval:PT1H}")
+    @Transactional
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        int raw = historyRepository.deleteHistoryBefore(now.minus(rawRetention));
+        int hourly = historyRepository.deleteRollupsBefore(RatingResolution.HOUR, now.minus(hourlyRetention));
+        log.info("Pruned {} raw coach ratings older than {} and {} hourly rollups older than {}",
+                raw, rawRetention, hourly, hourlyRetention);
+    }
+
+    RatingResolution resolutionFor(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        Duration window = Duration.between(from, to);
+        if (window.compareTo(rawMaxWindow) <= 0 && !from.isBefore(now.minus(rawRetention))) {
+            return RatingResolution.RAW;
+        }
+        if (window.compareTo(hourlyMaxWindow) <= 0 && !from.isBefore(now.minus(hourlyRetention))) {
+            return RatingResolution.HOUR;
+        }
+        return RatingResolution.DAY;
+    }
+
+    /**
+     * Hourly and daily rollups of the changes, one per coach and bucket, merged in change order.
+     */
+    static List<Rollup> rollupsOf(List<CoachRatingChange> changes) {
+        Map<List<Object>, Rollup> rollups = new LinkedHashMap<>();
+        for (RatingResolution resolution : List.of(RatingResolution.HOUR, RatingResolution.DAY)) {
+            for (CoachRatingChange change : changes) {
+                LocalDateTime bucketStart = bucketStart(change.recordedAt(), resolution);
+                Rollup single = new Rollup(change.coachId(), resolution, bucketStart, 1,
+                        change.rating(), change.rating(), change.rating(), change.rating());
+                rollups.merge(List.of(change.coachId(), resolution, bucketStart), single,
+                        CoachRatingHistoryService::merge);
+            }
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    private static Rollup merge(Rollup earlier, Rollup later) {
+        return new Rollup(earlier.coachId(), earlier.resolution(), earlier.bucketStart(),
+                earlier.samples() + later.samples(),
+                earlier.sum().add(later.sum()),
+                earlier.min().min(later.min()),
+                earlier.max().max(later.max()),
+                later.last());
+    }
+
+    private static LocalDateTime bucketStart(LocalDateTime time, RatingResolution resolution) {
+        return switch (resolution) {
+            case RAW -> time;
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+}
@@ -1,8 +1,19 @@
 package com.kulebiakin.coachservice.service;
 
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.dto.CoachRatingChange;
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.dto.RatingHistory;
 import com.kulebiakin.coachservice.entity.Coach;
 import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRatingBatchRepository;
 import com.kulebiakin.coachservice.repository.CoachRepository;
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import com.kulebiakin.common.dto.CoachRatingRequest;
+import com.kulebiakin.common.dto.CoachRatingResult;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,23 +21,49 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CoachService {
 
+    static final BigDecimal STRIKE_RATING_THRESHOLD = BigDecimal.valueOf(2);
+    static final int MAX_STRIKES = 5;
+    static final Duration DEFAULT_RATING_HISTORY_RANGE = Duration.ofDays(30);
+
     private final CoachRepository coachRepository;
+    private final CoachRatingBatchRepository coachRatingBatchRepository;
+    private final CoachLeaderboard coachLeaderboard;
+    private final CoachNameIndex coachNameIndex;
+    private final CoachCache coachCache;
+    private final CoachCatalog coachCatalog;
+    private final CoachRatingHistoryService coachRatingHistoryService;
 
-    public List<Coach> getAllCoaches() {
+    /**
+     * All coaches as a pre-serialized JSON array, served from the in-memory coach catalog.
+     */
+    public CoachListSnapshot getAllCoaches() {
         log.debug("Fetching all coaches");
-        return coachRepository.findAll();
+        return coachCatalog.snapshot();
     }
 
+    /**
+     * Served from the read-through coach cache.
+     */
     public Coach getCoachById(Long coachId) {
         log.debug("Fetching coach with id: {}", coachId);
-        return coachRepository.findById(coachId)
+        return coachCache.get(coachId)
                 .orElseThrow(() -> new ResourceNotFoundException("Coach", coachId));
     }
 
@@ -35,53 +72,207 @@ public class CoachService {
         return coachRepository.findByCoachStatus(status);
     }
 
+    /**
+     * Active coaches ordered by rating, then id, skipping the first {@code offset}. Served from
+     * the in-memory leaderboard.
+     */
+    public List<LeaderboardEntry> getLeaderboard(int offset, int limit, long minSessions) {
+        log.debug("Fetching leaderboard (offset={}, limit={}, minSessions={})", offset, limit, minSessions);
+        return coachLeaderboard.top(offset, limit, minSessions);
+    }
+
+    /**
+     * Coaches whose first or last name contains every word of the query, best matches first.
+     * Served from the in-memory name index.
+     */
+    public List<CoachSearchResult> searchCoaches(String query, int limit) {
+        if (CoachNameIndex.words(query).length == 0) {
+            throw new InvalidRequestException("Search query must contain at least one letter or digit");
+        }
+        log.debug("Searching coaches for '{}' (limit={})", query, limit);
+        return coachNameIndex.search(query, limit);
+    }
+
+    /**
+     * The coach's ratings in {@code [from, to)}, by default the last 30 days, at a resolution
+     * chosen for the range.
+     */
+    public RatingHistory getRatingHistory(Long coachId, LocalDateTime from, LocalDateTime to) {
+        getCoachById(coachId);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RATING_HISTORY_RANGE);
+        return coachRatingHistoryService.getHistory(coachId, start, end);
+    }
+
+    /**
+     * Coaches changed since {@code since}, or all coaches when it is null. {@code asOf} is taken
+     * before reading, so a change committed during the read is reported again by the next poll.
+     */
+    @Transactional(readOnly = true)
+    public CoachDirectoryDelta getDirectory(LocalDateTime since) {
+        LocalDateTime asOf = LocalDateTime.now();
+        List<CoachDirectoryEntry> coaches = since == null
+                ? coachRepository.findAllDirectoryEntries()
+                : coachRepository.findDirectoryEntriesChangedSince(since);
+        log.debug("Coach directory since {}: {} coaches", since, coaches.size());
+        return CoachDirectoryDelta.builder()
+                .asOf(asOf)
+                .coaches(coaches)
+                .build();
+    }
+
     @Transactional
     public Coach createCoach(Coach coach) {
         log.debug("Creating new coach: {} {}", coach.getFirstName(), coach.getLastName());
-        return coachRepository.save(coach);
+        Coach savedCoach = coachRepository.save(coach);
+        coachLeaderboard.update(savedCoach);
+        coachNameIndex.update(savedCoach);
+        coachCache.put(savedCoach);
+        coachCatalog.update(savedCoach);
+        return savedCoach;
     }
 
     @Transactional
     public Coach updateCoach(Long coachId, Coach coachDetails) {
         log.debug("Updating coach with id: {}", coachId);
-        Coach coach = getCoachById(coachId);
+        Coach coach = findCoach(coachId);
         coach.setFirstName(coachDetails.getFirstName());
         coach.setLastName(coachDetails.getLastName());
-        return coachRepository.save(coach);
+        Coach savedCoach = coachRepository.save(coach);
+        coachLeaderboard.update(savedCoach);
+        coachNameIndex.update(savedCoach);
+        coachCache.put(savedCoach);
+        coachCatalog.update(savedCoach);
+        return savedCoach;
+    }
+
+    /**
+     * Applies the rating unless {@code version} is not above the coach's last applied rating version,
+     * in which case the update is a no-op and the current coach is returned. A null version applies
+     * unconditionally.
+     */
+    @Transactional
+    public Coach updateCoachRating(Long coachId, BigDecimal newRating, Long totalSessions, Long version) {
+        log.debug("Updating rating for coach id: {} to {} based on {} sessions (version {})",
+                coachId, newRating, totalSessions, version);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Coach> updated = coachRepository.updateRatingAndApplyStrikes(coachId, newRating, totalSessions,
+                version != null ? version : CoachRepository.UNVERSIONED,
+                STRIKE_RATING_THRESHOLD, MAX_STRIKES, now);
+        if (updated.isEmpty()) {
+            Coach current = findCoach(coachId);
+            log.debug("Ignoring stale rating update for coach {}: version {} is not above {}",
+                    coachId, version, current.getRatingVersion());
+            return current;
+        }
+        Coach coach = updated.get();
+        coachRatingHistoryService.record(List.of(new CoachRatingChange(coachId, newRating, totalSessions, now)));
+        coachLeaderboard.update(coach);
+        coachNameIndex.update(coach);
+        coachCache.put(coach);
+        coachCatalog.update(coach);
+
+        if (newRating.compareTo(STRIKE_RATING_THRESHOLD) < 0) {
+            log.info("Coach {} received a strike. Total strikes: {}", coachId, coach.getStrikeCount());
+            if (coach.getStrikeCount() == MAX_STRIKES && coach.getCoachStatus() == CoachStatus.DEACTIVATED) {
+                log.warn("Coach {} has been deactivated due to {} strikes", coachId, MAX_STRIKES);
+            }
+        }
+
+        return coach;
     }
 
+    /**
+     * Applies the rating updates in one transaction as a JDBC batch, in list order, each with the
+     * strike rule and version check of {@link #updateCoachRating}. Returns one result per coach, in
+     * order of first appearance, with the state after the batch.
+     */
     @Transactional
-    public Coach updateCoachRating(Long coachId, BigDecimal newRating, Long totalSessions) {
-        log.debug("Updating rating for coach id: {} to {} based on {} sessions", coachId, newRating, totalSessions);
-        Coach coach = getCoachById(coachId);
-        coach.setRating(newRating);
-
-        if (newRating.compareTo(BigDecimal.valueOf(2)) < 0) {
-            int newStrikeCount = coach.getStrikeCount() + 1;
-            coach.setStrikeCount(newStrikeCount);
-            log.info("Coach {} received a strike. Total strikes: {}", coachId, newStrikeCount);
-
-            if (newStrikeCount >= 5) {
-                coach.setCoachStatus(CoachStatus.DEACTIVATED);
-                log.warn("Coach {} has been deactivated due to 5 strikes", coachId);
+    public List<CoachRatingResult> updateCoachRatings(List<CoachRatingRequest> ratings) {
+        log.debug("Updating ratings in one batch: {} updates", ratings.size());
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] applied = coachRatingBatchRepository.updateRatingsAndApplyStrikes(
+                ratings, STRIKE_RATING_THRESHOLD, MAX_STRIKES, now);
+
+        Set<Long> coachIds = new LinkedHashSet<>();
+        Set<Long> updatedCoachIds = new HashSet<>();
+        Set<Long> struckCoachIds = new HashSet<>();
+        List<CoachRatingChange> changes = new ArrayList<>(ratings.size());
+        for (int i = 0; i < ratings.size(); i++) {
+            CoachRatingRequest rating = ratings.get(i);
+            coachIds.add(rating.getCoachId());
+            if (applied[i]) {
+                updatedCoachIds.add(rating.getCoachId());
+                changes.add(new CoachRatingChange(
+                        rating.getCoachId(), rating.getRating(), rating.getTotalSessions(), now));
+                if (rating.getRating().compareTo(STRIKE_RATING_THRESHOLD) < 0) {
+                    struckCoachIds.add(rating.getCoachId());
+                }
             }
         }
+        coachRatingHistoryService.record(changes);
+        Map<Long, Coach> coaches = coachRepository.findAllById(coachIds).stream()
+                .collect(Collectors.toMap(Coach::getCoachId, Function.identity()));
 
-        return coachRepository.save(coach);
+        List<CoachRatingResult> results = new ArrayList<>(coachIds.size());
+        for (Long coachId : coachIds) {
+            Coach coach = coaches.get(coachId);
+            if (coach == null) {
+                results.add(CoachRatingResult.builder().coachId(coachId).updated(false).build());
+                continue;
+            }
+            boolean updated = updatedCoachIds.contains(coachId);
+            if (updated) {
+                coachLeaderboard.update(coach);
+                coachNameIndex.update(coach);
+                coachCache.put(coach);
+                coachCatalog.update(coach);
+            }
+            if (struckCoachIds.contains(coachId)) {
+                log.info("Coach {} received a strike. Total strikes: {}", coachId, coach.getStrikeCount());
+                if (coach.getStrikeCount() == MAX_STRIKES && coach.getCoachStatus() == CoachStatus.DEACTIVATED) {
+                    log.warn("Coach {} has been deactivated due to {} strikes", coachId, MAX_STRIKES);
+                }
+            }
+            results.add(CoachRatingResult.builder()
+                    .coachId(coachId)
+                    .updated(updated)
+                    .strikeCount(coach.getStrikeCount())
+                    .coachStatus(coach.getCoachStatus().name())
+                    .build());
+        }
+        return results;
     }
 
     @Transactional
     public Coach updateCoachStatus(Long coachId, CoachStatus newStatus) {
         log.debug("Updating status for coach id: {} to {}", coachId, newStatus);
-        Coach coach = getCoachById(coachId);
+        Coach coach = findCoach(coachId);
         coach.setCoachStatus(newStatus);
-        return coachRepository.save(coach);
+        Coach savedCoach = coachRepository.save(coach);
+        coachLeaderboard.update(savedCoach);
+        coachNameIndex.update(savedCoach);
+        coachCache.put(savedCoach);
+        coachCatalog.update(savedCoach);
+        return savedCoach;
     }
 
     @Transactional
     public void deleteCoach(Long coachId) {
         log.debug("Deleting coach with id: {}", coachId);
-        Coach coach = getCoachById(coachId);
+        Coach coach = findCoach(coachId);
         coachRepository.delete(coach);
+        coachLeaderboard.remove(coachId);
+        coachNameIndex.remove(coachId);
+        coachCache.invalidate(coachId);
+        coachCatalog.remove(coachId);
+    }
+
+    /**
+     * Loads the managed entity for a change, bypassing the cache.
+     */
+    private Coach findCoach(Long coachId) {
+        return coachRepository.findById(coachId)
+                .orElseThrow(() -> new ResourceNotFoundException("Coach", coachId));
     }
 }
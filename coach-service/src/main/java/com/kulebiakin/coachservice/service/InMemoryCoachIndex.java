@@ -0,0 +1,98 @@
+package com.kulebiakin.coachservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Base for in-memory views of the {@code coaches} table that serve reads without the database.
+ * <p>
+ * Changes made by {@link CoachService} are applied once their transaction commits. Other
+ * instances' changes arrive with a periodic reload that builds a fresh state and swaps it in;
+ * changes applied while a reload is reading are replayed onto the new state so they are not lost.
+ * The state must tolerate reads concurrent with a change being applied.
+ *
+ * @param <S> the mutable index state
+ */
+@Slf4j
+abstract class InMemoryCoachIndex<S> {
+
+    private final String name;
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile S state;
+    private List<Consumer<S>> pendingDuringReload;
+
+    protected InMemoryCoachIndex(String name, S initialState) {
+        this.name = name;
+        this.state = initialState;
+    }
+
+    /**
+     * Builds a new state from the database.
+     */
+    protected abstract S load();
+
+    protected S state() {
+        return state;
+    }
+
+    /**
+     * Rebuilds the state from the database. Failures are logged and the current state is kept.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            runLocked(() -> pendingDuringReload = new ArrayList<>());
+            S loaded = load();
+            runLocked(() -> {
+                pendingDuringReload.forEach(change -> change.accept(loaded));
+                state = loaded;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload {}: {}", name, e.toString());
+        } finally {
+            runLocked(() -> pendingDuringReload = null);
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the change once the caller's transaction commits, or immediately outside a transaction.
+     */
+    protected void afterCommit(Consumer<S> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<S> change) {
+        runLocked(() -> {
+            change.accept(state);
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(change);
+            }
+        });
+    }
+
+    private void runLocked(Runnable action) {
+        updateLock.lock();
+        try {
+            action.run();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
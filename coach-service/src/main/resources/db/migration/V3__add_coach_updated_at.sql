@@ -0,0 +1,5 @@
+-- Last change time of each coach, polled by other services to replicate the coach directory
+ALTER TABLE coaches ADD updated_at DATETIME2 NOT NULL
+    CONSTRAINT df_coaches_updated_at DEFAULT SYSDATETIME();
+
+CREATE INDEX idx_coaches_updated_at ON coaches(updated_at) INCLUDE (coach_status);
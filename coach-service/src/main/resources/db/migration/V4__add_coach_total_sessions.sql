@@ -0,0 +1,3 @@
+-- Number of sessions behind the current rating, as last reported by SessionService
+ALTER TABLE coaches ADD total_sessions BIGINT NOT NULL
+    CONSTRAINT df_coaches_total_sessions DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Version of the last applied rating update; older or repeated updates are ignored
+ALTER TABLE coaches ADD rating_version BIGINT NOT NULL
+    CONSTRAINT df_coaches_rating_version DEFAULT 0;
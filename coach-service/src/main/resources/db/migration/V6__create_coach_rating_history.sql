@@ -0,0 +1,35 @@
+-- Every applied rating update, kept for coach.rating-history.raw-retention
+CREATE TABLE coach_rating_history (
+    history_id BIGINT IDENTITY(1,1) PRIMARY KEY NONCLUSTERED,
+    coach_id BIGINT NOT NULL,
+    rating DECIMAL(4,2) NOT NULL,
+    total_sessions BIGINT NOT NULL,
+    recorded_at DATETIME2 NOT NULL,
+    CONSTRAINT fk_coach_rating_history_coach FOREIGN KEY (coach_id)
+        REFERENCES coaches(coach_id) ON DELETE CASCADE
+);
+
+-- Clustered by coach and time, so a coach's range reads contiguous pages
+CREATE CLUSTERED INDEX idx_coach_rating_history_coach_time
+    ON coach_rating_history(coach_id, recorded_at);
+
+-- Retention deletes by age across all coaches
+CREATE INDEX idx_coach_rating_history_recorded_at ON coach_rating_history(recorded_at);
+
+-- Hourly and daily rollups of the history, maintained as ratings are recorded
+CREATE TABLE coach_rating_rollup (
+    coach_id BIGINT NOT NULL,
+    resolution VARCHAR(5) NOT NULL,
+    bucket_start DATETIME2 NOT NULL,
+    sample_count INT NOT NULL,
+    rating_sum DECIMAL(19,2) NOT NULL,
+    min_rating DECIMAL(4,2) NOT NULL,
+    max_rating DECIMAL(4,2) NOT NULL,
+    last_rating DECIMAL(4,2) NOT NULL,
+    CONSTRAINT pk_coach_rating_rollup PRIMARY KEY (coach_id, resolution, bucket_start),
+    CONSTRAINT chk_coach_rating_rollup_resolution CHECK (resolution IN ('HOUR', 'DAY')),
+    CONSTRAINT fk_coach_rating_rollup_coach FOREIGN KEY (coach_id)
+        REFERENCES coaches(coach_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_coach_rating_rollup_retention ON coach_rating_rollup(resolution, bucket_start);
@@ -1,11 +1,22 @@
 package com.kulebiakin.coachservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.dto.RatingHistory;
+import com.kulebiakin.coachservice.dto.RatingHistoryPoint;
+import com.kulebiakin.coachservice.dto.RatingResolution;
 import com.kulebiakin.coachservice.entity.Coach;
 import com.kulebiakin.coachservice.entity.CoachStatus;
 import com.kulebiakin.coachservice.service.CoachService;
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import com.kulebiakin.common.dto.CoachRatingBatchRequest;
 import com.kulebiakin.common.dto.CoachRatingRequest;
+import com.kulebiakin.common.dto.CoachRatingResult;
 import com.kulebiakin.common.dto.CoachStatusRequest;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +27,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +40,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,16 +71,107 @@ class CoachControllerTest {
     }
 
     @Test
-    void getAllCoaches_returnsOkWithList() throws Exception {
-        List<Coach> coaches = Collections.singletonList(testCoach);
-        when(coachService.getAllCoaches()).thenReturn(coaches);
+    void getAllCoaches_returnsOkWithListAndEtag() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(Collections.singletonList(testCoach));
+        when(coachService.getAllCoaches()).thenReturn(new CoachListSnapshot(1L, "abc123", json));
 
         mockMvc.perform(get("/api/coaches"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("ETag", "\"abc123\""))
+            .andExpect(header().string("Cache-Control", "no-cache"))
             .andExpect(jsonPath("$[0].firstName").value("John"));
     }
 
+    @Test
+    void getAllCoaches_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        when(coachService.getAllCoaches()).thenReturn(new CoachListSnapshot(1L, "abc123", "[]".getBytes()));
+
+        mockMvc.perform(get("/api/coaches").header("If-None-Match", "\"abc123\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"abc123\""))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllCoaches_staleIfNoneMatch_returnsList() throws Exception {
+        when(coachService.getAllCoaches()).thenReturn(new CoachListSnapshot(2L, "def456", "[]".getBytes()));
+
+        mockMvc.perform(get("/api/coaches").header("If-None-Match", "\"abc123\""))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void getLeaderboard_returnsRankedCoaches() throws Exception {
+        when(coachService.getLeaderboard(20, 10, 5L)).thenReturn(List.of(
+            new LeaderboardEntry(21, 4L, "Jane", "Smith", BigDecimal.valueOf(9.25), 40L)));
+
+        mockMvc.perform(get("/api/coaches/leaderboard").param("offset", "20").param("minSessions", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].rank").value(21))
+            .andExpect(jsonPath("$[0].coachId").value(4))
+            .andExpect(jsonPath("$[0].rating").value(9.25))
+            .andExpect(jsonPath("$[0].totalSessions").value(40));
+    }
+
+    @Test
+    void getLeaderboard_limitAboveMaximum_isCapped() throws Exception {
+        when(coachService.getLeaderboard(0, CoachController.MAX_LEADERBOARD_SIZE, 0L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/coaches/leaderboard").param("limit", "5000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void searchCoaches_returnsMatches() throws Exception {
+        when(coachService.searchCoaches("jo", 10))
+            .thenReturn(List.of(new CoachSearchResult(1L, "John", "Doe", CoachStatus.ACTIVE)));
+
+        mockMvc.perform(get("/api/coaches/search").param("q", "jo"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].coachId").value(1))
+            .andExpect(jsonPath("$[0].firstName").value("John"))
+            .andExpect(jsonPath("$[0].coachStatus").value("ACTIVE"));
+    }
+
+    @Test
+    void searchCoaches_missingQuery_returnsBadRequest() throws Exception {
+        when(coachService.searchCoaches(null, 10))
+            .thenThrow(new InvalidRequestException("Search query must contain at least one letter or digit"));
+
+        mockMvc.perform(get("/api/coaches/search"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getDirectory_withSince_returnsChangedCoaches() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(coachService.getDirectory(since)).thenReturn(CoachDirectoryDelta.builder()
+            .asOf(LocalDateTime.of(2024, 1, 1, 12, 5))
+            .coaches(List.of(new CoachDirectoryEntry(1L, "DEACTIVATED")))
+            .build());
+
+        mockMvc.perform(get("/api/coaches/directory").param("since", "2024-01-01T12:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.asOf").value("2024-01-01T12:05:00"))
+            .andExpect(jsonPath("$.coaches[0].coachId").value(1))
+            .andExpect(jsonPath("$.coaches[0].status").value("DEACTIVATED"));
+    }
+
+    @Test
+    void getDirectory_withoutSince_returnsAllCoaches() throws Exception {
+        when(coachService.getDirectory(null)).thenReturn(CoachDirectoryDelta.builder()
+            .asOf(LocalDateTime.of(2024, 1, 1, 12, 5))
+            .coaches(List.of(new CoachDirectoryEntry(1L, "ACTIVE"), new CoachDirectoryEntry(2L, "ACTIVE")))
+            .build());
+
+        mockMvc.perform(get("/api/coaches/directory"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.coaches.length()").value(2));
+    }
+
     @Test
     void getCoachById_existingId_returnsOk() throws Exception {
         when(coachService.getCoachById(1L)).thenReturn(testCoach);
@@ -131,6 +235,34 @@ class CoachControllerTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getRatingHistory_returnsPointsAtChosenResolution() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2021, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(coachService.getRatingHistory(1L, from, to)).thenReturn(new RatingHistory(1L, RatingResolution.DAY,
+            List.of(new RatingHistoryPoint(from, new BigDecimal("7.25"), new BigDecimal("6.00"),
+                new BigDecimal("8.00"), new BigDecimal("7.50"), 4))));
+
+        mockMvc.perform(get("/api/coaches/1/rating-history")
+                .param("from", "2021-01-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.resolution").value("DAY"))
+            .andExpect(jsonPath("$.points[0].average").value(7.25))
+            .andExpect(jsonPath("$.points[0].samples").value(4));
+    }
+
+    @Test
+    void getRatingHistory_invalidRange_returnsBadRequest() throws Exception {
+        when(coachService.getRatingHistory(eq(1L), any(), any()))
+            .thenThrow(new InvalidRequestException("'from' must be before 'to'"));
+
+        mockMvc.perform(get("/api/coaches/1/rating-history")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2021-01-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateCoachRating_validRequest_returnsOk() throws Exception {
         CoachRatingRequest request = CoachRatingRequest.builder()
@@ -139,7 +271,7 @@ class CoachControllerTest {
             .totalSessions(10L)
             .build();
 
-        when(coachService.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L))
+        when(coachService.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L, null))
             .thenReturn(testCoach);
 
         mockMvc.perform(post("/api/coaches/rating")
@@ -148,6 +280,77 @@ class CoachControllerTest {
             .andExpect(status().isOk());
     }
 
+    @Test
+    void updateCoachRating_withVersion_passesVersion() throws Exception {
+        CoachRatingRequest request = new CoachRatingRequest(1L, BigDecimal.valueOf(8.5), 10L, 42L);
+        when(coachService.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L, 42L)).thenReturn(testCoach);
+
+        mockMvc.perform(post("/api/coaches/rating")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ratingVersion").doesNotExist());
+    }
+
+    @Test
+    void updateCoachRating_negativeVersion_returnsBadRequest() throws Exception {
+        CoachRatingRequest request = new CoachRatingRequest(1L, BigDecimal.valueOf(8.5), 10L, -1L);
+
+        mockMvc.perform(post("/api/coaches/rating")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateCoachRating_zeroVersion_returnsBadRequest() throws Exception {
+        CoachRatingRequest request = new CoachRatingRequest(1L, BigDecimal.valueOf(8.5), 10L, 0L);
+
+        mockMvc.perform(post("/api/coaches/rating")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateCoachRatings_validBatch_returnsResultPerCoach() throws Exception {
+        List<CoachRatingRequest> ratings = List.of(
+            new CoachRatingRequest(1L, BigDecimal.valueOf(1.5), 10L, 7L),
+            new CoachRatingRequest(99L, BigDecimal.valueOf(8.0), 3L, 2L));
+        when(coachService.updateCoachRatings(ratings)).thenReturn(List.of(
+            new CoachRatingResult(1L, true, 5, "DEACTIVATED"),
+            CoachRatingResult.builder().coachId(99L).updated(false).build()));
+
+        mockMvc.perform(post("/api/coaches/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CoachRatingBatchRequest(ratings))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].updated").value(true))
+            .andExpect(jsonPath("$[0].strikeCount").value(5))
+            .andExpect(jsonPath("$[0].coachStatus").value("DEACTIVATED"))
+            .andExpect(jsonPath("$[1].coachId").value(99))
+            .andExpect(jsonPath("$[1].updated").value(false))
+            .andExpect(jsonPath("$[1].coachStatus").doesNotExist());
+    }
+
+    @Test
+    void updateCoachRatings_emptyBatch_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/coaches/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CoachRatingBatchRequest(List.of()))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateCoachRatings_invalidRating_returnsBadRequest() throws Exception {
+        List<CoachRatingRequest> ratings = List.of(new CoachRatingRequest(1L, BigDecimal.valueOf(11), 10L, null));
+
+        mockMvc.perform(post("/api/coaches/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CoachRatingBatchRequest(ratings))))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateCoachStatus_validRequest_returnsOk() throws Exception {
         CoachStatusRequest request = CoachStatusRequest.builder()
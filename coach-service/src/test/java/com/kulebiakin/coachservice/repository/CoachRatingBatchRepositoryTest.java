@@ -0,0 +1,88 @@
+package com.kulebiakin.coachservice.repository;
+
+import com.kulebiakin.common.dto.CoachRatingRequest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachRatingBatchRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private CoachRatingBatchRepository coachRatingBatchRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateRatingsAndApplyStrikes_runsUpdatesInCoachIdOrderKeepingOrderPerCoach() {
+        CoachRatingRequest b1 = rating(2L, "7.0", 1L);
+        CoachRatingRequest a1 = rating(1L, "8.0", 1L);
+        CoachRatingRequest b2 = rating(2L, "6.0", 2L);
+        CoachRatingRequest c1 = rating(3L, "9.0", 1L);
+        CoachRatingRequest a2 = rating(1L, "5.0", 2L);
+        ArgumentCaptor<Collection<CoachRatingRequest>> statements = ArgumentCaptor.forClass(Collection.class);
+        // applied flags in statement order: a1, a2, b1, b2, c1
+        when(jdbcTemplate.batchUpdate(anyString(), statements.capture(), eq(CoachRatingBatchRepository.BATCH_SIZE),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0, 1, 0, 1}});
+
+        boolean[] applied = coachRatingBatchRepository.updateRatingsAndApplyStrikes(
+                List.of(b1, a1, b2, c1, a2), new BigDecimal("2.0"), 5, LocalDateTime.now());
+
+        assertThat(statements.getValue()).containsExactly(a1, a2, b1, b2, c1);
+        // flags are reported in request order: b1, a1, b2, c1, a2
+        assertThat(applied).containsExactly(true, true, false, true, false);
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void updateRatingsAndApplyStrikes_driverReportsNoRowCount_throws() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), eq(CoachRatingBatchRepository.BATCH_SIZE),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, Statement.SUCCESS_NO_INFO}});
+        List<CoachRatingRequest> ratings = List.of(rating(1L, "8.0", 1L), rating(2L, "7.0", 1L));
+        BigDecimal strikeThreshold = new BigDecimal("2.0");
+        LocalDateTime updatedAt = LocalDateTime.now();
+
+        assertThatThrownBy(() -> coachRatingBatchRepository.updateRatingsAndApplyStrikes(
+                ratings, strikeThreshold, 5, updatedAt))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("row count");
+    }
+
+    private static CoachRatingRequest rating(Long coachId, String rating, Long version) {
+        return CoachRatingRequest.builder()
+                .coachId(coachId)
+                .rating(new BigDecimal(rating))
+                .totalSessions(10L)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachCacheTest {
+
+    @Mock
+    private CoachRepository coachRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CoachCache(coachRepository, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_missThenHit_loadsOnce() {
+        when(coachRepository.findById(1L)).thenReturn(Optional.of(coach(1L, "Doe")));
+
+        assertThat(cache.get(1L)).map(Coach::getLastName).contains("Doe");
+        assertThat(cache.get(1L)).map(Coach::getLastName).contains("Doe");
+
+        verify(coachRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "coach").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "coach").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_returnsCopiesThatDoNotChangeTheCache() {
+        when(coachRepository.findById(1L)).thenReturn(Optional.of(coach(1L, "Doe")));
+
+        cache.get(1L).orElseThrow().setLastName("Changed");
+
+        assertThat(cache.get(1L)).map(Coach::getLastName).contains("Doe");
+    }
+
+    @Test
+    void get_missingCoach_isNotCached() {
+        when(coachRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(99L)).isEmpty();
+        assertThat(cache.get(99L)).isEmpty();
+
+        verify(coachRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    void get_concurrentMisses_shareOneLoad() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(coachRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(coach(1L, "Doe"));
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        List<Optional<Coach>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread reader = new Thread(() -> {
+                Optional<Coach> coach = cache.get(1L);
+                synchronized (results) {
+                    results.add(coach);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitAllWaiting(readers);
+        release.countDown();
+        for (Thread reader : readers) {
+            reader.join(5000);
+        }
+
+        assertThat(results).hasSize(8).allSatisfy(coach -> assertThat(coach).isPresent());
+        verify(coachRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void put_replacesEntryAfterCommit() {
+        when(coachRepository.findById(1L)).thenReturn(Optional.of(coach(1L, "Doe")));
+        cache.get(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.put(coach(1L, "Smith"));
+
+        assertThat(cache.get(1L)).map(Coach::getLastName).contains("Doe");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get(1L)).map(Coach::getLastName).contains("Smith");
+        verify(coachRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void invalidate_dropsEntryAfterCommit() {
+        when(coachRepository.findById(1L)).thenReturn(Optional.of(coach(1L, "Doe")));
+        cache.get(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L);
+        cache.get(1L);
+        verify(coachRepository, times(1)).findById(1L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get(1L);
+        verify(coachRepository, times(2)).findById(1L);
+    }
+
+    private static void awaitAllWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline
+                && !threads.stream().allMatch(thread -> thread.getState() != Thread.State.RUNNABLE)) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static Coach coach(Long coachId, String lastName) {
+        return Coach.builder()
+                .coachId(coachId)
+                .firstName("John")
+                .lastName(lastName)
+                .rating(BigDecimal.valueOf(7.5))
+                .coachStatus(CoachStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.kulebiakin.coachservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachCatalogTest {
+
+    @Mock
+    private CoachRepository coachRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private CoachCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new CoachCatalog(coachRepository, objectMapper, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void snapshot_serializesCoachesOrderedById() throws Exception {
+        catalog.update(coach(2L, "Smith"));
+        catalog.update(coach(1L, "Doe"));
+
+        JsonNode json = objectMapper.readTree(catalog.snapshot().json());
+
+        assertThat(json).hasSize(2);
+        assertThat(json.get(0).get("coachId").asLong()).isEqualTo(1L);
+        assertThat(json.get(1).get("lastName").asText()).isEqualTo("Smith");
+        assertThat(json.get(0).has("updatedAt")).isFalse();
+    }
+
+    @Test
+    void snapshot_withoutChanges_returnsSameSnapshot() {
+        catalog.update(coach(1L, "Doe"));
+
+        CoachListSnapshot first = catalog.snapshot();
+
+        assertThat(catalog.snapshot()).isSameAs(first);
+    }
+
+    @Test
+    void snapshot_afterChange_hasNewEtag() {
+        catalog.update(coach(1L, "Doe"));
+        CoachListSnapshot before = catalog.snapshot();
+
+        catalog.update(coach(1L, "Smith"));
+        CoachListSnapshot after = catalog.snapshot();
+
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    void snapshot_unchangedUpdate_keepsSnapshot() {
+        catalog.update(coach(1L, "Doe"));
+        CoachListSnapshot before = catalog.snapshot();
+
+        catalog.update(coach(1L, "Doe"));
+
+        assertThat(catalog.snapshot()).isSameAs(before);
+    }
+
+    @Test
+    void snapshot_sameCoaches_haveSameEtagAcrossInstances() {
+        when(coachRepository.findAll()).thenReturn(List.of(coach(1L, "Doe"), coach(2L, "Smith")));
+        catalog.update(coach(2L, "Smith"));
+        catalog.update(coach(1L, "Doe"));
+
+        CoachCatalog other = new CoachCatalog(coachRepository, objectMapper, new SimpleMeterRegistry());
+        other.reload();
+
+        assertThat(other.snapshot().etag()).isEqualTo(catalog.snapshot().etag());
+    }
+
+    @Test
+    void update_isAppliedAfterCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        catalog.update(coach(1L, "Doe"));
+
+        assertThat(objectMapper.readTree(catalog.snapshot().json())).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(objectMapper.readTree(catalog.snapshot().json())).hasSize(1);
+    }
+
+    @Test
+    void remove_dropsCoach() throws Exception {
+        catalog.update(coach(1L, "Doe"));
+        catalog.update(coach(2L, "Smith"));
+
+        catalog.remove(1L);
+
+        JsonNode json = objectMapper.readTree(catalog.snapshot().json());
+        assertThat(json).hasSize(1);
+        assertThat(json.get(0).get("coachId").asLong()).isEqualTo(2L);
+        assertThat(meterRegistry.get("coach.catalog.size").gauge().value()).isEqualTo(1);
+    }
+
+    private static Coach coach(Long coachId, String lastName) {
+        return Coach.builder()
+                .coachId(coachId)
+                .firstName("John")
+                .lastName(lastName)
+                .rating(new BigDecimal("7.50"))
+                .totalSessions(10L)
+                .strikeCount(0)
+                .coachStatus(CoachStatus.ACTIVE)
+                .build();
+    }
+}
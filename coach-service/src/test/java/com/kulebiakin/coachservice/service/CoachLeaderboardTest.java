@@ -0,0 +1,145 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachLeaderboardTest {
+
+    @Mock
+    private CoachRepository coachRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        leaderboard = new CoachLeaderboard(coachRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void top_ordersByRatingThenCoachId() {
+        leaderboard.update(coach(1L, "7.50", 10));
+        leaderboard.update(coach(2L, "9.00", 10));
+        leaderboard.update(coach(3L, "7.5", 10));
+
+        assertThat(leaderboard.top(0, 10, 0)).extracting(LeaderboardEntry::coachId).containsExactly(2L, 1L, 3L);
+        assertThat(leaderboard.top(0, 10, 0)).extracting(LeaderboardEntry::rank).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void top_appliesOffsetAndLimit() {
+        for (long id = 1; id <= 5; id++) {
+            leaderboard.update(coach(id, String.valueOf(id), 10));
+        }
+
+        List<LeaderboardEntry> page = leaderboard.top(1, 2, 0);
+
+        assertThat(page).extracting(LeaderboardEntry::coachId).containsExactly(4L, 3L);
+        assertThat(page).extracting(LeaderboardEntry::rank).containsExactly(2, 3);
+    }
+
+    @Test
+    void top_minSessions_ranksWithinFilter() {
+        leaderboard.update(coach(1L, "9.00", 2));
+        leaderboard.update(coach(2L, "8.00", 20));
+        leaderboard.update(coach(3L, "7.00", 30));
+
+        List<LeaderboardEntry> page = leaderboard.top(0, 10, 10);
+
+        assertThat(page).extracting(LeaderboardEntry::coachId).containsExactly(2L, 3L);
+        assertThat(page.get(0).rank()).isEqualTo(1);
+    }
+
+    @Test
+    void update_reRanksCoachAndDropsDeactivated() {
+        leaderboard.update(coach(1L, "5.00", 10));
+        leaderboard.update(coach(2L, "6.00", 10));
+
+        leaderboard.update(coach(1L, "8.00", 11));
+        assertThat(leaderboard.top(0, 10, 0)).extracting(LeaderboardEntry::coachId).containsExactly(1L, 2L);
+
+        Coach deactivated = coach(2L, "6.00", 10);
+        deactivated.setCoachStatus(CoachStatus.DEACTIVATED);
+        leaderboard.update(deactivated);
+        assertThat(leaderboard.top(0, 10, 0)).extracting(LeaderboardEntry::coachId).containsExactly(1L);
+        assertThat(meterRegistry.get("coach.leaderboard.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void update_insideTransaction_appliesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        leaderboard.update(coach(1L, "5.00", 10));
+
+        assertThat(leaderboard.top(0, 10, 0)).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(leaderboard.top(0, 10, 0)).hasSize(1);
+    }
+
+    @Test
+    void remove_dropsCoach() {
+        leaderboard.update(coach(1L, "5.00", 10));
+
+        leaderboard.remove(1L);
+
+        assertThat(leaderboard.top(0, 10, 0)).isEmpty();
+    }
+
+    @Test
+    void reload_replacesRankingWithActiveCoachesFromDatabase() {
+        leaderboard.update(coach(9L, "9.00", 10));
+        when(coachRepository.findByCoachStatus(CoachStatus.ACTIVE))
+            .thenReturn(List.of(coach(1L, "6.00", 3), coach(2L, "7.00", 4)));
+
+        leaderboard.reload();
+
+        assertThat(leaderboard.top(0, 10, 0)).extracting(LeaderboardEntry::coachId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void reload_failure_keepsCurrentRanking() {
+        leaderboard.update(coach(1L, "6.00", 3));
+        when(coachRepository.findByCoachStatus(CoachStatus.ACTIVE)).thenThrow(new IllegalStateException("db down"));
+
+        leaderboard.reload();
+
+        assertThat(leaderboard.top(0, 10, 0)).hasSize(1);
+    }
+
+    private static Coach coach(Long coachId, String rating, long totalSessions) {
+        return Coach.builder()
+            .coachId(coachId)
+            .firstName("Coach")
+            .lastName(String.valueOf(coachId))
+            .rating(new BigDecimal(rating))
+            .totalSessions(totalSessions)
+            .coachStatus(CoachStatus.ACTIVE)
+            .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.entity.Coach;
+import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachNameIndexTest {
+
+    @Mock
+    private CoachRepository coachRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new CoachNameIndex(coachRepository, meterRegistry);
+        index.update(coach(1L, "John", "Doe"));
+        index.update(coach(2L, "Johanna", "Smith"));
+        index.update(coach(3L, "Mark", "Johnson"));
+        index.update(coach(4L, "Zoë", "Müller"));
+    }
+
+    @Test
+    void search_ranksWholeWordThenPrefixThenInfix() {
+        index.update(coach(5L, "Bo", "Kjohnk"));
+
+        assertThat(ids(index.search("john", 10))).containsExactly(1L, 3L, 5L);
+    }
+
+    @Test
+    void search_shortTerm_matchesWordPrefixesOnly() {
+        assertThat(ids(index.search("jo", 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.search("oh", 10)).isEmpty();
+    }
+
+    @Test
+    void search_multipleTerms_requiresAllToMatch() {
+        assertThat(ids(index.search("jo smi", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void search_ignoresCaseAndAccents() {
+        assertThat(ids(index.search("ZOE mull", 10))).containsExactly(4L);
+        assertThat(ids(index.search("müll", 10))).containsExactly(4L);
+    }
+
+    @Test
+    void search_appliesLimitToBestMatches() {
+        assertThat(ids(index.search("john", 1))).containsExactly(1L);
+    }
+
+    @Test
+    void search_limitedPage_matchesTopOfFullRanking() {
+        index.update(coach(11L, "Ann", "Zed"));
+        index.update(coach(12L, "Wil", "Smith"));
+        index.update(coach(13L, "Annabelle", "Smithsonianlongname"));
+        index.update(coach(14L, "Ann", "Osmith"));
+
+        // 13 and 14 both score a prefix and a whole word; the shorter name wins the tie
+        assertThat(ids(index.search("ann smi", 10))).startsWith(14L, 13L);
+        assertThat(ids(index.search("ann smi", 1))).containsExactly(14L);
+    }
+
+    @Test
+    void update_renamedCoach_isFoundOnlyByNewName() {
+        index.update(coach(1L, "Peter", "Doe"));
+
+        assertThat(ids(index.search("john", 10))).containsExactly(3L);
+        assertThat(ids(index.search("pete", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void remove_dropsCoach() {
+        index.remove(3L);
+
+        assertThat(ids(index.search("johnson", 10))).isEmpty();
+        assertThat(meterRegistry.get("coach.search.index.size").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void reload_replacesIndexWithCoachesFromDatabase() {
+        when(coachRepository.findAll()).thenReturn(List.of(coach(7L, "Anna", "Johns")));
+
+        index.reload();
+
+        assertThat(ids(index.search("john", 10))).containsExactly(7L);
+    }
+
+    private static List<Long> ids(List<CoachSearchResult> results) {
+        return results.stream().map(CoachSearchResult::coachId).toList();
+    }
+
+    private static Coach coach(Long coachId, String firstName, String lastName) {
+        return Coach.builder()
+            .coachId(coachId)
+            .firstName(firstName)
+            .lastName(lastName)
+            .coachStatus(CoachStatus.ACTIVE)
+            .build();
+    }
+}
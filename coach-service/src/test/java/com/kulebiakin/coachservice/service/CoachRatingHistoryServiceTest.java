@@ -0,0 +1,142 @@
+package com.kulebiakin.coachservice.service;
+
+import com.kulebiakin.coachservice.dto.CoachRatingChange;
+import com.kulebiakin.coachservice.dto.RatingHistory;
+import com.kulebiakin.coachservice.dto.RatingHistoryPoint;
+import com.kulebiakin.coachservice.dto.RatingResolution;
+import com.kulebiakin.coachservice.repository.CoachRatingHistoryRepository;
+import com.kulebiakin.coachservice.repository.CoachRatingHistoryRepository.Rollup;
+import com.kulebiakin.common.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachRatingHistoryServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 10, 12, 0);
+
+    @Mock
+    private CoachRatingHistoryRepository historyRepository;
+
+    private CoachRatingHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new CoachRatingHistoryService(historyRepository,
+            Duration.ofDays(30), Duration.ofDays(365), Duration.ofDays(2), Duration.ofDays(60));
+    }
+
+    @Test
+    void rollupsOf_mergesChangesPerCoachAndBucket() {
+        List<Rollup> rollups = CoachRatingHistoryService.rollupsOf(List.of(
+            change(1L, "5.00", NOON.plusMinutes(10)),
+            change(1L, "7.00", NOON.plusMinutes(40)),
+            change(1L, "4.00", NOON.plusHours(1)),
+            change(2L, "3.00", NOON.plusMinutes(5))));
+
+        assertThat(rollups).containsExactly(
+            new Rollup(1L, RatingResolution.HOUR, NOON, 2, new BigDecimal("12.00"),
+                new BigDecimal("5.00"), new BigDecimal("7.00"), new BigDecimal("7.00")),
+            new Rollup(1L, RatingResolution.HOUR, NOON.plusHours(1), 1, new BigDecimal("4.00"),
+                new BigDecimal("4.00"), new BigDecimal("4.00"), new BigDecimal("4.00")),
+            new Rollup(2L, RatingResolution.HOUR, NOON, 1, new BigDecimal("3.00"),
+                new BigDecimal("3.00"), new BigDecimal("3.00"), new BigDecimal("3.00")),
+            new Rollup(1L, RatingResolution.DAY, NOON.toLocalDate().atStartOfDay(), 3, new BigDecimal("16.00"),
+                new BigDecimal("4.00"), new BigDecimal("7.00"), new BigDecimal("4.00")),
+            new Rollup(2L, RatingResolution.DAY, NOON.toLocalDate().atStartOfDay(), 1, new BigDecimal("3.00"),
+                new BigDecimal("3.00"), new BigDecimal("3.00"), new BigDecimal("3.00")));
+    }
+
+    @Test
+    void record_appendsHistoryAndMergesRollups() {
+        List<CoachRatingChange> changes = List.of(change(1L, "5.00", NOON));
+
+        historyService.record(changes);
+
+        verify(historyRepository).insertHistory(changes);
+        verify(historyRepository).mergeRollups(CoachRatingHistoryService.rollupsOf(changes));
+    }
+
+    @Test
+    void record_noChanges_writesNothing() {
+        historyService.record(List.of());
+
+        verifyNoInteractions(historyRepository);
+    }
+
+    @Test
+    void resolutionFor_choosesFinestRetainedResolutionSmallEnoughForRange() {
+        LocalDateTime now = NOON;
+
+        assertThat(historyService.resolutionFor(now.minusDays(1), now, now)).isEqualTo(RatingResolution.RAW);
+        assertThat(historyService.resolutionFor(now.minusDays(7), now, now)).isEqualTo(RatingResolution.HOUR);
+        assertThat(historyService.resolutionFor(now.minusDays(200), now.minusDays(199), now))
+            .isEqualTo(RatingResolution.HOUR);
+        assertThat(historyService.resolutionFor(now.minusDays(400), now.minusDays(399), now))
+            .isEqualTo(RatingResolution.DAY);
+        assertThat(historyService.resolutionFor(now.minusYears(5), now, now)).isEqualTo(RatingResolution.DAY);
+    }
+
+    @Test
+    void getHistory_longRange_readsDailyRollupsFromBucketOfFrom() {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusYears(3);
+        List<RatingHistoryPoint> points = List.of(new RatingHistoryPoint(from, BigDecimal.ONE, BigDecimal.ONE,
+            BigDecimal.ONE, BigDecimal.ONE, 1));
+        when(historyRepository.findRollups(1L, RatingResolution.DAY, from.toLocalDate().atStartOfDay(), to))
+            .thenReturn(points);
+
+        RatingHistory history = historyService.getHistory(1L, from, to);
+
+        assertThat(history).isEqualTo(new RatingHistory(1L, RatingResolution.DAY, points));
+    }
+
+    @Test
+    void getHistory_shortRecentRange_readsRawHistory() {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusHours(6);
+        when(historyRepository.findHistory(1L, from, to)).thenReturn(List.of());
+
+        assertThat(historyService.getHistory(1L, from, to).resolution()).isEqualTo(RatingResolution.RAW);
+    }
+
+    @Test
+    void getHistory_emptyRange_throwsException() {
+        assertThatThrownBy(() -> historyService.getHistory(1L, NOON, NOON))
+            .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(historyRepository);
+    }
+
+    @Test
+    void prune_deletesRawAndHourlyPastRetention() {
+        LocalDateTime before = LocalDateTime.now();
+
+        historyService.prune();
+
+        verify(historyRepository).deleteHistoryBefore(any(LocalDateTime.class));
+        verify(historyRepository).deleteRollupsBefore(eq(RatingResolution.HOUR),
+            argThat(cutoff -> !cutoff.isAfter(before.minusDays(365).plusMinutes(1))
+                && cutoff.isAfter(before.minusDays(366))));
+    }
+
+    private static CoachRatingChange change(Long coachId, String rating, LocalDateTime recordedAt) {
+        return new CoachRatingChange(coachId, new BigDecimal(rating), 1L, recordedAt);
+    }
+}
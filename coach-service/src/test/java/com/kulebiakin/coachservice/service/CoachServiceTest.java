@@ -1,8 +1,20 @@
 package com.kulebiakin.coachservice.service;
 
+import com.kulebiakin.coachservice.dto.CoachListSnapshot;
+import com.kulebiakin.coachservice.dto.CoachRatingChange;
+import com.kulebiakin.coachservice.dto.CoachSearchResult;
+import com.kulebiakin.coachservice.dto.LeaderboardEntry;
+import com.kulebiakin.coachservice.dto.RatingHistory;
+import com.kulebiakin.coachservice.dto.RatingResolution;
 import com.kulebiakin.coachservice.entity.Coach;
 import com.kulebiakin.coachservice.entity.CoachStatus;
+import com.kulebiakin.coachservice.repository.CoachRatingBatchRepository;
 import com.kulebiakin.coachservice.repository.CoachRepository;
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import com.kulebiakin.common.dto.CoachRatingRequest;
+import com.kulebiakin.common.dto.CoachRatingResult;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +24,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -28,6 +41,24 @@ class CoachServiceTest {
     @Mock
     private CoachRepository coachRepository;
 
+    @Mock
+    private CoachRatingBatchRepository coachRatingBatchRepository;
+
+    @Mock
+    private CoachLeaderboard coachLeaderboard;
+
+    @Mock
+    private CoachNameIndex coachNameIndex;
+
+    @Mock
+    private CoachCache coachCache;
+
+    @Mock
+    private CoachCatalog coachCatalog;
+
+    @Mock
+    private CoachRatingHistoryService coachRatingHistoryService;
+
     @InjectMocks
     private CoachService coachService;
 
@@ -46,29 +77,27 @@ class CoachServiceTest {
     }
 
     @Test
-    void getAllCoaches_returnsListOfCoaches() {
-        List<Coach> coaches = Arrays.asList(testCoach, Coach.builder().coachId(2L).build());
-        when(coachRepository.findAll()).thenReturn(coaches);
+    void getAllCoaches_isServedFromCatalog() {
+        CoachListSnapshot snapshot = new CoachListSnapshot(1L, "etag", "[]".getBytes());
+        when(coachCatalog.snapshot()).thenReturn(snapshot);
 
-        List<Coach> result = coachService.getAllCoaches();
-
-        assertThat(result).hasSize(2);
-        verify(coachRepository).findAll();
+        assertThat(coachService.getAllCoaches()).isSameAs(snapshot);
+        verifyNoInteractions(coachRepository);
     }
 
     @Test
-    void getCoachById_existingId_returnsCoach() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.of(testCoach));
+    void getCoachById_existingId_isServedFromCache() {
+        when(coachCache.get(1L)).thenReturn(Optional.of(testCoach));
 
         Coach result = coachService.getCoachById(1L);
 
         assertThat(result).isEqualTo(testCoach);
-        verify(coachRepository).findById(1L);
+        verifyNoInteractions(coachRepository);
     }
 
     @Test
     void getCoachById_nonExistingId_throwsException() {
-        when(coachRepository.findById(99L)).thenReturn(Optional.empty());
+        when(coachCache.get(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> coachService.getCoachById(99L))
             .isInstanceOf(ResourceNotFoundException.class);
@@ -94,6 +123,10 @@ class CoachServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getFirstName()).isEqualTo("John");
         verify(coachRepository).save(testCoach);
+        verify(coachLeaderboard).update(testCoach);
+        verify(coachNameIndex).update(testCoach);
+        verify(coachCache).put(testCoach);
+        verify(coachCatalog).update(testCoach);
     }
 
     @Test
@@ -111,6 +144,9 @@ class CoachServiceTest {
         assertThat(result.getFirstName()).isEqualTo("Jane");
         assertThat(result.getLastName()).isEqualTo("Smith");
         verify(coachRepository).save(testCoach);
+        verify(coachCache).put(testCoach);
+        verify(coachCatalog).update(testCoach);
+        verify(coachCache, never()).get(any());
     }
 
     @Test
@@ -123,22 +159,32 @@ class CoachServiceTest {
 
     @Test
     void updateCoachRating_normalRating_updatesRating() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.of(testCoach));
-        when(coachRepository.save(any(Coach.class))).thenReturn(testCoach);
+        testCoach.setRating(BigDecimal.valueOf(8.0));
+        when(coachRepository.updateRatingAndApplyStrikes(eq(1L), eq(BigDecimal.valueOf(8.0)), eq(10L), eq(-1L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.of(testCoach));
 
-        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(8.0), 10L);
+        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(8.0), 10L, null);
 
         assertThat(result.getRating()).isEqualTo(BigDecimal.valueOf(8.0));
         assertThat(result.getStrikeCount()).isZero();
         assertThat(result.getCoachStatus()).isEqualTo(CoachStatus.ACTIVE);
+        verify(coachRepository, never()).findById(any());
+        verify(coachRepository, never()).save(any(Coach.class));
+        verify(coachLeaderboard).update(testCoach);
+        verify(coachCache).put(testCoach);
+        verify(coachCatalog).update(testCoach);
     }
 
     @Test
-    void updateCoachRating_lowRating_incrementsStrike() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.of(testCoach));
-        when(coachRepository.save(any(Coach.class))).thenReturn(testCoach);
+    void updateCoachRating_lowRating_returnsUpdatedStrikeCount() {
+        testCoach.setRating(BigDecimal.valueOf(1.5));
+        testCoach.setStrikeCount(1);
+        when(coachRepository.updateRatingAndApplyStrikes(eq(1L), eq(BigDecimal.valueOf(1.5)), eq(10L), eq(-1L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.of(testCoach));
 
-        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(1.5), 10L);
+        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(1.5), 10L, null);
 
         assertThat(result.getRating()).isEqualTo(BigDecimal.valueOf(1.5));
         assertThat(result.getStrikeCount()).isEqualTo(1);
@@ -146,25 +192,100 @@ class CoachServiceTest {
     }
 
     @Test
-    void updateCoachRating_fifthStrike_deactivatesCoach() {
-        testCoach.setStrikeCount(4);
-        when(coachRepository.findById(1L)).thenReturn(Optional.of(testCoach));
-        when(coachRepository.save(any(Coach.class))).thenReturn(testCoach);
+    void updateCoachRating_fifthStrike_returnsDeactivatedCoach() {
+        testCoach.setStrikeCount(5);
+        testCoach.setCoachStatus(CoachStatus.DEACTIVATED);
+        when(coachRepository.updateRatingAndApplyStrikes(eq(1L), eq(BigDecimal.valueOf(1.0)), eq(10L), eq(-1L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.of(testCoach));
 
-        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(1.0), 10L);
+        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(1.0), 10L, null);
 
         assertThat(result.getStrikeCount()).isEqualTo(5);
         assertThat(result.getCoachStatus()).isEqualTo(CoachStatus.DEACTIVATED);
     }
 
     @Test
-    void updateCoachRating_ratingExactlyTwo_noStrike() {
+    void updateCoachRating_nonExistingCoach_throwsException() {
+        when(coachRepository.updateRatingAndApplyStrikes(eq(99L), eq(BigDecimal.valueOf(7.0)), eq(10L), eq(-1L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> coachService.updateCoachRating(99L, BigDecimal.valueOf(7.0), 10L, null))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void updateCoachRating_newerVersion_passesVersionToConditionalUpdate() {
+        when(coachRepository.updateRatingAndApplyStrikes(eq(1L), eq(BigDecimal.valueOf(8.0)), eq(10L), eq(42L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.of(testCoach));
+
+        assertThat(coachService.updateCoachRating(1L, BigDecimal.valueOf(8.0), 10L, 42L)).isEqualTo(testCoach);
+        verify(coachRepository, never()).findById(any());
+        verify(coachLeaderboard).update(testCoach);
+        verify(coachRatingHistoryService).record(argThat(changes -> changes.size() == 1
+            && changes.get(0).coachId().equals(1L)
+            && changes.get(0).rating().equals(BigDecimal.valueOf(8.0))
+            && changes.get(0).totalSessions() == 10L));
+    }
+
+    @Test
+    void updateCoachRating_staleVersion_returnsCurrentCoachWithoutChanges() {
+        testCoach.setRatingVersion(42L);
+        when(coachRepository.updateRatingAndApplyStrikes(eq(1L), eq(BigDecimal.valueOf(1.0)), eq(10L), eq(41L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.empty());
         when(coachRepository.findById(1L)).thenReturn(Optional.of(testCoach));
-        when(coachRepository.save(any(Coach.class))).thenReturn(testCoach);
 
-        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(2.0), 10L);
+        Coach result = coachService.updateCoachRating(1L, BigDecimal.valueOf(1.0), 10L, 41L);
 
-        assertThat(result.getStrikeCount()).isZero();
+        assertThat(result).isEqualTo(testCoach);
+        verifyNoInteractions(coachLeaderboard, coachNameIndex, coachCache, coachCatalog, coachRatingHistoryService);
+    }
+
+    @Test
+    void updateCoachRating_staleVersionForMissingCoach_throwsException() {
+        when(coachRepository.updateRatingAndApplyStrikes(eq(99L), eq(BigDecimal.valueOf(7.0)), eq(10L), eq(3L),
+            eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(Optional.empty());
+        when(coachRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> coachService.updateCoachRating(99L, BigDecimal.valueOf(7.0), 10L, 3L))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void updateCoachRatings_appliesBatchAndReturnsResultPerCoach() {
+        List<CoachRatingRequest> ratings = List.of(
+            new CoachRatingRequest(1L, BigDecimal.valueOf(1.5), 10L, 7L),
+            new CoachRatingRequest(99L, BigDecimal.valueOf(8.0), 3L, 2L),
+            new CoachRatingRequest(1L, BigDecimal.valueOf(1.0), 11L, 8L),
+            new CoachRatingRequest(2L, BigDecimal.valueOf(9.0), 4L, 3L));
+        Coach staleCoach = Coach.builder().coachId(2L).firstName("Jane").lastName("Smith")
+            .strikeCount(0).coachStatus(CoachStatus.ACTIVE).build();
+        testCoach.setRating(BigDecimal.valueOf(1.0));
+        testCoach.setStrikeCount(5);
+        testCoach.setCoachStatus(CoachStatus.DEACTIVATED);
+        when(coachRatingBatchRepository.updateRatingsAndApplyStrikes(
+            eq(ratings), eq(BigDecimal.valueOf(2)), eq(5), any(LocalDateTime.class)))
+            .thenReturn(new boolean[] {true, false, true, false});
+        when(coachRepository.findAllById(Set.of(1L, 99L, 2L))).thenReturn(List.of(testCoach, staleCoach));
+
+        List<CoachRatingResult> results = coachService.updateCoachRatings(ratings);
+
+        assertThat(results).containsExactly(
+            new CoachRatingResult(1L, true, 5, "DEACTIVATED"),
+            new CoachRatingResult(99L, false, null, null),
+            new CoachRatingResult(2L, false, 0, "ACTIVE"));
+        verify(coachLeaderboard).update(testCoach);
+        verify(coachNameIndex).update(testCoach);
+        verify(coachCache).put(testCoach);
+        verify(coachCatalog).update(testCoach);
+        verify(coachCatalog, never()).update(staleCoach);
+        verify(coachRatingHistoryService).record(argThat(changes -> changes.stream()
+            .map(CoachRatingChange::totalSessions).toList().equals(List.of(10L, 11L))));
+        verify(coachRepository, never()).updateRatingAndApplyStrikes(any(), any(), any(), anyLong(), any(), anyInt(), any());
     }
 
     @Test
@@ -175,6 +296,35 @@ class CoachServiceTest {
         Coach result = coachService.updateCoachStatus(1L, CoachStatus.DEACTIVATED);
 
         assertThat(result.getCoachStatus()).isEqualTo(CoachStatus.DEACTIVATED);
+        verify(coachLeaderboard).update(testCoach);
+        verify(coachCache).put(testCoach);
+        verify(coachCatalog).update(testCoach);
+    }
+
+    @Test
+    void getLeaderboard_isServedFromLeaderboard() {
+        List<LeaderboardEntry> entries = List.of(
+            new LeaderboardEntry(1, 1L, "John", "Doe", BigDecimal.valueOf(7.5), 10L));
+        when(coachLeaderboard.top(0, 10, 5L)).thenReturn(entries);
+
+        assertThat(coachService.getLeaderboard(0, 10, 5L)).isEqualTo(entries);
+        verifyNoInteractions(coachRepository);
+    }
+
+    @Test
+    void searchCoaches_isServedFromNameIndex() {
+        List<CoachSearchResult> results = List.of(new CoachSearchResult(1L, "John", "Doe", CoachStatus.ACTIVE));
+        when(coachNameIndex.search("jo", 10)).thenReturn(results);
+
+        assertThat(coachService.searchCoaches("jo", 10)).isEqualTo(results);
+        verifyNoInteractions(coachRepository);
+    }
+
+    @Test
+    void searchCoaches_queryWithoutWords_throwsException() {
+        assertThatThrownBy(() -> coachService.searchCoaches(" - ", 10))
+            .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(coachNameIndex);
     }
 
     @Test
@@ -184,6 +334,10 @@ class CoachServiceTest {
         coachService.deleteCoach(1L);
 
         verify(coachRepository).delete(testCoach);
+        verify(coachLeaderboard).remove(1L);
+        verify(coachNameIndex).remove(1L);
+        verify(coachCache).invalidate(1L);
+        verify(coachCatalog).remove(1L);
     }
 
     @Test
@@ -193,4 +347,51 @@ class CoachServiceTest {
         assertThatThrownBy(() -> coachService.deleteCoach(99L))
             .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    void getRatingHistory_defaultsToLastThirtyDays() {
+        RatingHistory history = new RatingHistory(1L, RatingResolution.HOUR, List.of());
+        when(coachCache.get(1L)).thenReturn(Optional.of(testCoach));
+        when(coachRatingHistoryService.getHistory(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(history);
+
+        assertThat(coachService.getRatingHistory(1L, null, null)).isEqualTo(history);
+        verify(coachRatingHistoryService).getHistory(eq(1L),
+            argThat(from -> from.isBefore(LocalDateTime.now().minusDays(29))),
+            argThat(to -> !to.isBefore(LocalDateTime.now().minusMinutes(1))));
+    }
+
+    @Test
+    void getRatingHistory_nonExistingCoach_throwsException() {
+        when(coachCache.get(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> coachService.getRatingHistory(99L, null, null))
+            .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(coachRatingHistoryService);
+    }
+
+    @Test
+    void getDirectory_withoutSince_returnsAllCoaches() {
+        List<CoachDirectoryEntry> entries = List.of(new CoachDirectoryEntry(1L, "ACTIVE"));
+        when(coachRepository.findAllDirectoryEntries()).thenReturn(entries);
+        LocalDateTime before = LocalDateTime.now();
+
+        CoachDirectoryDelta delta = coachService.getDirectory(null);
+
+        assertThat(delta.getCoaches()).isEqualTo(entries);
+        assertThat(delta.getAsOf()).isAfterOrEqualTo(before);
+        verify(coachRepository, never()).findDirectoryEntriesChangedSince(any());
+    }
+
+    @Test
+    void getDirectory_withSince_returnsChangedCoaches() {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<CoachDirectoryEntry> entries = List.of(new CoachDirectoryEntry(2L, "DEACTIVATED"));
+        when(coachRepository.findDirectoryEntriesChangedSince(since)).thenReturn(entries);
+
+        CoachDirectoryDelta delta = coachService.getDirectory(since);
+
+        assertThat(delta.getCoaches()).isEqualTo(entries);
+        verify(coachRepository, never()).findAllDirectoryEntries();
+    }
 }
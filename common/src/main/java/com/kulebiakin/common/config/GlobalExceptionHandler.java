@@ -1,8 +1,11 @@
 package com.kulebiakin.common.config;
 
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -42,6 +45,41 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRequestException(InvalidRequestException ex) {
+        log.error("Invalid request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                ERROR, "Bad Request",
+                MESSAGE, ex.getMessage(),
+                TIMESTAMP, LocalDateTime.now().toString()
+        ));
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflictException(ConflictException ex) {
+        log.error("Conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                ERROR, "Conflict",
+                MESSAGE, ex.getMessage(),
+                TIMESTAMP, LocalDateTime.now().toString()
+        ));
+    }
+
+    /**
+     * A write rejected by a database constraint, e.g. a unique index that lost a race with a
+     * concurrent request. The SQL error is logged but not returned.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex) {
+        log.error("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                ERROR, "Conflict",
+                MESSAGE, "The request conflicts with existing data",
+                TIMESTAMP, LocalDateTime.now().toString()
+        ));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
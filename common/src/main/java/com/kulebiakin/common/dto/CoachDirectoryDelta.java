@@ -0,0 +1,24 @@
+package com.kulebiakin.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Coaches created or changed since the requested time. {@code asOf} is the time the changes were
+ * read; the next poll asks for changes since then.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoachDirectoryDelta {
+
+    private LocalDateTime asOf;
+
+    private List<CoachDirectoryEntry> coaches;
+}
@@ -0,0 +1,20 @@
+package com.kulebiakin.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coach id and status (ACTIVE/DEACTIVATED), as replicated to other services.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoachDirectoryEntry {
+
+    private Long coachId;
+
+    private String status;
+}
@@ -0,0 +1,27 @@
+package com.kulebiakin.common.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rating updates applied together in one transaction, in list order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoachRatingBatchRequest {
+
+    public static final int MAX_RATINGS = 500;
+
+    @NotEmpty(message = "At least one rating is required")
+    @Size(max = MAX_RATINGS, message = "At most " + MAX_RATINGS + " ratings are allowed per batch")
+    private List<@Valid CoachRatingRequest> ratings;
+}
@@ -3,6 +3,7 @@ package com.kulebiakin.common.dto;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -26,4 +27,13 @@ public class CoachRatingRequest {
 
     @NotNull(message = "Total sessions count is required")
     private Long totalSessions;
+
+    /**
+     * Increases with every rating the sender computes for the coach. An update whose version is not
+     * above the one already applied is ignored, so updates may be retried, duplicated or reordered.
+     * Coaches start at version 0, so versions begin at 1.
+     * Without a version the update is applied unconditionally.
+     */
+    @Positive(message = "Version must be positive")
+    private Long version;
 }
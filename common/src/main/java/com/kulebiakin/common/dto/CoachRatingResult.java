@@ -0,0 +1,28 @@
+package com.kulebiakin.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a batched rating update for one coach. {@code updated} is false when the coach does
+ * not exist or all its updates were stale. Strike count and status (ACTIVE/DEACTIVATED) are those
+ * after the batch, and are omitted when the coach does not exist.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CoachRatingResult {
+
+    private Long coachId;
+
+    private boolean updated;
+
+    private Integer strikeCount;
+
+    private String coachStatus;
+}
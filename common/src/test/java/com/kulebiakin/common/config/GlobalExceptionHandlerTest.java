@@ -1,9 +1,12 @@
 package com.kulebiakin.common.config;
 
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -52,6 +55,43 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsKey("timestamp");
     }
 
+    @Test
+    void handleInvalidRequestException_returnsBadRequestStatus() {
+        InvalidRequestException exception = new InvalidRequestException("Invalid cursor");
+
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleInvalidRequestException(exception);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().get("error")).isEqualTo("Bad Request");
+        assertThat(response.getBody().get("message")).isEqualTo("Invalid cursor");
+        assertThat(response.getBody()).containsKey("timestamp");
+    }
+
+    @Test
+    void handleConflictException_returnsConflictStatus() {
+        ConflictException exception = new ConflictException("Coach 7 is deactivated");
+
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleConflictException(exception);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("error")).isEqualTo("Conflict");
+        assertThat(response.getBody().get("message")).isEqualTo("Coach 7 is deactivated");
+        assertThat(response.getBody()).containsKey("timestamp");
+    }
+
+    @Test
+    void handleDataIntegrityViolationException_returnsConflictWithoutSqlDetails() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException(
+                "could not execute statement", new IllegalStateException("Cannot insert duplicate key row"));
+
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleDataIntegrityViolationException(exception);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("error")).isEqualTo("Conflict");
+        assertThat(response.getBody().get("message")).isEqualTo("The request conflicts with existing data");
+        assertThat(response.getBody()).containsKey("timestamp");
+    }
+
     @Test
     void handleValidationExceptions_returnsBadRequestWithFieldErrors() {
         MethodArgumentNotValidException exception = mock(MethodArgumentNotValidException.class);
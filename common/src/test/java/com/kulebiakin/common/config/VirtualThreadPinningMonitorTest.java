@@ -0,0 +1,54 @@
+package com.kulebiakin.common.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> DRIVER_STACK = List.of(
+        "java.lang.VirtualThread.parkOnCarrierThread:675",
+        "java.util.concurrent.locks.LockSupport.park:219",
+        "com.microsoft.sqlserver.jdbc.TDSReader.readPacket:6621",
+        "com.kulebiakin.sessionservice.service.SessionService.createSession:80");
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(20));
+    }
+
+    @Test
+    void pinningSite_returnsFirstNonJdkFrameWithoutLineNumber() {
+        assertThat(VirtualThreadPinningMonitor.pinningSite(DRIVER_STACK))
+            .isEqualTo("com.microsoft.sqlserver.jdbc.TDSReader.readPacket");
+    }
+
+    @Test
+    void pinningSite_onlyJdkFrames_returnsJdk() {
+        assertThat(VirtualThreadPinningMonitor.pinningSite(List.of("java.lang.Object.wait:-1"))).isEqualTo("jdk");
+        assertThat(VirtualThreadPinningMonitor.pinningSite(List.of())).isEqualTo("jdk");
+    }
+
+    @Test
+    void record_timesPinningPerSite() {
+        monitor.record(DRIVER_STACK, Duration.ofMillis(40));
+        monitor.record(DRIVER_STACK, Duration.ofMillis(60));
+
+        Timer timer = meterRegistry.get(VirtualThreadPinningMonitor.PINNED_METRIC)
+            .tag("site", "com.microsoft.sqlserver.jdbc.TDSReader.readPacket")
+            .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(100);
+    }
+}
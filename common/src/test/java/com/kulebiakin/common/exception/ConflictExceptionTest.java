@@ -0,0 +1,22 @@
+package com.kulebiakin.common.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConflictExceptionTest {
+
+    @Test
+    void constructor_withMessage_setsMessage() {
+        ConflictException exception = new ConflictException("Coach 7 is deactivated");
+
+        assertThat(exception.getMessage()).isEqualTo("Coach 7 is deactivated");
+    }
+
+    @Test
+    void exception_isRuntimeException() {
+        ConflictException exception = new ConflictException("test");
+
+        assertThat(exception).isInstanceOf(RuntimeException.class);
+    }
+}
@@ -0,0 +1,31 @@
+package com.kulebiakin.common.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidRequestExceptionTest {
+
+    @Test
+    void constructor_withMessage_setsMessage() {
+        InvalidRequestException exception = new InvalidRequestException("Invalid cursor");
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid cursor");
+        assertThat(exception.getCause()).isNull();
+    }
+
+    @Test
+    void constructor_withMessageAndCause_setsMessageAndCause() {
+        Throwable cause = new IllegalArgumentException("bad base64");
+
+        InvalidRequestException exception = new InvalidRequestException("Invalid cursor", cause);
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid cursor");
+        assertThat(exception.getCause()).isEqualTo(cause);
+    }
+
+    @Test
+    void exception_isRuntimeException() {
+        assertThat(new InvalidRequestException("test")).isInstanceOf(RuntimeException.class);
+    }
+}
@@ -0,0 +1,262 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.azure.messaging.servicebus.ServiceBusMessageBatch;
+import com.azure.messaging.servicebus.ServiceBusSenderClient;
+import com.kulebiakin.common.exception.MessageProcessingException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends review messages to Service Bus in batches from a single sender thread.
+ * <p>
+ * Submitted messages are queued; the sender takes the oldest one and keeps collecting until the
+ * batch reaches its target size or the oldest message has waited {@code max-linger}, then sends
+ * everything as one {@link ServiceBusMessageBatch}. Each submitter's future completes once its
+ * batch is acknowledged, so callers still only return after the broker has the message.
+ * <p>
+ * The target size adapts to load: it doubles while full batches leave a backlog behind and halves
+ * when the linger time runs out with the batch less than half full. Under light load it settles at
+ * one, so a lone review is sent straight away instead of waiting out the linger time.
+ */
+@Component
+@Slf4j
+public class ReviewMessageBatcher implements SmartLifecycle {
+
+    /**
+     * Started before and stopped after the components that submit messages in the background.
+     */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1;
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final ServiceBusSenderClient serviceBusSenderClient;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<Pending> queue;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lingerTimer;
+    private volatile int targetBatchSize = 1;
+    private volatile boolean running;
+    private Thread senderThread;
+
+    public ReviewMessageBatcher(
+            ServiceBusSenderClient serviceBusSenderClient,
+            MeterRegistry meterRegistry,
+            @Value("${azure.servicebus.sender.max-batch-size:100}") int maxBatchSize,
+            @Value("${azure.servicebus.sender.max-linger:5ms}") Duration maxLinger,
+            @Value("${azure.servicebus.sender.queue-capacity:10000}") int queueCapacity,
+            @Value("${azure.servicebus.sender.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be at least 1");
+        }
+        this.serviceBusSenderClient = serviceBusSenderClient;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSizeSummary = DistributionSummary.builder("review.sender.batch.size")
+                .description("Review messages per Service Bus batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lingerTimer = Timer.builder("review.sender.batch.linger")
+                .description("Time the oldest message of a batch waited before the batch was sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("review.sender.batch.target", this, batcher -> batcher.targetBatchSize)
+                .description("Current adaptive target size of review message batches")
+                .register(meterRegistry);
+        Gauge.builder("review.sender.queue.depth", queue, BlockingQueue::size)
+                .description("Review messages waiting to be batched")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the message for the next batch.
+     *
+     * @return a future completed once the batch holding the message is acknowledged by Service Bus
+     */
+    public CompletableFuture<Void> submit(ServiceBusMessage message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new MessageProcessingException("Review message sender is not running"));
+        } else if (!queue.offer(new Pending(message, future, System.nanoTime()))) {
+            future.completeExceptionally(new MessageProcessingException("Review message send queue is full"));
+        }
+        return future;
+    }
+
+    int getTargetBatchSize() {
+        return targetBatchSize;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        senderThread = new Thread(this::sendBatches, "review-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        log.info("Review message sender started (max batch size {}, max linger {}us)",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMicros(maxLingerNanos));
+    }
+
+    /**
+     * Stops accepting messages and waits for the ones already queued to be sent.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            senderThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (senderThread.isAlive()) {
+            senderThread.interrupt();
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (!abandoned.isEmpty()) {
+            log.warn("Review message sender did not drain in time, {} messages failed", abandoned.size());
+            fail(abandoned, new MessageProcessingException("Review message sender stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void sendBatches() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending oldest = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (oldest == null) {
+                    continue;
+                }
+                batch.add(oldest);
+                int target = targetBatchSize;
+                collect(batch, target, oldest.enqueuedAt() + maxLingerNanos);
+                boolean backlog = batch.size() >= target && !queue.isEmpty();
+                lingerTimer.record(System.nanoTime() - oldest.enqueuedAt(), TimeUnit.NANOSECONDS);
+                send(batch);
+                targetBatchSize = nextTargetSize(target, batch.size(), backlog, maxBatchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new MessageProcessingException("Review message sender interrupted"));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Pending> batch, int target, long deadline) throws InterruptedException {
+        queue.drainTo(batch, target - batch.size());
+        while (batch.size() < target) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, target - batch.size());
+        }
+    }
+
+    /**
+     * Sends the collected messages, splitting them over several Service Bus batches if they exceed
+     * the broker's batch size limit.
+     */
+    private void send(List<Pending> batch) {
+        try {
+            ServiceBusMessageBatch messageBatch = serviceBusSenderClient.createMessageBatch();
+            List<Pending> included = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                boolean added = messageBatch.tryAddMessage(pending.message());
+                if (!added && !included.isEmpty()) {
+                    dispatch(messageBatch, included);
+                    messageBatch = serviceBusSenderClient.createMessageBatch();
+                    included = new ArrayList<>(batch.size());
+                    added = messageBatch.tryAddMessage(pending.message());
+                }
+                if (added) {
+                    included.add(pending);
+                } else {
+                    // does not fit even into an empty batch
+                    rejectOversized(pending);
+                }
+            }
+            if (!included.isEmpty()) {
+                dispatch(messageBatch, included);
+            }
+        } catch (Exception e) {
+            log.error("Error sending review message batch to Service Bus: {}", e.getMessage(), e);
+            // futures of sub-batches already acknowledged are done and ignore this
+            fail(batch, e);
+        }
+    }
+
+    private void dispatch(ServiceBusMessageBatch messageBatch, List<Pending> included) {
+        serviceBusSenderClient.sendMessages(messageBatch);
+        batchSizeSummary.record(included.size());
+        log.debug("Sent batch of {} review messages", included.size());
+        included.forEach(pending -> pending.future().complete(null));
+    }
+
+    private static void rejectOversized(Pending pending) {
+        pending.future().completeExceptionally(
+                new MessageProcessingException("Review message exceeds the maximum Service Bus batch size"));
+    }
+
+    private static void fail(List<Pending> pending, Throwable error) {
+        pending.forEach(p -> p.future().completeExceptionally(error));
+    }
+
+    /**
+     * Doubles the target while full batches leave messages behind, halves it when a batch is sent
+     * less than half full, and keeps it otherwise.
+     */
+    static int nextTargetSize(int target, int batchSize, boolean backlog, int maxBatchSize) {
+        if (backlog) {
+            return Math.min(maxBatchSize, target * 2);
+        }
+        if (batchSize * 2 <= target) {
+            return Math.max(1, target / 2);
+        }
+        return target;
+    }
+
+    private record Pending(ServiceBusMessage message, CompletableFuture<Void> future, long enqueuedAt) {
+    }
+}
@@ -1,7 +1,5 @@
 package com.kulebiakin.reviewservice.messaging;
 
-import com.azure.messaging.servicebus.ServiceBusMessage;
-import com.azure.messaging.servicebus.ServiceBusSenderClient;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kulebiakin.common.dto.ReviewMessage;
@@ -10,36 +8,41 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 /**
  * Sends review messages to Azure Service Bus queue.
+ * <p>
+ * Messages are appended to the durable {@link ReviewSpool} and delivered in the background by the
+ * {@link ReviewSpoolForwarder}, so a review is accepted once it is on local disk and is not lost
+ * while Service Bus is slow or unavailable. The message id is assigned here and kept through
+ * redeliveries.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewMessageProducer {
 
-    private final ServiceBusSenderClient serviceBusSenderClient;
+    private final ReviewSpool reviewSpool;
     private final ObjectMapper objectMapper;
 
     public void sendReviewMessage(ReviewMessage reviewMessage) {
         try {
-            String messageJson = objectMapper.writeValueAsString(reviewMessage);
-            log.info("Sending review message to Service Bus: {}", messageJson);
-
-            ServiceBusMessage message = new ServiceBusMessage(messageJson);
-            message.setContentType("application/json");
+            byte[] messageJson = objectMapper.writeValueAsBytes(reviewMessage);
+            String messageId = UUID.randomUUID().toString();
+            log.info("Spooling review message {} for session {}", messageId, reviewMessage.getSessionId());
 
-            serviceBusSenderClient.sendMessage(message);
+            reviewSpool.append(messageId, messageJson);
 
-            log.info("Successfully sent review message for session {}",
+            log.info("Successfully spooled review message for session {}",
                     reviewMessage.getSessionId());
 
         } catch (JsonProcessingException e) {
             log.error("Error serializing review message: {}", e.getMessage(), e);
             throw new MessageProcessingException("Failed to serialize review message", e);
         } catch (Exception e) {
-            log.error("Error sending message to Service Bus: {}", e.getMessage(), e);
-            throw new MessageProcessingException("Failed to send review message to Service Bus", e);
+            log.error("Error spooling review message: {}", e.getMessage(), e);
+            throw new MessageProcessingException("Failed to spool review message", e);
         }
     }
 }
@@ -0,0 +1,462 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local spool of review messages awaiting delivery to Service Bus.
+ * <p>
+ * Messages are appended to fixed-size, memory-mapped segment files and forced to disk before
+ * {@link #append} returns, so an accepted review survives a crash or a broker outage. Appends copy
+ * their record into the segment under a short lock and then wait for it to be forced; whichever
+ * appender forces next covers every record written since the last force, so concurrent appends share
+ * one disk sync (group commit). Only forced records are visible to readers. A record is
+ * {@code [body length][crc32 of body][message id length][message id][payload]}; a zero length marks
+ * the end of the written part of a segment, and a record that does not fit starts a new segment.
+ * <p>
+ * The reader moves a checkpoint past records once they are delivered. The checkpoint is persisted,
+ * so after a restart delivery resumes where it stopped, and segments wholly behind it are deleted.
+ * <p>
+ * The directory is locked while the spool is open, so two instances can never share it.
+ */
+@Component
+@Slf4j
+public class ReviewSpool implements AutoCloseable {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String CHECKPOINT_FILE = "checkpoint";
+    static final String LOCK_FILE = "lock";
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_MESSAGE_ID_LENGTH = 255;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final Timer appendTimer;
+    private final DistributionSummary forceSizeSummary;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+    private long writeSegmentId;
+    private int writeOffset;
+    private long writeCount;
+    private volatile Position durable;
+    private long durableCount;
+    private volatile Position checkpoint;
+
+    public ReviewSpool(
+            @Value("${review.spool.directory:./data/review-spool}") Path directory,
+            @Value("${review.spool.segment-size:16MB}") DataSize segmentSize,
+            MeterRegistry meterRegistry) throws IOException {
+        if (segmentSize.toBytes() <= HEADER_SIZE || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Spool segment size must be between " + HEADER_SIZE + " bytes and 2GB");
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize.toBytes();
+        open();
+        this.appendTimer = Timer.builder("review.spool.append")
+                .description("Time to append a review to the spool and force it to disk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.forceSizeSummary = DistributionSummary.builder("review.spool.force.records")
+                .description("Appended reviews made durable by one disk sync")
+                .register(meterRegistry);
+        Gauge.builder("review.spool.segments", this, ReviewSpool::segmentCount)
+                .description("Spool segment files on disk")
+                .register(meterRegistry);
+        Gauge.builder("review.spool.backlog", this, ReviewSpool::backlogBytes)
+                .description("Approximate spool bytes not yet forwarded to Service Bus")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends a message and forces it to disk.
+     */
+    public void append(String messageId, byte[] payload) {
+        byte[] id = messageId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_MESSAGE_ID_LENGTH) {
+            throw new IllegalArgumentException("Message id exceeds " + MAX_MESSAGE_ID_LENGTH + " bytes");
+        }
+        int bodyLength = 1 + id.length + payload.length;
+        if (HEADER_SIZE + bodyLength > segmentSize) {
+            throw new IllegalArgumentException("Message of " + payload.length + " bytes does not fit into a spool segment");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        record.position(HEADER_SIZE);
+        record.put((byte) id.length).put(id).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, bodyLength);
+        record.putInt(0, bodyLength).putInt(Integer.BYTES, (int) crc.getValue());
+
+        long start = System.nanoTime();
+        Position end;
+        lock.lock();
+        try {
+            MappedByteBuffer segment = segments.get(writeSegmentId);
+            if (writeOffset + record.capacity() > segment.capacity()) {
+                segment = roll();
+            }
+            segment.put(writeOffset, record, 0, record.capacity());
+            writeOffset += record.capacity();
+            writeCount++;
+            end = new Position(writeSegmentId, writeOffset);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitDurable(end);
+        } finally {
+            appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns once everything up to {@code end} is on disk. The caller that takes the force lock
+     * forces all records appended so far, including those of appenders queued behind it, which then
+     * find their records already durable.
+     */
+    private void awaitDurable(Position end) {
+        forceLock.lock();
+        try {
+            if (end.compareTo(durable) <= 0) {
+                return;
+            }
+            Position from;
+            Position to;
+            long count;
+            NavigableMap<Long, MappedByteBuffer> pending;
+            lock.lock();
+            try {
+                from = durable;
+                to = new Position(writeSegmentId, writeOffset);
+                count = writeCount;
+                pending = new TreeMap<>(segments.subMap(from.segmentId(), true, to.segmentId(), true));
+            } finally {
+                lock.unlock();
+            }
+            pending.forEach((segmentId, segment) -> {
+                int startOffset = segmentId == from.segmentId() ? from.offset() : 0;
+                int endOffset = segmentId == to.segmentId() ? to.offset() : segment.capacity();
+                if (endOffset > startOffset) {
+                    segment.force(startOffset, endOffset - startOffset);
+                }
+            });
+            lock.lock();
+            try {
+                forceSizeSummary.record(count - durableCount);
+                durable = to;
+                durableCount = count;
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code max} records starting at {@code from}, waiting up to {@code wait} for one
+     * to be appended if there are none yet.
+     */
+    public List<SpoolRecord> read(Position from, int max, Duration wait) throws InterruptedException {
+        List<SpoolRecord> records = new ArrayList<>();
+        lock.lock();
+        try {
+            Position position = skipSealedEnds(from);
+            long remaining = wait.toNanos();
+            while (isDurableEnd(position) && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+                position = skipSealedEnds(from);
+            }
+            while (records.size() < max && !isDurableEnd(position)) {
+                MappedByteBuffer segment = segments.get(position.segmentId());
+                int offset = position.offset();
+                int bodyLength = validRecordLength(segment, offset);
+                byte[] id = new byte[Byte.toUnsignedInt(segment.get(offset + HEADER_SIZE))];
+                segment.get(offset + HEADER_SIZE + 1, id);
+                byte[] payload = new byte[bodyLength - 1 - id.length];
+                segment.get(offset + HEADER_SIZE + 1 + id.length, payload);
+                position = skipSealedEnds(new Position(position.segmentId(), offset + HEADER_SIZE + bodyLength));
+                records.add(new SpoolRecord(new String(id, StandardCharsets.UTF_8), payload, position));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return records;
+    }
+
+    /**
+     * Position of the oldest record not yet delivered.
+     */
+    public Position getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Records that everything before {@code position} has been delivered and deletes the segments
+     * that are now fully consumed.
+     */
+    public void checkpoint(Position position) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(position.toString().getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        List<Long> consumed;
+        lock.lock();
+        try {
+            Map<Long, MappedByteBuffer> behind = segments.headMap(position.segmentId(), false);
+            consumed = new ArrayList<>(behind.keySet());
+            behind.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (Long segmentId : consumed) {
+            Files.deleteIfExists(segmentPath(segmentId));
+            log.debug("Deleted consumed spool segment {}", segmentId);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            directoryLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to release review spool directory lock: {}", e.getMessage());
+        }
+    }
+
+    int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long backlogBytes() {
+        lock.lock();
+        try {
+            Position from = checkpoint;
+            long bytes = (long) writeOffset - from.offset();
+            // sealed segments are counted in full, including the unused space at their end
+            for (MappedByteBuffer segment : segments.subMap(from.segmentId(), true, writeSegmentId, false).values()) {
+                bytes += segment.capacity();
+            }
+            return Math.max(0, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        lockDirectory();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), map(file));
+            }
+        }
+        Position persisted = readCheckpoint();
+        if (segments.isEmpty()) {
+            segments.put(persisted.segmentId(), map(segmentPath(persisted.segmentId())));
+            persisted = new Position(persisted.segmentId(), 0);
+        }
+        // segments left behind by a crash between checkpointing and deleting them
+        for (Long segmentId : new ArrayList<>(segments.headMap(persisted.segmentId(), false).keySet())) {
+            segments.remove(segmentId);
+            Files.deleteIfExists(segmentPath(segmentId));
+        }
+        if (segments.isEmpty() || persisted.segmentId() < segments.firstKey()) {
+            long first = segments.isEmpty() ? persisted.segmentId() : segments.firstKey();
+            segments.putIfAbsent(first, map(segmentPath(first)));
+            persisted = new Position(first, 0);
+        }
+        checkpoint = persisted;
+
+        writeSegmentId = segments.lastKey();
+        writeOffset = recoverWriteOffset(segments.lastEntry().getValue());
+        durable = new Position(writeSegmentId, writeOffset);
+        log.info("Opened review spool in {} with {} segments, resuming delivery at {}",
+                directory, segments.size(), checkpoint);
+    }
+
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Review spool directory " + directory + " is in use by another process");
+        }
+    }
+
+    /**
+     * Finds the end of the last complete record of the active segment and clears anything after it,
+     * so a record torn by a crash is never read or mistaken for data later.
+     */
+    private int recoverWriteOffset(MappedByteBuffer segment) {
+        int offset = 0;
+        int bodyLength;
+        while ((bodyLength = validRecordLength(segment, offset)) > 0) {
+            offset += HEADER_SIZE + bodyLength;
+        }
+        if (offset + Integer.BYTES <= segment.capacity() && segment.getInt(offset) != 0) {
+            log.warn("Discarding torn record at offset {} of spool segment {}", offset, writeSegmentId);
+            segment.put(offset, new byte[segment.capacity() - offset]);
+            segment.force(offset, segment.capacity() - offset);
+        }
+        return offset;
+    }
+
+    private MappedByteBuffer roll() {
+        writeSegmentId++;
+        writeOffset = 0;
+        try {
+            MappedByteBuffer segment = map(segmentPath(writeSegmentId));
+            segments.put(writeSegmentId, segment);
+            log.debug("Rolled review spool to segment {}", writeSegmentId);
+            return segment;
+        } catch (IOException e) {
+            writeSegmentId--;
+            throw new IllegalStateException("Failed to create spool segment", e);
+        }
+    }
+
+    /**
+     * Moves a position at the end of a sealed segment to the start of the next one.
+     */
+    private Position skipSealedEnds(Position position) {
+        Position current = position;
+        if (current.segmentId() < segments.firstKey()) {
+            current = new Position(segments.firstKey(), 0);
+        }
+        while (current.segmentId() < durable.segmentId()
+                && validRecordLength(segments.get(current.segmentId()), current.offset()) < 0) {
+            current = new Position(segments.higherKey(current.segmentId()), 0);
+        }
+        return current;
+    }
+
+    private boolean isDurableEnd(Position position) {
+        return position.compareTo(durable) >= 0;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%020d%s", segmentId, SEGMENT_SUFFIX));
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return new Position(0, 0);
+        }
+        return Position.parse(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * Body length of the complete record at {@code offset}, or -1 if there is none.
+     */
+    private static int validRecordLength(ByteBuffer segment, int offset) {
+        if (offset + HEADER_SIZE + 1 > segment.capacity()) {
+            return -1;
+        }
+        int bodyLength = segment.getInt(offset);
+        if (bodyLength <= 0 || bodyLength > segment.capacity() - offset - HEADER_SIZE) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(offset + HEADER_SIZE, bodyLength));
+        return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES) ? bodyLength : -1;
+    }
+
+    /**
+     * A place in the spool: a segment and a byte offset within it.
+     */
+    public record Position(long segmentId, int offset) implements Comparable<Position> {
+
+        private static final Comparator<Position> ORDER = Comparator.comparingLong(Position::segmentId)
+                .thenComparingInt(Position::offset);
+
+        static Position parse(String value) {
+            int separator = value.indexOf(':');
+            return new Position(Long.parseLong(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public String toString() {
+            return segmentId + ":" + offset;
+        }
+    }
+
+    /**
+     * A spooled message and the position just past it.
+     */
+    public record SpoolRecord(String messageId, byte[] payload, Position next) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.kulebiakin.reviewservice.messaging.ReviewSpool.Position;
+import com.kulebiakin.reviewservice.messaging.ReviewSpool.SpoolRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the {@link ReviewSpool} to Service Bus in order.
+ * <p>
+ * A single thread reads records from the checkpoint onwards, sends them through the
+ * {@link ReviewMessageBatcher} and moves the checkpoint past them once every one is acknowledged.
+ * If sending fails, the same records are sent again after an exponential backoff, so delivery is
+ * at least once; the spooled message id is kept as the Service Bus message id, which lets the
+ * consumer recognise redeliveries.
+ */
+@Component
+@Slf4j
+public class ReviewSpoolForwarder implements SmartLifecycle {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final ReviewSpool spool;
+    private final ReviewMessageBatcher messageBatcher;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration shutdownTimeout;
+    private final Counter forwardedCounter;
+    private final Counter failureCounter;
+    private volatile boolean running;
+    private CountDownLatch stopped;
+    private Thread forwarderThread;
+
+    public ReviewSpoolForwarder(
+            ReviewSpool spool,
+            ReviewMessageBatcher messageBatcher,
+            MeterRegistry meterRegistry,
+            @Value("${review.spool.forward.batch-size:500}") int batchSize,
+            @Value("${azure.servicebus.sender.send-timeout:30s}") Duration sendTimeout,
+            @Value("${review.spool.forward.retry.initial-backoff:1s}") Duration initialBackoff,
+            @Value("${review.spool.forward.retry.max-backoff:1m}") Duration maxBackoff,
+            @Value("${azure.servicebus.sender.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Forward batch size must be at least 1");
+        }
+        this.spool = spool;
+        this.messageBatcher = messageBatcher;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+        this.forwardedCounter = Counter.builder("review.spool.forwarded")
+                .description("Spooled reviews acknowledged by Service Bus")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("review.spool.forward.failures")
+                .description("Attempts to forward spooled reviews that failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        stopped = new CountDownLatch(1);
+        forwarderThread = new Thread(this::forward, "review-spool-forwarder");
+        forwarderThread.setDaemon(true);
+        forwarderThread.start();
+        log.info("Review spool forwarder started at {}", spool.getCheckpoint());
+    }
+
+    /**
+     * Stops after the batch in flight, if any, has been acknowledged or has failed.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopped.countDown();
+        try {
+            forwarderThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (forwarderThread.isAlive()) {
+            // the interrupted batch stays behind the checkpoint and is sent again on the next start
+            forwarderThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return ReviewMessageBatcher.PHASE + 1;
+    }
+
+    private void forward() {
+        Position cursor = spool.getCheckpoint();
+        int failures = 0;
+        while (running) {
+            List<SpoolRecord> records = List.of();
+            try {
+                records = spool.read(cursor, batchSize, POLL_INTERVAL);
+                if (records.isEmpty()) {
+                    continue;
+                }
+                send(records);
+                cursor = records.get(records.size() - 1).next();
+                spool.checkpoint(cursor);
+                forwardedCounter.increment(records.size());
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failures++;
+                failureCounter.increment();
+                Duration backoff = backoff(failures);
+                log.warn("Failed to forward {} spooled reviews from {}, retrying in {}: {}",
+                        records.size(), cursor, backoff, e.getMessage());
+                try {
+                    if (stopped.await(backoff.toMillis(), TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void send(List<SpoolRecord> records) throws Exception {
+        CompletableFuture<?>[] acknowledgements = new CompletableFuture<?>[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            acknowledgements[i] = messageBatcher.submit(toMessage(records.get(i)));
+        }
+        CompletableFuture.allOf(acknowledgements).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Duration backoff(int failures) {
+        if (failures > 30) {
+            return maxBackoff;
+        }
+        Duration exponential = initialBackoff.multipliedBy(1L << (failures - 1));
+        return exponential.compareTo(maxBackoff) < 0 ? exponential : maxBackoff;
+    }
+
+    private static ServiceBusMessage toMessage(SpoolRecord record) {
+        ServiceBusMessage message = new ServiceBusMessage(record.payload());
+        message.setMessageId(record.messageId());
+        message.setContentType("application/json");
+        return message;
+    }
+}
@@ -28,7 +28,7 @@ public class ReviewService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        // Send to Azure Service Bus
+        // Spool durably for delivery to Azure Service Bus
         messageProducer.sendReviewMessage(reviewMessage);
 
         log.info("Review submitted successfully for session {}", request.getSessionId());
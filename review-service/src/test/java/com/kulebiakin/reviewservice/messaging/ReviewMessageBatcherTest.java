@@ -0,0 +1,192 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.azure.messaging.servicebus.ServiceBusMessageBatch;
+import com.azure.messaging.servicebus.ServiceBusSenderClient;
+import com.kulebiakin.common.exception.MessageProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewMessageBatcherTest {
+
+    private static final String OVERSIZED = "oversized";
+
+    @Mock
+    private ServiceBusSenderClient serviceBusSenderClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReviewMessageBatcher batcher;
+    private final Map<ServiceBusMessageBatch, List<String>> batchContents =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private final List<List<String>> sentBatches = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batcher = new ReviewMessageBatcher(serviceBusSenderClient, meterRegistry, 100, Duration.ofMillis(5),
+                1000, Duration.ofSeconds(5));
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    void submit_completesOnceBatchIsAcknowledged() throws Exception {
+        stubBatches();
+        recordSentBatches();
+
+        batcher.submit(message("review-1")).get(5, TimeUnit.SECONDS);
+
+        assertThat(sentBatches).containsExactly(List.of("review-1"));
+        assertThat(meterRegistry.get("review.sender.batch.size").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("review.sender.batch.linger").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_whileBatchInFlight_sendsQueuedMessagesTogetherAndGrowsTarget() throws Exception {
+        stubBatches();
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            sentBatches.add(batchContents.get(invocation.<ServiceBusMessageBatch>getArgument(0)));
+            return null;
+        }).when(serviceBusSenderClient).sendMessages(any(ServiceBusMessageBatch.class));
+
+        CompletableFuture<Void> first = batcher.submit(message("review-0"));
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<Void>> queued = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            queued.add(batcher.submit(message("review-" + i)));
+        }
+        assertThat(first).isNotDone();
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // target grows 1 -> 2 -> 4 -> 8 -> 16 while a backlog remains
+        assertThat(sentBatches).hasSize(6);
+        assertThat(sentBatches.stream().mapToInt(List::size)).containsExactly(1, 1, 2, 4, 8, 5);
+        assertThat(sentBatches.stream().flatMap(List::stream))
+                .containsExactlyElementsOf(expectedOrder(21));
+        assertThat(batcher.getTargetBatchSize()).isGreaterThan(1);
+        assertThat(meterRegistry.get("review.sender.batch.size").summary().max()).isEqualTo(8);
+    }
+
+    @Test
+    void submit_sendFailure_failsMessagesOfThatBatch() {
+        stubBatches();
+        doThrow(new RuntimeException("Throttled"))
+                .when(serviceBusSenderClient).sendMessages(any(ServiceBusMessageBatch.class));
+
+        CompletableFuture<Void> future = batcher.submit(message("review-1"));
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .hasRootCauseMessage("Throttled");
+    }
+
+    @Test
+    void submit_messageTooLargeForBatch_failsWithoutSending() {
+        stubBatches();
+
+        CompletableFuture<Void> future = batcher.submit(message(OVERSIZED));
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(MessageProcessingException.class)
+                .hasMessageContaining("maximum Service Bus batch size");
+        verify(serviceBusSenderClient, never()).sendMessages(any(ServiceBusMessageBatch.class));
+    }
+
+    @Test
+    void submit_afterStop_failsImmediately() {
+        batcher.stop();
+
+        CompletableFuture<Void> future = batcher.submit(message("review-1"));
+
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::join).hasCauseInstanceOf(MessageProcessingException.class);
+    }
+
+    @Test
+    void nextTargetSize_backlog_doublesUpToMax() {
+        assertThat(ReviewMessageBatcher.nextTargetSize(1, 1, true, 100)).isEqualTo(2);
+        assertThat(ReviewMessageBatcher.nextTargetSize(64, 64, true, 100)).isEqualTo(100);
+        assertThat(ReviewMessageBatcher.nextTargetSize(100, 100, true, 100)).isEqualTo(100);
+    }
+
+    @Test
+    void nextTargetSize_underHalfFull_halvesDownToOne() {
+        assertThat(ReviewMessageBatcher.nextTargetSize(16, 8, false, 100)).isEqualTo(8);
+        assertThat(ReviewMessageBatcher.nextTargetSize(16, 9, false, 100)).isEqualTo(16);
+        assertThat(ReviewMessageBatcher.nextTargetSize(2, 1, false, 100)).isEqualTo(1);
+        assertThat(ReviewMessageBatcher.nextTargetSize(1, 1, false, 100)).isEqualTo(1);
+    }
+
+    /**
+     * Every created batch accepts any message except {@link #OVERSIZED}, recording what was added.
+     */
+    private void stubBatches() {
+        when(serviceBusSenderClient.createMessageBatch()).thenAnswer(invocation -> {
+            ServiceBusMessageBatch batch = mock(ServiceBusMessageBatch.class);
+            List<String> contents = new ArrayList<>();
+            batchContents.put(batch, contents);
+            when(batch.tryAddMessage(any(ServiceBusMessage.class))).thenAnswer(add -> {
+                String body = add.<ServiceBusMessage>getArgument(0).getBody().toString();
+                if (OVERSIZED.equals(body)) {
+                    return false;
+                }
+                contents.add(body);
+                return true;
+            });
+            return batch;
+        });
+    }
+
+    private void recordSentBatches() {
+        doAnswer(invocation -> sentBatches.add(batchContents.get(invocation.<ServiceBusMessageBatch>getArgument(0))))
+                .when(serviceBusSenderClient).sendMessages(any(ServiceBusMessageBatch.class));
+    }
+
+    private static ServiceBusMessage message(String body) {
+        return new ServiceBusMessage(body);
+    }
+
+    private static List<String> expectedOrder(int count) {
+        List<String> order = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            order.add("review-" + i);
+        }
+        return order;
+    }
+}
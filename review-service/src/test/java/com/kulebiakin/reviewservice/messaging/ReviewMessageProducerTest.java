@@ -1,7 +1,5 @@
 package com.kulebiakin.reviewservice.messaging;
 
-import com.azure.messaging.servicebus.ServiceBusMessage;
-import com.azure.messaging.servicebus.ServiceBusSenderClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.kulebiakin.common.dto.ReviewMessage;
@@ -9,23 +7,27 @@ import com.kulebiakin.common.exception.MessageProcessingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewMessageProducerTest {
 
     @Mock
-    private ServiceBusSenderClient serviceBusSenderClient;
+    private ReviewSpool reviewSpool;
 
     private ObjectMapper objectMapper;
     private ReviewMessageProducer reviewMessageProducer;
@@ -34,11 +36,11 @@ class ReviewMessageProducerTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
-        reviewMessageProducer = new ReviewMessageProducer(serviceBusSenderClient, objectMapper);
+        reviewMessageProducer = new ReviewMessageProducer(reviewSpool, objectMapper);
     }
 
     @Test
-    void sendReviewMessage_success_sendsToServiceBus() {
+    void sendReviewMessage_success_appendsJsonToSpool() throws Exception {
         ReviewMessage reviewMessage = ReviewMessage.builder()
             .sessionId(1L)
             .rating(BigDecimal.valueOf(8.5))
@@ -49,11 +51,15 @@ class ReviewMessageProducerTest {
 
         reviewMessageProducer.sendReviewMessage(reviewMessage);
 
-        verify(serviceBusSenderClient).sendMessage(any(ServiceBusMessage.class));
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(reviewSpool).append(anyString(), payload.capture());
+        ReviewMessage spooled = objectMapper.readValue(payload.getValue(), ReviewMessage.class);
+        assertThat(spooled.getSessionId()).isEqualTo(1L);
+        assertThat(spooled.getComment()).isEqualTo("Great session!");
     }
 
     @Test
-    void sendReviewMessage_serviceBusError_throwsMessageProcessingException() {
+    void sendReviewMessage_assignsDistinctMessageIds() {
         ReviewMessage reviewMessage = ReviewMessage.builder()
             .sessionId(1L)
             .rating(BigDecimal.valueOf(8.5))
@@ -61,12 +67,30 @@ class ReviewMessageProducerTest {
             .timestamp(LocalDateTime.now())
             .build();
 
-        doThrow(new RuntimeException("Connection error"))
-            .when(serviceBusSenderClient).sendMessage(any(ServiceBusMessage.class));
+        reviewMessageProducer.sendReviewMessage(reviewMessage);
+        reviewMessageProducer.sendReviewMessage(reviewMessage);
+
+        ArgumentCaptor<String> messageIds = ArgumentCaptor.forClass(String.class);
+        verify(reviewSpool, times(2)).append(messageIds.capture(), any(byte[].class));
+        assertThat(messageIds.getAllValues()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void sendReviewMessage_spoolError_throwsMessageProcessingException() {
+        ReviewMessage reviewMessage = ReviewMessage.builder()
+            .sessionId(1L)
+            .rating(BigDecimal.valueOf(8.5))
+            .coachId(1L)
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        doThrow(new IllegalStateException("Disk full"))
+            .when(reviewSpool).append(anyString(), any(byte[].class));
 
         assertThatThrownBy(() -> reviewMessageProducer.sendReviewMessage(reviewMessage))
             .isInstanceOf(MessageProcessingException.class)
-            .hasMessageContaining("Failed to send review message");
+            .hasMessageContaining("Failed to spool review message")
+            .hasRootCauseMessage("Disk full");
     }
 
     @Test
@@ -82,6 +106,6 @@ class ReviewMessageProducerTest {
         assertThatCode(() -> reviewMessageProducer.sendReviewMessage(reviewMessage))
             .doesNotThrowAnyException();
 
-        verify(serviceBusSenderClient).sendMessage(any(ServiceBusMessage.class));
+        verify(reviewSpool).append(anyString(), any(byte[].class));
     }
 }
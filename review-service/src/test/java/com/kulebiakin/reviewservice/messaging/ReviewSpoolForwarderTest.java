@@ -0,0 +1,119 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewSpoolForwarderTest {
+
+    @Mock
+    private ReviewMessageBatcher messageBatcher;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReviewSpool spool;
+    private ReviewSpoolForwarder forwarder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        spool = new ReviewSpool(directory, DataSize.ofKilobytes(4), meterRegistry);
+        forwarder = new ReviewSpoolForwarder(spool, messageBatcher, meterRegistry, 500, Duration.ofSeconds(1),
+                Duration.ofMillis(10), Duration.ofMillis(40), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        forwarder.stop();
+        spool.close();
+    }
+
+    @Test
+    void start_forwardsSpooledReviewsInOrderAndCheckpoints() throws Exception {
+        when(messageBatcher.submit(any(ServiceBusMessage.class))).thenReturn(CompletableFuture.completedFuture(null));
+        spool.append("id-1", "{\"sessionId\":1}".getBytes(StandardCharsets.UTF_8));
+        spool.append("id-2", "{\"sessionId\":2}".getBytes(StandardCharsets.UTF_8));
+
+        forwarder.start();
+        spool.append("id-3", "{\"sessionId\":3}".getBytes(StandardCharsets.UTF_8));
+
+        ArgumentCaptor<ServiceBusMessage> sent = ArgumentCaptor.forClass(ServiceBusMessage.class);
+        verify(messageBatcher, timeout(5000).times(3)).submit(sent.capture());
+        assertThat(sent.getAllValues()).extracting(ServiceBusMessage::getMessageId)
+                .containsExactly("id-1", "id-2", "id-3");
+        assertThat(sent.getAllValues().get(0).getBody().toString()).isEqualTo("{\"sessionId\":1}");
+        assertThat(sent.getAllValues().get(0).getContentType()).isEqualTo("application/json");
+        awaitForwarded(3);
+        assertThat(spool.backlogBytes()).isZero();
+    }
+
+    @Test
+    void start_sendFails_retriesSameRecordsAfterBackoff() throws Exception {
+        when(messageBatcher.submit(any(ServiceBusMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Throttled")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        spool.append("id-1", "{\"sessionId\":1}".getBytes(StandardCharsets.UTF_8));
+
+        forwarder.start();
+
+        ArgumentCaptor<ServiceBusMessage> sent = ArgumentCaptor.forClass(ServiceBusMessage.class);
+        verify(messageBatcher, timeout(5000).times(2)).submit(sent.capture());
+        assertThat(sent.getAllValues()).extracting(ServiceBusMessage::getMessageId)
+                .containsExactly("id-1", "id-1");
+        awaitForwarded(1);
+        assertThat(meterRegistry.get("review.spool.forward.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void stop_checkpointSurvivesRestart() throws Exception {
+        when(messageBatcher.submit(any(ServiceBusMessage.class))).thenReturn(CompletableFuture.completedFuture(null));
+        spool.append("id-1", "{\"sessionId\":1}".getBytes(StandardCharsets.UTF_8));
+        forwarder.start();
+        awaitForwarded(1);
+        forwarder.stop();
+        spool.close();
+
+        spool = new ReviewSpool(directory, DataSize.ofKilobytes(4), new SimpleMeterRegistry());
+
+        assertThat(spool.read(spool.getCheckpoint(), 10, Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void backoff_doublesUpToMax() {
+        assertThat(forwarder.backoff(1)).isEqualTo(Duration.ofMillis(10));
+        assertThat(forwarder.backoff(2)).isEqualTo(Duration.ofMillis(20));
+        assertThat(forwarder.backoff(3)).isEqualTo(Duration.ofMillis(40));
+        assertThat(forwarder.backoff(4)).isEqualTo(Duration.ofMillis(40));
+        assertThat(forwarder.backoff(100)).isEqualTo(Duration.ofMillis(40));
+    }
+
+    private void awaitForwarded(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("review.spool.forwarded").counter().count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("review.spool.forwarded").counter().count()).isEqualTo(count);
+    }
+}
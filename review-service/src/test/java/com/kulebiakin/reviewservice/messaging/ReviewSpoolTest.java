@@ -0,0 +1,247 @@
+package com.kulebiakin.reviewservice.messaging;
+
+import com.kulebiakin.reviewservice.messaging.ReviewSpool.Position;
+import com.kulebiakin.reviewservice.messaging.ReviewSpool.SpoolRecord;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReviewSpoolTest {
+
+    private static final DataSize SEGMENT_SIZE = DataSize.ofBytes(128);
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReviewSpool spool;
+
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void read_returnsAppendedRecordsInOrder() throws Exception {
+        spool = open();
+        spool.append("id-1", payload("first"));
+        spool.append("id-2", payload("second"));
+
+        List<SpoolRecord> records = spool.read(spool.getCheckpoint(), 10, Duration.ZERO);
+
+        assertThat(records).extracting(SpoolRecord::messageId).containsExactly("id-1", "id-2");
+        assertThat(records).extracting(record -> new String(record.payload(), StandardCharsets.UTF_8))
+                .containsExactly("first", "second");
+        assertThat(spool.read(records.get(1).next(), 10, Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void read_limitsRecordsAndContinuesFromNextPosition() throws Exception {
+        spool = open();
+        spool.append("id-1", payload("first"));
+        spool.append("id-2", payload("second"));
+
+        List<SpoolRecord> first = spool.read(spool.getCheckpoint(), 1, Duration.ZERO);
+        List<SpoolRecord> rest = spool.read(first.get(0).next(), 10, Duration.ZERO);
+
+        assertThat(first).extracting(SpoolRecord::messageId).containsExactly("id-1");
+        assertThat(rest).extracting(SpoolRecord::messageId).containsExactly("id-2");
+    }
+
+    @Test
+    void read_waitsForAppend() throws Exception {
+        spool = open();
+        Position start = spool.getCheckpoint();
+
+        CompletableFuture<List<SpoolRecord>> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return spool.read(start, 10, Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        spool.append("id-1", payload("first"));
+
+        assertThat(read.get()).extracting(SpoolRecord::messageId).containsExactly("id-1");
+    }
+
+    @Test
+    void append_recordDoesNotFit_rollsToNewSegment() throws Exception {
+        spool = open();
+        for (int i = 0; i < 6; i++) {
+            spool.append("id-" + i, payload("review-payload-" + i));
+        }
+
+        List<SpoolRecord> records = spool.read(spool.getCheckpoint(), 10, Duration.ZERO);
+
+        assertThat(records).extracting(SpoolRecord::messageId)
+                .containsExactly("id-0", "id-1", "id-2", "id-3", "id-4", "id-5");
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        assertThat(spool.segmentCount()).isEqualTo(segmentFiles().size());
+    }
+
+    @Test
+    void append_messageLargerThanSegment_isRejected() {
+        spool = open();
+
+        assertThatThrownBy(() -> spool.append("id-1", new byte[200]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit");
+    }
+
+    @Test
+    void checkpoint_deletesConsumedSegmentsAndSurvivesRestart() throws Exception {
+        spool = open();
+        for (int i = 0; i < 6; i++) {
+            spool.append("id-" + i, payload("review-payload-" + i));
+        }
+        List<SpoolRecord> records = spool.read(spool.getCheckpoint(), 4, Duration.ZERO);
+        int segmentsBefore = segmentFiles().size();
+
+        spool.checkpoint(records.get(3).next());
+
+        assertThat(segmentFiles()).hasSizeLessThan(segmentsBefore);
+        spool.close();
+        spool = open();
+        assertThat(spool.read(spool.getCheckpoint(), 10, Duration.ZERO))
+                .extracting(SpoolRecord::messageId).containsExactly("id-4", "id-5");
+    }
+
+    @Test
+    void reopen_withoutCheckpoint_redeliversEverything() throws Exception {
+        spool = open();
+        spool.append("id-1", payload("first"));
+        spool.append("id-2", payload("second"));
+        spool.close();
+
+        spool = open();
+        spool.append("id-3", payload("third"));
+
+        assertThat(spool.read(spool.getCheckpoint(), 10, Duration.ZERO))
+                .extracting(SpoolRecord::messageId).containsExactly("id-1", "id-2", "id-3");
+    }
+
+    @Test
+    void reopen_tornRecord_isDiscardedAndOverwritten() throws Exception {
+        spool = open();
+        spool.append("id-1", payload("first"));
+        Position end = spool.read(spool.getCheckpoint(), 10, Duration.ZERO).get(0).next();
+        spool.close();
+        // a length and checksum without a matching body, as left by a crash mid-append
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(20).putInt(12345).flip(), end.offset());
+        }
+
+        spool = open();
+        spool.append("id-2", payload("second"));
+
+        assertThat(spool.read(spool.getCheckpoint(), 10, Duration.ZERO))
+                .extracting(SpoolRecord::messageId).containsExactly("id-1", "id-2");
+    }
+
+    @Test
+    void append_concurrently_makesEveryRecordDurableAndReadable() throws Exception {
+        spool = new ReviewSpool(directory, DataSize.ofKilobytes(64), meterRegistry = new SimpleMeterRegistry());
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> appenders = IntStream.range(0, threads)
+                    .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            spool.append("id-" + t + "-" + i, payload("review"));
+                        }
+                    }, executor))
+                    .toList();
+            CompletableFuture.allOf(appenders.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<SpoolRecord> records = spool.read(spool.getCheckpoint(), 1000, Duration.ZERO);
+
+        assertThat(records).hasSize(threads * perThread);
+        assertThat(records).extracting(SpoolRecord::messageId).doesNotHaveDuplicates();
+        DistributionSummary forces = meterRegistry.get("review.spool.force.records").summary();
+        assertThat(forces.totalAmount()).isEqualTo(threads * perThread);
+        assertThat(forces.count()).isLessThanOrEqualTo(threads * perThread);
+    }
+
+    @Test
+    void open_directoryInUse_isRejected() {
+        spool = open();
+
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in use by another process");
+    }
+
+    @Test
+    void close_releasesDirectoryForNextOpen() throws Exception {
+        spool = open();
+        spool.append("id-1", payload("first"));
+        spool.close();
+
+        spool = open();
+
+        assertThat(spool.read(spool.getCheckpoint(), 10, Duration.ZERO))
+                .extracting(SpoolRecord::messageId).containsExactly("id-1");
+    }
+
+    @Test
+    void backlogBytes_countsUndeliveredBytes() throws Exception {
+        spool = open();
+        assertThat(spool.backlogBytes()).isZero();
+
+        spool.append("id-1", payload("first"));
+        List<SpoolRecord> records = spool.read(spool.getCheckpoint(), 10, Duration.ZERO);
+        assertThat(spool.backlogBytes()).isEqualTo(records.get(0).next().offset());
+
+        spool.checkpoint(records.get(0).next());
+        assertThat(spool.backlogBytes()).isZero();
+        assertThat(meterRegistry.get("review.spool.append").timer().count()).isEqualTo(1);
+    }
+
+    private ReviewSpool open() {
+        meterRegistry = new SimpleMeterRegistry();
+        try {
+            return new ReviewSpool(directory, SEGMENT_SIZE, meterRegistry);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(ReviewSpool.SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
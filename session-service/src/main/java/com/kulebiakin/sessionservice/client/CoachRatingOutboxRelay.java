@@ -0,0 +1,102 @@
+package com.kulebiakin.sessionservice.client;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingOutboxEntry;
+import com.kulebiakin.sessionservice.service.CoachRatingOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the coach rating outbox to CoachService. Each run claims a batch of coaches, sends their
+ * latest ratings concurrently, waits for the responses and records the outcomes, so no database
+ * transaction is open while HTTP calls are outstanding. Deliveries still unanswered when the lease
+ * expires are picked up again by a later run (at-least-once).
+ * <p>
+ * Each update carries its outbox id as the rating version. Ids grow with every rating enqueued for
+ * a coach, so CoachService drops a delayed or repeated delivery that a newer one has overtaken.
+ */
+@Component
+@Slf4j
+public class CoachRatingOutboxRelay {
+
+    private final CoachRatingOutbox outbox;
+    private final CoachServiceClient coachServiceClient;
+    private final int batchSize;
+    private final Duration lease;
+
+    public CoachRatingOutboxRelay(
+            CoachRatingOutbox outbox,
+            CoachServiceClient coachServiceClient,
+            @Value("${coach-service.rating-push.batch-size:50}") int batchSize,
+            @Value("${coach-service.rating-push.lease:1m}") Duration lease) {
+        this.outbox = outbox;
+        this.coachServiceClient = coachServiceClient;
+        this.batchSize = batchSize;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${coach-service.rating-push.window:PT0.5S}")
+    public void relay() {
+        List<CoachRatingOutboxEntry> claimed = outbox.claimDue(batchSize, lease);
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> pushes = new ArrayList<>(claimed.size());
+        for (CoachRatingOutboxEntry entry : claimed) {
+            CompletableFuture<Void> push;
+            try {
+                push = coachServiceClient.updateCoachRating(
+                        entry.getCoachId(), entry.getRating(), entry.getTotalSessions(), entry.getOutboxId());
+            } catch (RuntimeException e) {
+                push = CompletableFuture.failedFuture(e);
+            }
+            pushes.add(push);
+        }
+
+        awaitAll(pushes);
+
+        for (int i = 0; i < claimed.size(); i++) {
+            CompletableFuture<Void> push = pushes.get(i);
+            if (!push.isDone()) {
+                // still leased; retried once the lease runs out
+                continue;
+            }
+            CoachRatingOutboxEntry entry = claimed.get(i);
+            try {
+                push.join();
+                outbox.markDelivered(entry);
+            } catch (RuntimeException e) {
+                Throwable error = e.getCause() != null ? e.getCause() : e;
+                boolean transientFailure = CoachServiceClient.isTransient(error);
+                if (!transientFailure) {
+                    log.error("CoachService rejected rating for coach {}: {}", entry.getCoachId(), error.toString());
+                }
+                outbox.markFailed(entry, error, transientFailure);
+            }
+        }
+        log.debug("Relayed {} coach rating updates", claimed.size());
+    }
+
+    private void awaitAll(List<CompletableFuture<Void>> pushes) {
+        try {
+            CompletableFuture.allOf(pushes.toArray(CompletableFuture[]::new))
+                    .get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // individual outcomes are inspected by the caller
+        } catch (TimeoutException e) {
+            log.warn("Coach rating deliveries still outstanding after {}", lease);
+        }
+    }
+}
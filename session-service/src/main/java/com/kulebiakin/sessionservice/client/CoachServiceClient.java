@@ -1,42 +1,198 @@
 package com.kulebiakin.sessionservice.client;
 
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
 import com.kulebiakin.common.dto.CoachRatingRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Client for CoachService rating updates.
+ * <p>
+ * At most {@code max-in-flight} updates are outstanding at a time, and a circuit breaker stops
+ * calling CoachService after repeated failures. Calls over either limit are refused immediately
+ * with {@link CoachServiceUnavailableException} instead of queueing, so an outage cannot pile up
+ * requests in memory; callers keep their own (bounded) state and try again later. Transient
+ * failures are retried with jittered exponential backoff within the in-flight permit.
+ */
 @Component
 @Slf4j
 public class CoachServiceClient {
 
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
     private final WebClient webClient;
+    private final Semaphore inFlight;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedByCircuitCounter;
+    private final Counter rejectedByLimitCounter;
 
     public CoachServiceClient(
-            WebClient.Builder webClientBuilder,
-            @Value("${coach-service.url:http://localhost:8081}") String coachServiceUrl) {
-        this.webClient = webClientBuilder.baseUrl(coachServiceUrl).build();
+            @Qualifier("coachServiceWebClient") WebClient webClient,
+            MeterRegistry meterRegistry,
+            @Value("${coach-service.client.max-in-flight:64}") int maxInFlight,
+            @Value("${coach-service.client.retry.max-retries:2}") int maxRetries,
+            @Value("${coach-service.client.retry.initial-backoff:200ms}") Duration initialBackoff,
+            @Value("${coach-service.client.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${coach-service.client.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.webClient = webClient;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.circuitBreaker = new CircuitBreaker("coach.client", failureThreshold, openDuration,
+                Clock.systemUTC(), meterRegistry);
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.meterRegistry = meterRegistry;
+        this.rejectedByCircuitCounter = rejectedCounter(meterRegistry, "circuit_open");
+        this.rejectedByLimitCounter = rejectedCounter(meterRegistry, "in_flight_limit");
+        Gauge.builder("coach.client.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("CoachService requests currently outstanding")
+                .register(meterRegistry);
     }
 
-    public void updateCoachRating(Long coachId, BigDecimal rating, Long totalSessions) {
-        log.info("Sending rating update to CoachService for coach {}: rating={}, sessions={}",
-                coachId, rating, totalSessions);
+    /**
+     * Sends the rating update asynchronously. CoachService ignores an update whose {@code version}
+     * is not above the last one it applied for the coach, so resending is always safe.
+     *
+     * @return a future completed when CoachService accepted the update, or completed exceptionally
+     *         with the final error; use {@link #isTransient(Throwable)} to decide whether to resend
+     */
+    public CompletableFuture<Void> updateCoachRating(Long coachId, BigDecimal rating, Long totalSessions,
+                                                     Long version) {
+        if (!inFlight.tryAcquire()) {
+            rejectedByLimitCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new CoachServiceUnavailableException("CoachService in-flight request limit reached"));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            inFlight.release();
+            rejectedByCircuitCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new CoachServiceUnavailableException("CoachService circuit breaker is open"));
+        }
+
+        log.info("Sending rating update to CoachService for coach {}: rating={}, sessions={}, version={}",
+                coachId, rating, totalSessions, version);
 
         CoachRatingRequest request = CoachRatingRequest.builder()
                 .coachId(coachId)
                 .rating(rating)
                 .totalSessions(totalSessions)
+                .version(version)
                 .build();
 
-        webClient.post()
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return webClient.post()
                 .uri("/api/coaches/rating")
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(Void.class)
-                .doOnSuccess(v -> log.info("Successfully updated coach {} rating", coachId))
-                .doOnError(e -> log.error("Failed to update coach {} rating: {}", coachId, e.getMessage()))
-                .subscribe();
+                .retryWhen(Retry.backoff(maxRetries, initialBackoff)
+                        .maxBackoff(MAX_BACKOFF)
+                        .jitter(0.5)
+                        .filter(CoachServiceClient::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(v -> {
+                    circuitBreaker.onSuccess();
+                    sample.stop(requestTimer("success"));
+                    log.info("Successfully updated coach {} rating", coachId);
+                })
+                .doOnError(e -> {
+                    if (isTransient(e)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        // CoachService answered, so it is healthy even though it refused this update
+                        circuitBreaker.onIgnored();
+                    }
+                    sample.stop(requestTimer(outcome(e)));
+                    log.error("Failed to update coach {} rating: {}", coachId, e.toString());
+                })
+                // release before the future completes, so callers see the permit returned
+                .doOnTerminate(inFlight::release)
+                .doOnCancel(() -> {
+                    circuitBreaker.onIgnored();
+                    inFlight.release();
+                })
+                .toFuture();
+    }
+
+    /**
+     * Fetches coaches changed since {@code since}, or the whole directory when it is null. Blocks
+     * until the response arrives or the client's response timeout expires.
+     */
+    public CoachDirectoryDelta fetchCoachDirectory(LocalDateTime since) {
+        return webClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/api/coaches/directory");
+                    if (since != null) {
+                        uriBuilder.queryParam("since", since);
+                    }
+                    return uriBuilder.build();
+                })
+                .retrieve()
+                .bodyToMono(CoachDirectoryDelta.class)
+                .block();
+    }
+
+    /**
+     * Whether the failure may succeed on a later attempt: refused locally, connection or timeout
+     * errors, 5xx and 429 responses.
+     */
+    public static boolean isTransient(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return cause instanceof WebClientRequestException
+                || cause instanceof TimeoutException
+                || cause instanceof CoachServiceUnavailableException;
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("coach.client.requests")
+                .description("CoachService rating update latency, including retries")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError() ? "server_error" : "client_error";
+        }
+        return error instanceof WebClientRequestException ? "connection_error" : "error";
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("coach.client.rejected")
+                .description("CoachService calls refused without being sent")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 }
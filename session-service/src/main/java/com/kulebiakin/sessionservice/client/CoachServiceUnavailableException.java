@@ -0,0 +1,12 @@
+package com.kulebiakin.sessionservice.client;
+
+/**
+ * Raised without calling CoachService when the circuit breaker is open or the
+ * in-flight request limit is reached.
+ */
+public class CoachServiceUnavailableException extends RuntimeException {
+
+    public CoachServiceUnavailableException(String message) {
+        super(message);
+    }
+}
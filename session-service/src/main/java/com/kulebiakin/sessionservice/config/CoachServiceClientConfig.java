@@ -0,0 +1,55 @@
+package com.kulebiakin.sessionservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * HTTP client for CoachService with a bounded connection pool and connect/response timeouts, so a
+ * slow CoachService cannot accumulate unbounded connections or pending acquisitions.
+ */
+@Configuration
+public class CoachServiceClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider coachServiceConnectionProvider(
+            @Value("${coach-service.client.max-connections:20}") int maxConnections,
+            @Value("${coach-service.client.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+            @Value("${coach-service.client.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout) {
+        return ConnectionProvider.builder("coach-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                // exported as reactor.netty.connection.provider.* pool gauges
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient coachServiceWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider coachServiceConnectionProvider,
+            @Value("${coach-service.url:http://localhost:8081}") String coachServiceUrl,
+            @Value("${coach-service.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${coach-service.client.response-timeout:5s}") Duration responseTimeout,
+            @Value("${coach-service.client.max-response-size:16MB}") DataSize maxResponseSize) {
+        HttpClient httpClient = HttpClient.create(coachServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return webClientBuilder
+                .baseUrl(coachServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // the full coach directory is a single JSON document
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxResponseSize.toBytes()))
+                .build();
+    }
+}
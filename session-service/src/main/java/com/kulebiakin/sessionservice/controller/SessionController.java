@@ -1,17 +1,32 @@
 package com.kulebiakin.sessionservice.controller;
 
+import com.kulebiakin.common.exception.InvalidRequestException;
+import com.kulebiakin.sessionservice.dto.BulkBookingRequest;
+import com.kulebiakin.sessionservice.dto.CursorPage;
+import com.kulebiakin.sessionservice.dto.DailySessionCount;
+import com.kulebiakin.sessionservice.dto.SessionBooking;
+import com.kulebiakin.sessionservice.dto.SessionCursor;
+import com.kulebiakin.sessionservice.dto.SessionDateRange;
+import com.kulebiakin.sessionservice.dto.SessionExportFilter;
+import com.kulebiakin.sessionservice.dto.SessionSummary;
 import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.entity.SessionStatus;
+import com.kulebiakin.sessionservice.service.SessionExportService;
 import com.kulebiakin.sessionservice.service.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -24,12 +39,36 @@ import java.util.Map;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final SessionExportService sessionExportService;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
 
     @GetMapping
-    @Operation(summary = "Get all sessions")
-    public ResponseEntity<List<Session>> getAllSessions() {
-        log.info("GET /api/sessions - Fetching all sessions");
-        return ResponseEntity.ok(sessionService.getAllSessions());
+    @Operation(summary = "Get sessions, optionally filtered by status, one keyset page at a time")
+    public ResponseEntity<List<SessionSummary>> getAllSessions(
+            @RequestParam(required = false) SessionStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.info("GET /api/sessions - Fetching sessions (status={}, after={}, limit={})", status, after, limit);
+        SessionCursor cursor = SessionCursor.decode(after);
+        return toResponse(status == null
+                ? sessionService.getSessions(cursor, clampLimit(limit))
+                : sessionService.getSessionsByStatus(status, cursor, clampLimit(limit)));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream sessions as NDJSON, optionally filtered by coach, user and date range")
+    public ResponseEntity<StreamingResponseBody> exportSessions(
+            @RequestParam(required = false) Long coachId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("GET /api/sessions/export - Exporting sessions (coachId={}, userId={}, from={}, to={})", coachId, userId, from, to);
+        SessionExportFilter filter = new SessionExportFilter(coachId, userId, from, to);
+        StreamingResponseBody body = out -> sessionExportService.exportSessions(filter, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{sessionId}")
@@ -40,17 +79,55 @@ public class SessionController {
     }
 
     @GetMapping("/coach/{coachId}")
-    @Operation(summary = "Get sessions by coach ID")
-    public ResponseEntity<List<Session>> getSessionsByCoachId(@PathVariable Long coachId) {
-        log.info("GET /api/sessions/coach/{} - Fetching sessions by coach id", coachId);
-        return ResponseEntity.ok(sessionService.getSessionsByCoachId(coachId));
+    @Operation(summary = "Get sessions by coach ID, optionally within a date-time range")
+    public ResponseEntity<List<SessionSummary>> getSessionsByCoachId(
+            @PathVariable Long coachId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.info("GET /api/sessions/coach/{} - Fetching sessions by coach id (from={}, to={}, after={}, limit={})",
+                coachId, from, to, after, limit);
+        return toResponse(sessionService.getSessionsByCoachId(
+                coachId, new SessionDateRange(from, to), SessionCursor.decode(after), clampLimit(limit)));
+    }
+
+    @GetMapping("/coach/{coachId}/calendar")
+    @Operation(summary = "Count a coach's sessions per day")
+    public ResponseEntity<List<DailySessionCount>> getCoachCalendar(
+            @PathVariable Long coachId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) SessionStatus status) {
+        log.info("GET /api/sessions/coach/{}/calendar - Counting sessions per day (from={}, to={}, status={})",
+                coachId, from, to, status);
+        return ResponseEntity.ok(sessionService.getCoachCalendar(coachId, from, to, status));
     }
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get sessions by user ID")
-    public ResponseEntity<List<Session>> getSessionsByUserId(@PathVariable Long userId) {
-        log.info("GET /api/sessions/user/{} - Fetching sessions by user id", userId);
-        return ResponseEntity.ok(sessionService.getSessionsByUserId(userId));
+    @Operation(summary = "Get sessions by user ID, optionally within a date-time range")
+    public ResponseEntity<List<SessionSummary>> getSessionsByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.info("GET /api/sessions/user/{} - Fetching sessions by user id (from={}, to={}, after={}, limit={})",
+                userId, from, to, after, limit);
+        return toResponse(sessionService.getSessionsByUserId(
+                userId, new SessionDateRange(from, to), SessionCursor.decode(after), clampLimit(limit)));
+    }
+
+    @GetMapping("/user/{userId}/calendar")
+    @Operation(summary = "Count a user's sessions per day")
+    public ResponseEntity<List<DailySessionCount>> getUserCalendar(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) SessionStatus status) {
+        log.info("GET /api/sessions/user/{}/calendar - Counting sessions per day (from={}, to={}, status={})",
+                userId, from, to, status);
+        return ResponseEntity.ok(sessionService.getUserCalendar(userId, from, to, status));
     }
 
     @PostMapping
@@ -61,12 +138,31 @@ public class SessionController {
 
         Session session = new Session();
         session.setSessionDateTime(LocalDateTime.parse(payload.get("sessionDateTime").toString()));
+        if (payload.get("durationMinutes") != null) {
+            int durationMinutes = Integer.parseInt(payload.get("durationMinutes").toString());
+            if (durationMinutes < 1 || durationMinutes > Session.MAX_DURATION_MINUTES) {
+                throw new InvalidRequestException(
+                        "Duration must be between 1 and " + Session.MAX_DURATION_MINUTES + " minutes");
+            }
+            session.setDurationMinutes(durationMinutes);
+        }
 
         log.info("POST /api/sessions - Creating new session for user {} with coach {}", userId, coachId);
         Session createdSession = sessionService.createSession(userId, coachId, session);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdSession);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Book many sessions, including recurring series, in one request")
+    public ResponseEntity<List<SessionSummary>> createSessions(@Valid @RequestBody BulkBookingRequest request) {
+        List<SessionBooking> bookings = request.toBookings();
+        log.info("POST /api/sessions/bulk - Booking {} sessions", bookings.size());
+        List<SessionSummary> created = sessionService.createSessions(bookings).stream()
+                .map(SessionSummary::from)
+                .toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
     @PutMapping("/{sessionId}")
     @Operation(summary = "Update a session")
     public ResponseEntity<Session> updateSession(@PathVariable Long sessionId, @Valid @RequestBody Session session) {
@@ -90,4 +186,16 @@ public class SessionController {
         sessionService.deleteSession(sessionId);
         return ResponseEntity.noContent().build();
     }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static ResponseEntity<List<SessionSummary>> toResponse(CursorPage<SessionSummary> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
 }
@@ -0,0 +1,37 @@
+package com.kulebiakin.sessionservice.dto;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Books individual sessions and recurring series in one request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkBookingRequest {
+
+    @Valid
+    @Builder.Default
+    private List<SessionBooking> sessions = new ArrayList<>();
+
+    @Valid
+    @Builder.Default
+    private List<RecurringBooking> series = new ArrayList<>();
+
+    /**
+     * All bookings in the request, individual sessions first, then each series in order.
+     */
+    public List<SessionBooking> toBookings() {
+        List<SessionBooking> bookings = new ArrayList<>(sessions);
+        series.forEach(recurring -> bookings.addAll(recurring.expand()));
+        return bookings;
+    }
+}
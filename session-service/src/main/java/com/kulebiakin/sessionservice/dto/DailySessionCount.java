@@ -0,0 +1,9 @@
+package com.kulebiakin.sessionservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of sessions on one calendar day. Days without sessions are not reported.
+ */
+public record DailySessionCount(LocalDate date, long sessions) {
+}
@@ -0,0 +1,57 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.sessionservice.entity.Session;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A series of sessions at a fixed interval, e.g. every Tuesday 18:00 for 12 weeks:
+ * {@code firstSessionDateTime} on a Tuesday at 18:00, {@code intervalDays} 7, {@code occurrences} 12.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringBooking {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotNull(message = "Coach ID is required")
+    private Long coachId;
+
+    @NotNull(message = "First session date and time is required")
+    private LocalDateTime firstSessionDateTime;
+
+    @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = Session.MAX_DURATION_MINUTES, message = "Duration must not exceed 1440 minutes")
+    private Integer durationMinutes;
+
+    @Positive(message = "Interval must be at least one day")
+    @Builder.Default
+    private Integer intervalDays = 7;
+
+    @NotNull(message = "Number of occurrences is required")
+    @Positive(message = "Number of occurrences must be positive")
+    @Max(value = 520, message = "Number of occurrences must not exceed 520")
+    private Integer occurrences;
+
+    public List<SessionBooking> expand() {
+        List<SessionBooking> bookings = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            bookings.add(new SessionBooking(
+                    userId, coachId, firstSessionDateTime.plusDays((long) i * intervalDays), durationMinutes));
+        }
+        return bookings;
+    }
+}
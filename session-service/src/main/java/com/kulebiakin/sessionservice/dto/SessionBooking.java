@@ -0,0 +1,35 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.sessionservice.entity.Session;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionBooking {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotNull(message = "Coach ID is required")
+    private Long coachId;
+
+    @NotNull(message = "Session date and time is required")
+    private LocalDateTime sessionDateTime;
+
+    /**
+     * Defaults to {@link Session#DEFAULT_DURATION_MINUTES} when absent.
+     */
+    @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = Session.MAX_DURATION_MINUTES, message = "Duration must not exceed 1440 minutes")
+    private Integer durationMinutes;
+}
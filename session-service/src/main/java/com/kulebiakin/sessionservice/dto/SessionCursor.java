@@ -0,0 +1,45 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.common.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position in {@code (session_date_time, session_id)} order.
+ * Serialized as an opaque URL-safe token.
+ */
+public record SessionCursor(LocalDateTime sessionDateTime, Long sessionId) {
+
+    /**
+     * Position before the first session; the lowest value SQL Server DATETIME2 can hold.
+     */
+    public static final SessionCursor START = new SessionCursor(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sessionDateTime + SEPARATOR + sessionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; a null or blank token means the first page.
+     */
+    public static SessionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new SessionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid pagination cursor: " + token, e);
+        }
+    }
+}
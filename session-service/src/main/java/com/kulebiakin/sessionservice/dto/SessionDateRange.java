@@ -0,0 +1,40 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.common.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Half-open {@code [from, to)} restriction on session date-time for list queries. Null bounds are
+ * open ended.
+ */
+public record SessionDateRange(LocalDateTime from, LocalDateTime to) {
+
+    /**
+     * Exclusive upper bound used when {@code to} is absent; the highest value SQL Server DATETIME2 can hold.
+     */
+    static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    public static final SessionDateRange ALL = new SessionDateRange(null, null);
+
+    public SessionDateRange {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidRequestException("Range start " + from + " must be before end " + to);
+        }
+    }
+
+    /**
+     * The keyset position to resume from: the cursor, or the start of the range if that is later.
+     * Session ids are positive, so {@code (from, 0)} precedes every session at {@code from}.
+     */
+    public SessionCursor startAfter(SessionCursor cursor) {
+        if (from != null && cursor.sessionDateTime().isBefore(from)) {
+            return new SessionCursor(from, 0L);
+        }
+        return cursor;
+    }
+
+    public LocalDateTime endBefore() {
+        return to != null ? to : END;
+    }
+}
@@ -0,0 +1,30 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.common.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional restrictions for a session export. Null fields are not applied;
+ * the date range is half-open, {@code [from, to)}, and null bounds are open ended.
+ */
+public record SessionExportFilter(Long coachId, Long userId, LocalDateTime from, LocalDateTime to) {
+
+    public SessionExportFilter {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidRequestException("Export range start " + from + " must be before end " + to);
+        }
+    }
+
+    public static SessionExportFilter all() {
+        return new SessionExportFilter(null, null, null, null);
+    }
+
+    public LocalDateTime startAt() {
+        return from != null ? from : SessionCursor.START.sessionDateTime();
+    }
+
+    public LocalDateTime endBefore() {
+        return to != null ? to : SessionDateRange.END;
+    }
+}
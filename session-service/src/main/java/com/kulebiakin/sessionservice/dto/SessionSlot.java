@@ -0,0 +1,24 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.sessionservice.entity.Session;
+
+import java.time.LocalDateTime;
+
+/**
+ * The half-open interval {@code [start, start + durationMinutes)} a scheduled session occupies in its coach's time.
+ */
+public record SessionSlot(Long coachId, Long sessionId, LocalDateTime start, int durationMinutes) {
+
+    public static SessionSlot of(Session session) {
+        return new SessionSlot(session.getCoachId(), session.getSessionId(),
+                session.getSessionDateTime(), session.getDurationMinutes());
+    }
+
+    public LocalDateTime end() {
+        return start.plusMinutes(durationMinutes);
+    }
+
+    public boolean overlaps(SessionSlot other) {
+        return start.isBefore(other.end()) && other.start.isBefore(end());
+    }
+}
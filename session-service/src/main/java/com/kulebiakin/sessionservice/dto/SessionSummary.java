@@ -0,0 +1,34 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.entity.SessionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for session listings. Carries only columns of the {@code sessions} table,
+ * so list queries never touch {@code app_users}.
+ */
+public record SessionSummary(
+        Long sessionId,
+        LocalDateTime sessionDateTime,
+        Integer durationMinutes,
+        SessionStatus sessionStatus,
+        Long coachId,
+        Long userId,
+        BigDecimal rating,
+        String reviewComment) {
+
+    public static SessionSummary from(Session session) {
+        return new SessionSummary(
+                session.getSessionId(),
+                session.getSessionDateTime(),
+                session.getDurationMinutes(),
+                session.getSessionStatus(),
+                session.getCoachId(),
+                session.getUser().getUserId(),
+                session.getRating(),
+                session.getReviewComment());
+    }
+}
@@ -0,0 +1,52 @@
+package com.kulebiakin.sessionservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Running rating totals per coach, kept in sync with the sessions table so the
+ * coach average can be computed without scanning the coach's session history.
+ */
+@Entity
+@Table(name = "coach_rating_aggregate")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoachRatingAggregate {
+
+    @Id
+    @Column(name = "coach_id")
+    private Long coachId;
+
+    @Column(name = "rating_sum", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+
+    @Column(name = "rated_count", nullable = false)
+    @Builder.Default
+    private Long ratedCount = 0L;
+
+    @Column(name = "session_count", nullable = false)
+    @Builder.Default
+    private Long sessionCount = 0L;
+
+    /**
+     * Average rating over all rated sessions, or null if no session has been rated yet.
+     */
+    public BigDecimal getAverageRating() {
+        if (ratedCount == null || ratedCount == 0) {
+            return null;
+        }
+        return ratingSum.divide(BigDecimal.valueOf(ratedCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,58 @@
+package com.kulebiakin.sessionservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A coach rating update waiting to be delivered to CoachService. Entries are written in the same
+ * transaction as the rating change and marked completed once CoachService has accepted them.
+ */
+@Entity
+@Table(name = "coach_rating_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoachRatingOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(name = "coach_id", nullable = false)
+    private Long coachId;
+
+    @Column(name = "rating", nullable = false, precision = 4, scale = 2)
+    private BigDecimal rating;
+
+    @Column(name = "total_sessions", nullable = false)
+    private Long totalSessions;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -3,6 +3,8 @@ package com.kulebiakin.sessionservice.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,8 +22,12 @@ import java.time.LocalDateTime;
 @Builder
 public class Session {
 
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+    public static final int MAX_DURATION_MINUTES = 1440;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_seq")
+    @SequenceGenerator(name = "session_seq", sequenceName = "session_seq", allocationSize = 50)
     @Column(name = "session_id")
     private Long sessionId;
 
@@ -29,6 +35,13 @@ public class Session {
     @Column(name = "session_date_time", nullable = false)
     private LocalDateTime sessionDateTime;
 
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = MAX_DURATION_MINUTES, message = "Duration must not exceed 1440 minutes")
+    @Column(name = "duration_minutes", nullable = false)
+    @Builder.Default
+    private Integer durationMinutes = DEFAULT_DURATION_MINUTES;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "session_status", nullable = false, length = 20)
     @Builder.Default
@@ -38,7 +51,7 @@ public class Session {
     @NotNull(message = "Coach ID is required")
     private Long coachId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @NotNull(message = "User is required")
     private User user;
@@ -3,20 +3,43 @@ package com.kulebiakin.sessionservice.messaging;
 import com.azure.messaging.servicebus.ServiceBusClientBuilder;
 import com.azure.messaging.servicebus.ServiceBusErrorContext;
 import com.azure.messaging.servicebus.ServiceBusProcessorClient;
+import com.azure.messaging.servicebus.ServiceBusReceivedMessage;
 import com.azure.messaging.servicebus.ServiceBusReceivedMessageContext;
+import com.azure.messaging.servicebus.ServiceBusReceiverClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kulebiakin.common.dto.ReviewMessage;
 import com.kulebiakin.sessionservice.service.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * Consumes review messages from Azure Service Bus queue using push-based processing.
+ * Consumes review messages from Azure Service Bus queue.
+ * <p>
+ * In {@code processor} mode (default) messages are pushed concurrently and handed to a
+ * {@link StripedExecutor} keyed by session, so reviews of the same session are applied in order
+ * while other sessions are processed in parallel. In {@code batch} mode
+ * messages are pulled in batches of up to {@code max-size}, applied in a single transaction
+ * and settled together.
  */
 @Component
 @ConditionalOnProperty(name = "azure.servicebus.connection-string")
@@ -24,8 +47,12 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class ReviewMessageConsumer {
 
+    static final String BATCH_MODE = "batch";
+
     private final SessionService sessionService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
 
     @Value("${azure.servicebus.connection-string}")
     private String connectionString;
@@ -33,16 +60,74 @@ public class ReviewMessageConsumer {
     @Value("${azure.servicebus.queue-name:reviews-queue}")
     private String queueName;
 
+    @Value("${azure.servicebus.consumer.mode:processor}")
+    private String mode;
+
+    @Value("${azure.servicebus.consumer.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${azure.servicebus.consumer.batch.max-wait:2s}")
+    private Duration maxBatchWait;
+
+    @Value("${azure.servicebus.consumer.lanes:0}")
+    private int laneCount;
+
+    @Value("${azure.servicebus.consumer.lane-queue-capacity:256}")
+    private int laneQueueCapacity;
+
     private ServiceBusProcessorClient processorClient;
+    private StripedExecutor stripedExecutor;
+    private ServiceBusReceiverClient receiverClient;
+    private ExecutorService batchExecutor;
+    private volatile boolean running;
 
     @PostConstruct
     public void start() {
-        log.info("Starting Service Bus processor for queue: {}", queueName);
+        if (BATCH_MODE.equalsIgnoreCase(mode)) {
+            startBatchReceiver();
+        } else {
+            startProcessor();
+        }
+    }
 
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (processorClient != null) {
+            log.info("Stopping Service Bus processor");
+            processorClient.close();
+        }
+        if (stripedExecutor != null) {
+            stripedExecutor.close();
+        }
+        if (batchExecutor != null) {
+            log.info("Stopping Service Bus batch receiver");
+            batchExecutor.shutdown();
+            try {
+                if (!batchExecutor.awaitTermination(maxBatchWait.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+                    batchExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                batchExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (receiverClient != null) {
+            receiverClient.close();
+        }
+    }
+
+    private void startProcessor() {
+        int lanes = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        log.info("Starting Service Bus processor for queue: {} with {} lanes", queueName, lanes);
+
+        stripedExecutor = new StripedExecutor("review.consumer", lanes, laneQueueCapacity,
+                threadFactory("review.consumer-lane-"), meterRegistry);
         processorClient = new ServiceBusClientBuilder()
                 .connectionString(connectionString)
                 .processor()
                 .queueName(queueName)
+                .maxConcurrentCalls(lanes)
                 .processMessage(this::processMessage)
                 .processError(this::processError)
                 .buildProcessorClient();
@@ -51,12 +136,36 @@ public class ReviewMessageConsumer {
         log.info("Service Bus processor started successfully");
     }
 
-    @PreDestroy
-    public void stop() {
-        if (processorClient != null) {
-            log.info("Stopping Service Bus processor");
-            processorClient.close();
+    private void startBatchReceiver() {
+        log.info("Starting Service Bus batch receiver for queue: {} (max size {}, max wait {})",
+                queueName, maxBatchSize, maxBatchWait);
+
+        receiverClient = new ServiceBusClientBuilder()
+                .connectionString(connectionString)
+                .receiver()
+                .queueName(queueName)
+                .buildClient();
+
+        running = true;
+        batchExecutor = Executors.newSingleThreadExecutor(threadFactory("review-batch-receiver-"));
+        batchExecutor.submit(this::receiveBatches);
+        log.info("Service Bus batch receiver started successfully");
+    }
+
+    /**
+     * Message handling blocks on JDBC and HTTP, so with {@code spring.threads.virtual.enabled}
+     * on Java 21 the lanes and the batch receiver run on virtual threads like request handling does.
+     */
+    private ThreadFactory threadFactory(String namePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
         }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     private void processMessage(ServiceBusReceivedMessageContext context) {
@@ -67,11 +176,15 @@ public class ReviewMessageConsumer {
 
             ReviewMessage reviewMessage = objectMapper.readValue(payload, ReviewMessage.class);
 
-            sessionService.processReview(
-                    reviewMessage.getSessionId(),
-                    reviewMessage.getRating(),
-                    reviewMessage.getComment()
-            );
+            stripedExecutor.submit(laneKey(reviewMessage), () -> {
+                sessionService.processReview(
+                        messageId,
+                        reviewMessage.getSessionId(),
+                        reviewMessage.getRating(),
+                        reviewMessage.getComment()
+                );
+                return null;
+            }).join();
 
             context.complete();
             log.info("Successfully processed message for session {}", reviewMessage.getSessionId());
@@ -82,6 +195,71 @@ public class ReviewMessageConsumer {
         }
     }
 
+    /**
+     * Reviews are serialized per session, so two reviews of one session never read its previous
+     * rating concurrently. The message's coach id is supplied by the client and not checked against
+     * the session, so it cannot be used as the key; updates of one coach's aggregate are serialized
+     * by its row lock instead.
+     */
+    static Object laneKey(ReviewMessage reviewMessage) {
+        return reviewMessage.getSessionId();
+    }
+
+    private void receiveBatches() {
+        while (running) {
+            try {
+                List<ServiceBusReceivedMessage> messages = receiverClient
+                        .receiveMessages(maxBatchSize, maxBatchWait)
+                        .stream()
+                        .toList();
+                if (!messages.isEmpty()) {
+                    processBatch(messages);
+                }
+            } catch (Exception e) {
+                log.error("Error receiving review messages from Service Bus: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    void processBatch(List<ServiceBusReceivedMessage> messages) {
+        log.info("Received batch of {} review messages from Service Bus", messages.size());
+        Map<String, ServiceBusReceivedMessage> parsedMessages = new LinkedHashMap<>();
+        Map<String, ReviewMessage> reviews = new LinkedHashMap<>();
+
+        for (ServiceBusReceivedMessage message : messages) {
+            try {
+                ReviewMessage review = objectMapper.readValue(message.getBody().toString(), ReviewMessage.class);
+                // A message redelivered within the same batch is settled once and processed once
+                if (parsedMessages.putIfAbsent(message.getMessageId(), message) == null) {
+                    reviews.put(message.getMessageId(), review);
+                } else {
+                    receiverClient.complete(message);
+                }
+            } catch (Exception e) {
+                log.error("Error parsing review message {}: {}", message.getMessageId(), e.getMessage());
+                receiverClient.abandon(message);
+            }
+        }
+        if (reviews.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<Long> missingSessionIds = sessionService.processReviewBatch(reviews);
+            parsedMessages.forEach((messageId, message) -> {
+                if (missingSessionIds.contains(reviews.get(messageId).getSessionId())) {
+                    receiverClient.abandon(message);
+                } else {
+                    receiverClient.complete(message);
+                }
+            });
+            log.info("Successfully processed batch of {} review messages", parsedMessages.size());
+        } catch (Exception e) {
+            log.error("Error processing review batch: {}", e.getMessage(), e);
+            parsedMessages.values().forEach(receiverClient::abandon);
+        }
+    }
+
     private void processError(ServiceBusErrorContext context) {
         log.error("Service Bus error: {} - {}",
                 context.getErrorSource(),
@@ -0,0 +1,135 @@
+package com.kulebiakin.sessionservice.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes tasks on a fixed set of single-threaded lanes selected by key hash.
+ * Tasks with the same key always run on the same lane in submission order, while
+ * tasks with different keys run in parallel. Submitting to a full lane blocks the
+ * caller until the lane has room, which gives natural backpressure.
+ */
+@Slf4j
+public class StripedExecutor implements AutoCloseable {
+
+    private final String name;
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer[] laneTimers;
+
+    public StripedExecutor(String name, int laneCount, int queueCapacity, ThreadFactory threadFactory,
+                           MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1");
+        }
+        this.name = name;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.laneTimers = new Timer[laneCount];
+
+        Gauge.builder(name + ".lanes", () -> laneCount)
+                .description("Number of executor lanes")
+                .register(meterRegistry);
+
+        for (int i = 0; i < laneCount; i++) {
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), threadFactory, StripedExecutor::blockUntilQueued);
+            lanes[i] = lane;
+
+            String laneTag = String.valueOf(i);
+            Gauge.builder(name + ".lane.queue.depth", lane, l -> l.getQueue().size())
+                    .description("Tasks waiting in the lane queue")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            laneTimers[i] = Timer.builder(name + ".lane.latency")
+                    .description("Time from submission to completion of a lane task")
+                    .tag("lane", laneTag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Convenience factory using platform threads named {@code <name>-lane-<n>}.
+     */
+    public static StripedExecutor create(String name, int laneCount, int queueCapacity, MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, name + "-lane-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new StripedExecutor(name, laneCount, queueCapacity, threadFactory, meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Object key, Callable<T> task) {
+        int lane = laneFor(key);
+        Timer timer = laneTimers[lane];
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        lanes[lane].execute(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+        return future;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    int laneFor(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the hash so sequential ids do not map onto neighbouring lanes only
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("{} lane did not drain in time, {} tasks dropped", name, lane.shutdownNow().size());
+                }
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor lane has been shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for lane capacity", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.kulebiakin.sessionservice.repository;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CoachRatingAggregateRepository extends JpaRepository<CoachRatingAggregate, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM CoachRatingAggregate a WHERE a.coachId = :coachId")
+    Optional<CoachRatingAggregate> findByIdForUpdate(@Param("coachId") Long coachId);
+
+    /**
+     * Inserts an empty aggregate unless the coach already has one. HOLDLOCK keeps the key range
+     * locked between the existence check and the insert, so concurrent callers for a new coach
+     * wait for each other instead of both inserting.
+     */
+    @Modifying
+    @Query(value = "MERGE coach_rating_aggregate WITH (HOLDLOCK) AS target "
+            + "USING (SELECT :coachId AS coach_id) AS source ON target.coach_id = source.coach_id "
+            + "WHEN NOT MATCHED THEN INSERT (coach_id, rating_sum, rated_count, session_count) "
+            + "VALUES (source.coach_id, 0, 0, 0);",
+            nativeQuery = true)
+    int createIfAbsent(@Param("coachId") Long coachId);
+
+    @Modifying
+    @Query(value = "DELETE FROM coach_rating_aggregate", nativeQuery = true)
+    void deleteAllAggregates();
+
+    @Modifying
+    @Query(value = "INSERT INTO coach_rating_aggregate (coach_id, rating_sum, rated_count, session_count) "
+            + "SELECT coach_id, COALESCE(SUM(rating), 0), COUNT(rating), COUNT(*) FROM sessions GROUP BY coach_id",
+            nativeQuery = true)
+    int rebuildFromSessions();
+}
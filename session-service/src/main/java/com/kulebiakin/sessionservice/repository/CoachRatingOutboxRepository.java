@@ -0,0 +1,54 @@
+package com.kulebiakin.sessionservice.repository;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CoachRatingOutboxRepository extends JpaRepository<CoachRatingOutboxEntry, Long> {
+
+    /**
+     * Latest open entry id of each coach whose open entries are all due, oldest coaches first.
+     * A coach with an entry still leased or backing off is skipped, so a newer rating is never
+     * sent while an older one may still be in flight.
+     */
+    @Query("SELECT MAX(e.outboxId) FROM CoachRatingOutboxEntry e WHERE e.completedAt IS NULL " +
+           "GROUP BY e.coachId HAVING MAX(e.nextAttemptAt) <= :now ORDER BY MIN(e.outboxId)")
+    List<Long> findDueHeadIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Leases the coach's open entries up to {@code headId}; returns 0 if another relay got there first.
+     */
+    @Modifying
+    @Query("UPDATE CoachRatingOutboxEntry e SET e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.coachId = :coachId AND e.outboxId <= :headId AND e.completedAt IS NULL " +
+           "AND e.nextAttemptAt <= :now")
+    int claim(@Param("coachId") Long coachId, @Param("headId") Long headId,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE CoachRatingOutboxEntry e SET e.completedAt = :now, e.lastError = :error " +
+           "WHERE e.coachId = :coachId AND e.outboxId <= :headId AND e.completedAt IS NULL")
+    int complete(@Param("coachId") Long coachId, @Param("headId") Long headId,
+                 @Param("now") LocalDateTime now, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE CoachRatingOutboxEntry e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :retryAt, " +
+           "e.lastError = :error " +
+           "WHERE e.coachId = :coachId AND e.outboxId <= :headId AND e.completedAt IS NULL")
+    int scheduleRetry(@Param("coachId") Long coachId, @Param("headId") Long headId,
+                      @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+
+    long countByCompletedAtIsNull();
+
+    @Modifying
+    @Query("DELETE FROM CoachRatingOutboxEntry e WHERE e.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package com.kulebiakin.sessionservice.repository;
+
+import com.kulebiakin.sessionservice.entity.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    /**
+     * Plain insert; {@code save} would issue a SELECT first because the id is assigned.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO processed_messages (message_id, processed_at) VALUES (:messageId, :processedAt)",
+            nativeQuery = true)
+    void insert(@Param("messageId") String messageId, @Param("processedAt") LocalDateTime processedAt);
+
+    @Query("SELECT p.messageId FROM ProcessedMessage p")
+    Stream<String> streamAllMessageIds();
+
+    @Modifying
+    @Query("DELETE FROM ProcessedMessage p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,26 +1,211 @@
 package com.kulebiakin.sessionservice.repository;
 
+import com.kulebiakin.sessionservice.dto.DailySessionCount;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.dto.SessionSummary;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * List queries use keyset pagination: rows strictly after {@code (afterDateTime, afterId)}
+ * in {@code (session_date_time, session_id)} order, limited by the pageable's page size.
+ * Each is backed by a composite index with the same column order, and projects to
+ * {@link SessionSummary} so it reads the {@code sessions} table alone.
+ */
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
 
-    List<Session> findByCoachId(Long coachId);
+    /**
+     * Rows the JDBC driver fetches per round trip while streaming an export.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
+    String SUMMARY_SELECT = "SELECT new com.kulebiakin.sessionservice.dto.SessionSummary("
+            + "s.sessionId, s.sessionDateTime, s.durationMinutes, s.sessionStatus, s.coachId, s.user.userId, s.rating, s.reviewComment) "
+            + "FROM Session s ";
+
+    String EXPORT_SELECT = "SELECT s FROM Session s JOIN FETCH s.user ";
+
+    /**
+     * Loads a single session together with its user, for responses that include the user.
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<Session> findWithUserBySessionId(Long sessionId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.sessionDateTime > :afterDateTime "
+            + "OR (s.sessionDateTime = :afterDateTime AND s.sessionId > :afterId) "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    List<SessionSummary> findPage(@Param("afterDateTime") LocalDateTime afterDateTime,
+                           @Param("afterId") Long afterId,
+                           Pageable pageable);
+
+    /**
+     * Keyset page of the coach's sessions, additionally bounded by {@code sessionDateTime < before}.
+     */
+    @Query(SUMMARY_SELECT + "WHERE s.coachId = :coachId "
+            + "AND (s.sessionDateTime > :afterDateTime "
+            + "OR (s.sessionDateTime = :afterDateTime AND s.sessionId > :afterId)) "
+            + "AND s.sessionDateTime < :before "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    List<SessionSummary> findPageByCoachId(@Param("coachId") Long coachId,
+                                    @Param("afterDateTime") LocalDateTime afterDateTime,
+                                    @Param("afterId") Long afterId,
+                                    @Param("before") LocalDateTime before,
+                                    Pageable pageable);
+
+    /**
+     * Keyset page of the user's sessions, additionally bounded by {@code sessionDateTime < before}.
+     */
+    @Query(SUMMARY_SELECT + "WHERE s.user.userId = :userId "
+            + "AND (s.sessionDateTime > :afterDateTime "
+            + "OR (s.sessionDateTime = :afterDateTime AND s.sessionId > :afterId)) "
+            + "AND s.sessionDateTime < :before "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    List<SessionSummary> findPageByUserId(@Param("userId") Long userId,
+                                   @Param("afterDateTime") LocalDateTime afterDateTime,
+                                   @Param("afterId") Long afterId,
+                                   @Param("before") LocalDateTime before,
+                                   Pageable pageable);
+
+    /**
+     * Sessions per day of the coach in {@code [from, to)}, optionally of one status only.
+     * Answered from {@code idx_session_coach_date}, which includes the status column.
+     */
+    @Query("SELECT new com.kulebiakin.sessionservice.dto.DailySessionCount("
+            + "CAST(s.sessionDateTime AS LocalDate), COUNT(s)) FROM Session s "
+            + "WHERE s.coachId = :coachId AND s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "AND (:status IS NULL OR s.sessionStatus = :status) "
+            + "GROUP BY CAST(s.sessionDateTime AS LocalDate) "
+            + "ORDER BY CAST(s.sessionDateTime AS LocalDate)")
+    List<DailySessionCount> countPerDayByCoachId(@Param("coachId") Long coachId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to,
+                                                 @Param("status") SessionStatus status);
+
+    /**
+     * Sessions per day of the user in {@code [from, to)}, optionally of one status only.
+     * Answered from {@code idx_session_user_date}, which includes the status column.
+     */
+    @Query("SELECT new com.kulebiakin.sessionservice.dto.DailySessionCount("
+            + "CAST(s.sessionDateTime AS LocalDate), COUNT(s)) FROM Session s "
+            + "WHERE s.user.userId = :userId AND s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "AND (:status IS NULL OR s.sessionStatus = :status) "
+            + "GROUP BY CAST(s.sessionDateTime AS LocalDate) "
+            + "ORDER BY CAST(s.sessionDateTime AS LocalDate)")
+    List<DailySessionCount> countPerDayByUserId(@Param("userId") Long userId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("status") SessionStatus status);
+
+    @Query(SUMMARY_SELECT + "WHERE s.sessionStatus = :status "
+            + "AND (s.sessionDateTime > :afterDateTime "
+            + "OR (s.sessionDateTime = :afterDateTime AND s.sessionId > :afterId)) "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    List<SessionSummary> findPageBySessionStatus(@Param("status") SessionStatus status,
+                                          @Param("afterDateTime") LocalDateTime afterDateTime,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    /**
+     * Streams sessions in {@code [from, to)} with their users for export, using {@code idx_session_date}.
+     * The export queries each bind only the filters they apply, so every one gets its own plan that
+     * seeks its index. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_SELECT + "WHERE s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    Stream<Session> streamForExport(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the coach's sessions in {@code [from, to)} for export, using {@code idx_session_coach_date}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_SELECT + "WHERE s.coachId = :coachId "
+            + "AND s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    Stream<Session> streamForExportByCoachId(@Param("coachId") Long coachId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
 
-    List<Session> findByUserUserId(Long userId);
+    /**
+     * Streams the user's sessions in {@code [from, to)} for export, using {@code idx_session_user_date}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_SELECT + "WHERE s.user.userId = :userId "
+            + "AND s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    Stream<Session> streamForExportByUserId(@Param("userId") Long userId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
 
-    List<Session> findBySessionStatus(SessionStatus status);
+    /**
+     * Streams the sessions between the coach and the user in {@code [from, to)} for export,
+     * seeking {@code idx_session_coach_date} and filtering by user.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_SELECT + "WHERE s.coachId = :coachId AND s.user.userId = :userId "
+            + "AND s.sessionDateTime >= :from AND s.sessionDateTime < :to "
+            + "ORDER BY s.sessionDateTime, s.sessionId")
+    Stream<Session> streamForExportByCoachIdAndUserId(@Param("coachId") Long coachId,
+                                                      @Param("userId") Long userId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to);
 
-    @Query("SELECT COUNT(s) FROM Session s WHERE s.coachId = :coachId")
-    Long countSessionsByCoachId(@Param("coachId") Long coachId);
+    /**
+     * Streams the slots of scheduled sessions starting after {@code since}, to build the coach schedule index.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.kulebiakin.sessionservice.dto.SessionSlot("
+            + "s.coachId, s.sessionId, s.sessionDateTime, s.durationMinutes) FROM Session s "
+            + "WHERE s.sessionStatus = com.kulebiakin.sessionservice.entity.SessionStatus.SCHEDULED "
+            + "AND s.sessionDateTime > :since")
+    Stream<SessionSlot> streamScheduledSlotsStartingAfter(@Param("since") LocalDateTime since);
 
-    @Query("SELECT AVG(s.rating) FROM Session s WHERE s.coachId = :coachId AND s.rating IS NOT NULL")
-    Double getAverageRatingByCoachId(@Param("coachId") Long coachId);
+    /**
+     * Scheduled sessions of the coach starting in {@code [from, to)}, read with update range locks
+     * ({@code UPDLOCK, HOLDLOCK} on SQL Server) held until the transaction ends, so no other
+     * transaction can lock the same range or insert a session into it meanwhile.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.coachId = :coachId "
+            + "AND s.sessionStatus = com.kulebiakin.sessionservice.entity.SessionStatus.SCHEDULED "
+            + "AND s.sessionDateTime >= :from AND s.sessionDateTime < :to")
+    List<Session> lockScheduledByCoachId(@Param("coachId") Long coachId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
 }
@@ -2,6 +2,9 @@ package com.kulebiakin.sessionservice.repository;
 
 import com.kulebiakin.sessionservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,13 @@ import java.util.List;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
+
+    /**
+     * Adds to the user's session counter in a single statement, so concurrent increments are not lost.
+     *
+     * @return number of updated rows, 0 if the user does not exist
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.sessionsTaken = COALESCE(u.sessionsTaken, 0) + :count WHERE u.userId = :userId")
+    int incrementSessionsTaken(@Param("userId") Long userId, @Param("count") int count);
 }
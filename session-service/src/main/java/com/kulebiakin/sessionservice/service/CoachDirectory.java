@@ -0,0 +1,195 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.common.exception.ResourceNotFoundException;
+import com.kulebiakin.sessionservice.client.CoachServiceClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory replica of CoachService's coach id to status directory, used to validate bookings
+ * without a remote call.
+ * <p>
+ * The directory is loaded in full at startup and then refreshed from the delta feed, asking
+ * for changes since the previous poll minus {@code overlap} so changes committed while a poll
+ * was reading are not missed. Deleted coaches do not appear in the delta feed and are dropped by
+ * the periodic full reload. Each refresh publishes a new map, so readers never take a lock.
+ * Until the first load succeeds, bookings are not checked.
+ * <p>
+ * A booking for a coach missing from the replica is rejected from the local copy alone; the miss
+ * only brings the next poll forward on the scheduler, so a coach created since the last poll
+ * becomes bookable shortly after without a remote call on the booking path.
+ */
+@Component
+@Slf4j
+public class CoachDirectory {
+
+    private static final byte ACTIVE = 1;
+    private static final byte DEACTIVATED = 2;
+
+    private final CoachServiceClient coachServiceClient;
+    private final TaskScheduler taskScheduler;
+    private final Duration overlap;
+    private final Duration missRefreshSpacing;
+    private final Duration fullReloadInterval;
+    private final int expectedCoaches;
+    private final Counter unknownCounter;
+    private final Counter deactivatedCounter;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean missRefreshPending = new AtomicBoolean();
+    private volatile LongByteHashMap coaches;
+    private volatile LocalDateTime lastAsOf;
+    private volatile Instant lastFullLoad;
+    private volatile Instant lastRefresh;
+
+    public CoachDirectory(
+            CoachServiceClient coachServiceClient,
+            TaskScheduler taskScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${coach-directory.overlap:5s}") Duration overlap,
+            @Value("${coach-directory.miss-refresh-spacing:1s}") Duration missRefreshSpacing,
+            @Value("${coach-directory.full-reload-interval:1h}") Duration fullReloadInterval,
+            @Value("${coach-directory.expected-coaches:1024}") int expectedCoaches) {
+        this.coachServiceClient = coachServiceClient;
+        this.taskScheduler = taskScheduler;
+        this.overlap = overlap;
+        this.missRefreshSpacing = missRefreshSpacing;
+        this.fullReloadInterval = fullReloadInterval;
+        this.expectedCoaches = expectedCoaches;
+        this.unknownCounter = rejectedCounter(meterRegistry, "unknown");
+        this.deactivatedCounter = rejectedCounter(meterRegistry, "deactivated");
+        Gauge.builder("coach.directory.size", this, directory -> directory.coaches == null ? 0 : directory.coaches.size())
+                .description("Coaches in the local coach directory replica")
+                .register(meterRegistry);
+        Gauge.builder("coach.directory.staleness", this, CoachDirectory::stalenessSeconds)
+                .description("Seconds since the coach directory was last refreshed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Applies changes from CoachService, or reloads the whole directory if it was never loaded
+     * or the full reload interval has passed. Failures are logged and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${coach-directory.refresh-interval:PT5S}",
+            initialDelayString = "${coach-directory.refresh-interval:PT5S}")
+    public void refresh() {
+        // a lock rather than synchronized: the HTTP call would pin a virtual thread
+        refreshLock.lock();
+        try {
+            missRefreshPending.set(false);
+            if (coaches == null || Instant.now().isAfter(lastFullLoad.plus(fullReloadInterval))) {
+                reload();
+            } else {
+                applyDelta();
+            }
+            lastRefresh = Instant.now();
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh coach directory: {}", e.toString());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Checks the coach against the local replica only.
+     *
+     * @throws ResourceNotFoundException if the coach is not in the directory
+     * @throws ConflictException if the coach is deactivated
+     */
+    public void requireBookable(Long coachId) {
+        LongByteHashMap current = coaches;
+        if (current == null) {
+            log.warn("Coach directory not loaded yet; accepting booking for coach {} unchecked", coachId);
+            return;
+        }
+        byte status = current.get(coachId);
+        if (status == 0) {
+            unknownCounter.increment();
+            requestRefreshAfterMiss();
+            throw new ResourceNotFoundException("Coach", coachId);
+        }
+        if (status == DEACTIVATED) {
+            deactivatedCounter.increment();
+            throw new ConflictException("Coach " + coachId + " is deactivated and cannot be booked");
+        }
+    }
+
+    public void requireBookable(Collection<Long> coachIds) {
+        coachIds.forEach(this::requireBookable);
+    }
+
+    /**
+     * Schedules one extra refresh, at least {@code missRefreshSpacing} after the previous one.
+     * Further misses before it runs are folded into it, so unknown ids cannot flood CoachService.
+     */
+    private void requestRefreshAfterMiss() {
+        if (!missRefreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        Instant refreshed = lastRefresh;
+        Instant earliest = refreshed == null ? Instant.now() : refreshed.plus(missRefreshSpacing);
+        taskScheduler.schedule(this::refresh, earliest);
+    }
+
+    private void reload() {
+        CoachDirectoryDelta directory = coachServiceClient.fetchCoachDirectory(null);
+        List<CoachDirectoryEntry> entries = directory.getCoaches();
+        LongByteHashMap loaded = new LongByteHashMap(Math.max(expectedCoaches, entries.size()));
+        entries.forEach(entry -> loaded.put(entry.getCoachId(), statusCode(entry.getStatus())));
+        coaches = loaded;
+        lastAsOf = directory.getAsOf();
+        lastFullLoad = Instant.now();
+        log.info("Loaded coach directory with {} coaches", loaded.size());
+    }
+
+    private void applyDelta() {
+        CoachDirectoryDelta delta = coachServiceClient.fetchCoachDirectory(lastAsOf.minus(overlap));
+        if (!delta.getCoaches().isEmpty()) {
+            LongByteHashMap updated = coaches.copy();
+            delta.getCoaches().forEach(entry -> updated.put(entry.getCoachId(), statusCode(entry.getStatus())));
+            coaches = updated;
+            log.debug("Applied {} coach directory changes", delta.getCoaches().size());
+        }
+        lastAsOf = delta.getAsOf();
+    }
+
+    private double stalenessSeconds() {
+        Instant refreshed = lastRefresh;
+        return refreshed == null ? Double.NaN : Duration.between(refreshed, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static byte statusCode(String status) {
+        return "DEACTIVATED".equals(status) ? DEACTIVATED : ACTIVE;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("coach.directory.rejected")
+                .description("Bookings rejected by the coach directory")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
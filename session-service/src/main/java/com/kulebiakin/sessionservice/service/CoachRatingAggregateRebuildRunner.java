@@ -0,0 +1,28 @@
+package com.kulebiakin.sessionservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the coach rating aggregates at startup when the application is launched with
+ * {@code --rebuild-coach-rating-aggregate}, e.g. after importing sessions outside the service.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CoachRatingAggregateRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-coach-rating-aggregate";
+
+    private final CoachRatingAggregateService aggregateService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            aggregateService.rebuild();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingAggregate;
+import com.kulebiakin.sessionservice.repository.CoachRatingAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Maintains the per-coach rating aggregate. All mutating methods join the caller's
+ * transaction so the aggregate always commits together with the session change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CoachRatingAggregateService {
+
+    private final CoachRatingAggregateRepository aggregateRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CoachRatingAggregate sessionAdded(Long coachId) {
+        return sessionsAdded(coachId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CoachRatingAggregate sessionsAdded(Long coachId, int count) {
+        CoachRatingAggregate aggregate = lockOrCreate(coachId);
+        aggregate.setSessionCount(aggregate.getSessionCount() + count);
+        return aggregateRepository.save(aggregate);
+    }
+
+    /**
+     * Removes a deleted session from the aggregate, including its rating if it had one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CoachRatingAggregate sessionRemoved(Long coachId, BigDecimal rating) {
+        CoachRatingAggregate aggregate = lockOrCreate(coachId);
+        aggregate.setSessionCount(Math.max(0, aggregate.getSessionCount() - 1));
+        if (rating != null) {
+            aggregate.setRatingSum(aggregate.getRatingSum().subtract(rating));
+            aggregate.setRatedCount(Math.max(0, aggregate.getRatedCount() - 1));
+        }
+        return aggregateRepository.save(aggregate);
+    }
+
+    /**
+     * Applies a rating change for one session. A re-rating replaces the old value
+     * instead of counting the session twice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CoachRatingAggregate ratingChanged(Long coachId, BigDecimal oldRating, BigDecimal newRating) {
+        BigDecimal ratingSumDelta = BigDecimal.ZERO;
+        long ratedCountDelta = 0;
+
+        if (oldRating != null) {
+            ratingSumDelta = ratingSumDelta.subtract(oldRating);
+            ratedCountDelta--;
+        }
+        if (newRating != null) {
+            ratingSumDelta = ratingSumDelta.add(newRating);
+            ratedCountDelta++;
+        }
+        return ratingsChanged(coachId, ratingSumDelta, ratedCountDelta);
+    }
+
+    /**
+     * Applies the net effect of several rating changes for one coach with a single row update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CoachRatingAggregate ratingsChanged(Long coachId, BigDecimal ratingSumDelta, long ratedCountDelta) {
+        CoachRatingAggregate aggregate = lockOrCreate(coachId);
+        aggregate.setRatingSum(aggregate.getRatingSum().add(ratingSumDelta));
+        aggregate.setRatedCount(Math.max(0, aggregate.getRatedCount() + ratedCountDelta));
+        return aggregateRepository.save(aggregate);
+    }
+
+    /**
+     * Recomputes every coach aggregate from the sessions table.
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding coach rating aggregates from sessions");
+        aggregateRepository.deleteAllAggregates();
+        int coaches = aggregateRepository.rebuildFromSessions();
+        log.info("Rebuilt rating aggregates for {} coaches", coaches);
+        return coaches;
+    }
+
+    /**
+     * Locks the coach's aggregate row. A missing row is created first with an upsert: locking a
+     * row that does not exist yet locks nothing, so two transactions for a new coach would both
+     * insert and one would fail on the primary key.
+     */
+    private CoachRatingAggregate lockOrCreate(Long coachId) {
+        return aggregateRepository.findByIdForUpdate(coachId)
+                .orElseGet(() -> {
+                    aggregateRepository.createIfAbsent(coachId);
+                    return aggregateRepository.findByIdForUpdate(coachId)
+                            .orElseThrow(() -> new IllegalStateException("Rating aggregate missing for coach " + coachId));
+                });
+    }
+}
@@ -0,0 +1,173 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingOutboxEntry;
+import com.kulebiakin.sessionservice.repository.CoachRatingOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox of coach rating updates bound for CoachService.
+ * <p>
+ * Ratings are enqueued in the caller's transaction, so an update is persisted if and only if the
+ * rating change commits. The relay claims the latest open entry per coach; delivering it completes
+ * every older entry of that coach as well, so only the newest rating is sent (latest wins) and a
+ * coach never has two updates in flight. Failed deliveries are retried with exponential backoff.
+ */
+@Service
+@Slf4j
+public class CoachRatingOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final CoachRatingOutboxRepository outboxRepository;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final AtomicLong pendingEntries = new AtomicLong();
+    private final Counter submittedCounter;
+    private final Counter coalescedCounter;
+    private final Counter sentCounter;
+    private final Counter requeuedCounter;
+    private final Counter droppedCounter;
+
+    public CoachRatingOutbox(
+            CoachRatingOutboxRepository outboxRepository,
+            MeterRegistry meterRegistry,
+            @Value("${coach-service.rating-push.retry.initial-backoff:1s}") Duration initialBackoff,
+            @Value("${coach-service.rating-push.retry.max-backoff:5m}") Duration maxBackoff,
+            @Value("${coach-service.rating-push.retention:1d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.submittedCounter = Counter.builder("coach.rating.push.submitted")
+                .description("Coach rating updates written to the outbox")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("coach.rating.push.coalesced")
+                .description("Coach rating updates superseded by a newer rating before being sent")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("coach.rating.push.sent")
+                .description("Coach rating updates accepted by CoachService")
+                .register(meterRegistry);
+        this.requeuedCounter = Counter.builder("coach.rating.push.requeued")
+                .description("Coach rating deliveries scheduled for retry after a transient failure")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("coach.rating.push.dropped")
+                .description("Coach rating updates rejected by CoachService")
+                .register(meterRegistry);
+        Gauge.builder("coach.rating.push.pending", pendingEntries, AtomicLong::get)
+                .description("Outbox entries not yet delivered, as of the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("coach.rating.push.coalescing.ratio", this, CoachRatingOutbox::coalescingRatio)
+                .description("Fraction of submitted rating updates that never had to be sent")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long coachId, BigDecimal rating, Long totalSessions) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(CoachRatingOutboxEntry.builder()
+                .coachId(coachId)
+                .rating(rating)
+                .totalSessions(totalSessions)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+        submittedCounter.increment();
+    }
+
+    /**
+     * Claims up to {@code batchSize} coaches with due updates, leasing their entries for
+     * {@code lease} so no other relay picks them up meanwhile.
+     *
+     * @return the latest entry of each claimed coach
+     */
+    @Transactional
+    public List<CoachRatingOutboxEntry> claimDue(int batchSize, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> headIds = outboxRepository.findDueHeadIds(now, PageRequest.of(0, batchSize));
+        List<CoachRatingOutboxEntry> claimed = new ArrayList<>(headIds.size());
+        for (CoachRatingOutboxEntry head : outboxRepository.findAllById(headIds)) {
+            if (outboxRepository.claim(head.getCoachId(), head.getOutboxId(), now, now.plus(lease)) > 0) {
+                claimed.add(head);
+            }
+        }
+        pendingEntries.set(outboxRepository.countByCompletedAtIsNull());
+        return claimed;
+    }
+
+    @Transactional
+    public void markDelivered(CoachRatingOutboxEntry head) {
+        int completed = outboxRepository.complete(head.getCoachId(), head.getOutboxId(), LocalDateTime.now(), null);
+        sentCounter.increment();
+        if (completed > 1) {
+            coalescedCounter.increment(completed - 1);
+        }
+    }
+
+    /**
+     * Records a failed delivery: transient failures are retried with backoff, anything else means
+     * CoachService refused the update and the entries are completed with the error.
+     */
+    @Transactional
+    public void markFailed(CoachRatingOutboxEntry head, Throwable error, boolean transientFailure) {
+        String message = truncate(error.toString());
+        if (transientFailure) {
+            LocalDateTime retryAt = LocalDateTime.now().plus(backoff(head.getAttempts()));
+            outboxRepository.scheduleRetry(head.getCoachId(), head.getOutboxId(), retryAt, message);
+            requeuedCounter.increment();
+        } else {
+            outboxRepository.complete(head.getCoachId(), head.getOutboxId(), LocalDateTime.now(), message);
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * Deletes completed entries past the retention window.
+     */
+    @Scheduled(fixedDelayString = "${coach-service.rating-push.prune-interval:PT1H}",
+            initialDelayString = "${coach-service.rating-push.prune-interval:PT1H}")
+    @Transactional
+    public void prune() {
+        int deleted = outboxRepository.deleteCompletedBefore(LocalDateTime.now().minus(retention));
+        log.info("Pruned {} delivered coach rating outbox entries older than {}", deleted, retention);
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = maxBackoff;
+        if (attempts < 30) {
+            Duration exponential = initialBackoff.multipliedBy(1L << attempts);
+            if (exponential.compareTo(maxBackoff) < 0) {
+                backoff = exponential;
+            }
+        }
+        // up to 20% jitter so coaches that failed together do not retry together
+        long jitterMillis = ThreadLocalRandom.current().nextLong(backoff.toMillis() / 5 + 1);
+        return backoff.plusMillis(jitterMillis);
+    }
+
+    double coalescingRatio() {
+        double submitted = submittedCounter.count();
+        return submitted == 0 ? 0 : coalescedCounter.count() / submitted;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
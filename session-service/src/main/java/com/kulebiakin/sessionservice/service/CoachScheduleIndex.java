@@ -0,0 +1,232 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.entity.SessionStatus;
+import com.kulebiakin.sessionservice.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-coach index of the time slots held by upcoming scheduled sessions, used to reject
+ * double-bookings within a request and against this instance's bookings without a query.
+ * <p>
+ * Each coach's slots are kept in a tree ordered by start. Durations are capped at
+ * {@link Session#MAX_DURATION_MINUTES}, so only slots starting within that window before a
+ * candidate's end can overlap it and a check is a single bounded range scan. Changes are applied
+ * in the caller's transaction, so concurrent bookings on this instance see each other, and are
+ * undone if it rolls back. The index is reloaded periodically to pick up bookings made through
+ * other instances.
+ * <p>
+ * The index can lag the database, so {@link #lockSlots} is the final check: it locks the coach's
+ * rows around the new slots and compares them with what is committed.
+ */
+@Component
+@Slf4j
+public class CoachScheduleIndex {
+
+    private static final Comparator<SessionSlot> BY_START =
+            Comparator.comparing(SessionSlot::start).thenComparing(SessionSlot::sessionId);
+
+    private final SessionRepository sessionRepository;
+    private volatile Map<Long, NavigableSet<SessionSlot>> schedules = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter conflictCounter;
+
+    public CoachScheduleIndex(SessionRepository sessionRepository, MeterRegistry meterRegistry) {
+        this.sessionRepository = sessionRepository;
+        this.conflictCounter = Counter.builder("coach.schedule.conflicts")
+                .description("Bookings rejected because they overlap another session of the coach")
+                .register(meterRegistry);
+        Gauge.builder("coach.schedule.size", size, AtomicInteger::get)
+                .description("Upcoming scheduled session slots in the coach schedule index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Replaces the index with the slots of scheduled sessions that have not ended yet, picking up
+     * bookings and cancellations made through other instances and dropping ended slots. Bookings
+     * still uncommitted while this reads are missing until the next reload; {@link #lockSlots}
+     * still catches overlaps with them.
+     */
+    @Scheduled(fixedDelayString = "${session.schedule-index.reload-interval:PT5M}",
+            initialDelayString = "${session.schedule-index.reload-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, NavigableSet<SessionSlot>> loaded = new ConcurrentHashMap<>();
+        int count = 0;
+        try (Stream<SessionSlot> slots = sessionRepository.streamScheduledSlotsStartingAfter(
+                now.minusMinutes(Session.MAX_DURATION_MINUTES))) {
+            for (SessionSlot slot : (Iterable<SessionSlot>) slots::iterator) {
+                if (slot.end().isAfter(now)
+                        && loaded.computeIfAbsent(slot.coachId(), coachId -> new TreeSet<>(BY_START)).add(slot)) {
+                    count++;
+                }
+            }
+        }
+        schedules = loaded;
+        size.set(count);
+        log.info("Loaded {} upcoming session slots into the coach schedule index", count);
+    }
+
+    /**
+     * Locks each coach's scheduled sessions around the given slots until the caller's transaction
+     * ends and rejects any slot that overlaps one of them, including sessions booked through other
+     * instances. The range locks also block other transactions from booking into that range, so
+     * bookings of one coach are serialized. Coaches are locked in id order, so concurrent requests
+     * cannot deadlock on each other. Call this before the new or moved sessions are written.
+     *
+     * @throws ConflictException if a slot overlaps a scheduled session in the database
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockSlots(Collection<SessionSlot> slots) {
+        Map<Long, List<SessionSlot>> slotsByCoach = slots.stream()
+                .collect(Collectors.groupingBy(SessionSlot::coachId, TreeMap::new, Collectors.toList()));
+        slotsByCoach.forEach((coachId, candidates) -> {
+            LocalDateTime from = candidates.stream().map(SessionSlot::start).min(Comparator.naturalOrder())
+                    .orElseThrow().minusMinutes(Session.MAX_DURATION_MINUTES);
+            LocalDateTime to = candidates.stream().map(SessionSlot::end).max(Comparator.naturalOrder())
+                    .orElseThrow();
+            NavigableSet<SessionSlot> booked = new TreeSet<>(BY_START);
+            sessionRepository.lockScheduledByCoachId(coachId, from, to)
+                    .forEach(session -> booked.add(SessionSlot.of(session)));
+            for (SessionSlot candidate : candidates) {
+                SessionSlot conflict = findConflict(booked, candidate);
+                if (conflict != null) {
+                    throw conflict(coachId, conflict);
+                }
+            }
+        });
+    }
+
+    /**
+     * Holds the slot of a newly saved session, if it is scheduled.
+     *
+     * @throws ConflictException if the slot overlaps another scheduled session of the coach
+     */
+    public void reserve(Session session) {
+        move(null, slotOf(session));
+    }
+
+    /**
+     * Moves the slot a session held before an update to the one it holds now.
+     *
+     * @param previous the slot held before the update, or null if the session was not scheduled
+     * @throws ConflictException if the new slot overlaps another scheduled session of the coach
+     */
+    public void reschedule(SessionSlot previous, Session session) {
+        move(previous, slotOf(session));
+    }
+
+    /**
+     * Frees the slot of a session that is being deleted.
+     */
+    public void release(Session session) {
+        move(slotOf(session), null);
+    }
+
+    /**
+     * Returns the slot the session holds in the index, or null if it is not scheduled.
+     */
+    public static SessionSlot slotOf(Session session) {
+        return session.getSessionStatus() == SessionStatus.SCHEDULED ? SessionSlot.of(session) : null;
+    }
+
+    private void move(SessionSlot previous, SessionSlot next) {
+        if (previous == null && next == null) {
+            return;
+        }
+        Long coachId = next != null ? next.coachId() : previous.coachId();
+        schedules.compute(coachId, (id, schedule) -> {
+            // the session's own previous slot is skipped, so it can move within or next to it
+            SessionSlot conflict = next != null ? findConflict(schedule, next) : null;
+            if (conflict != null) {
+                throw conflict(id, conflict);
+            }
+            return add(remove(schedule, previous), next);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        schedules.compute(coachId, (id, schedule) -> add(remove(schedule, next), previous));
+                    }
+                }
+            });
+        }
+    }
+
+    private ConflictException conflict(Long coachId, SessionSlot booked) {
+        conflictCounter.increment();
+        return new ConflictException("Coach " + coachId + " is already booked from " + booked.start()
+                + " to " + booked.end() + " by session " + booked.sessionId());
+    }
+
+    private static SessionSlot findConflict(NavigableSet<SessionSlot> schedule, SessionSlot candidate) {
+        if (schedule == null) {
+            return null;
+        }
+        SessionSlot from = new SessionSlot(candidate.coachId(), Long.MIN_VALUE,
+                candidate.start().minusMinutes(Session.MAX_DURATION_MINUTES), 0);
+        SessionSlot to = new SessionSlot(candidate.coachId(), Long.MIN_VALUE, candidate.end(), 0);
+        for (SessionSlot slot : schedule.subSet(from, true, to, false)) {
+            if (!slot.sessionId().equals(candidate.sessionId()) && slot.overlaps(candidate)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    private NavigableSet<SessionSlot> add(NavigableSet<SessionSlot> schedule, SessionSlot slot) {
+        if (slot == null) {
+            return schedule;
+        }
+        NavigableSet<SessionSlot> target = schedule != null ? schedule : new TreeSet<>(BY_START);
+        if (target.add(slot)) {
+            size.incrementAndGet();
+        }
+        return target;
+    }
+
+    private NavigableSet<SessionSlot> remove(NavigableSet<SessionSlot> schedule, SessionSlot slot) {
+        if (schedule == null || slot == null) {
+            return schedule;
+        }
+        if (schedule.remove(slot)) {
+            size.decrementAndGet();
+        }
+        return schedule.isEmpty() ? null : schedule;
+    }
+}
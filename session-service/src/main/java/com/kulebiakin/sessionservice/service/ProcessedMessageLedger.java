@@ -0,0 +1,129 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.repository.ProcessedMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Ledger of Service Bus message ids that have already been processed.
+ * <p>
+ * The {@code processed_messages} table is the source of truth. In front of it sit a bounded
+ * LRU set of recently processed ids and a Bloom filter of every id in the table, so a new
+ * message (the common case) and a recent redelivery are both answered without a DB read.
+ * Only a Bloom filter hit that is not in the LRU falls back to the table.
+ */
+@Component
+@Slf4j
+public class ProcessedMessageLedger {
+
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final Set<String> recentMessageIds;
+    private final int bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+    private final Duration retention;
+    private volatile BloomFilter bloomFilter;
+
+    public ProcessedMessageLedger(
+            ProcessedMessageRepository processedMessageRepository,
+            @Value("${azure.servicebus.consumer.dedup.lru-size:100000}") int lruSize,
+            @Value("${azure.servicebus.consumer.dedup.bloom-expected-insertions:1000000}") int bloomExpectedInsertions,
+            @Value("${azure.servicebus.consumer.dedup.bloom-false-positive-rate:0.01}") double bloomFalsePositiveRate,
+            @Value("${azure.servicebus.consumer.dedup.retention:14d}") Duration retention) {
+        this.processedMessageRepository = processedMessageRepository;
+        this.recentMessageIds = Collections.newSetFromMap(Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > lruSize;
+                    }
+                }));
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.retention = retention;
+        this.bloomFilter = new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        bloomFilter = loadBloomFilter();
+    }
+
+    public boolean isProcessed(String messageId) {
+        if (messageId == null) {
+            return false;
+        }
+        if (recentMessageIds.contains(messageId)) {
+            return true;
+        }
+        if (!bloomFilter.mightContain(messageId)) {
+            return false;
+        }
+        return processedMessageRepository.existsById(messageId);
+    }
+
+    /**
+     * Records the message as processed in the caller's transaction. The in-memory front is
+     * only updated after commit, so a rolled-back attempt is not treated as a duplicate.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markProcessed(String messageId) {
+        if (messageId == null) {
+            return;
+        }
+        processedMessageRepository.insert(messageId, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(messageId);
+                }
+            });
+        } else {
+            remember(messageId);
+        }
+    }
+
+    /**
+     * Drops ledger entries past the retention window and rebuilds the Bloom filter so it
+     * does not saturate over time.
+     */
+    @Scheduled(fixedDelayString = "${azure.servicebus.consumer.dedup.prune-interval:PT1H}",
+            initialDelayString = "${azure.servicebus.consumer.dedup.prune-interval:PT1H}")
+    @Transactional
+    public void prune() {
+        int deleted = processedMessageRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        bloomFilter = loadBloomFilter();
+        recentMessageIds.forEach(bloomFilter::put);
+        log.info("Pruned {} processed message ids older than {}", deleted, retention);
+    }
+
+    private void remember(String messageId) {
+        recentMessageIds.add(messageId);
+        bloomFilter.put(messageId);
+    }
+
+    private BloomFilter loadBloomFilter() {
+        BloomFilter filter = new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+        try (Stream<String> messageIds = processedMessageRepository.streamAllMessageIds()) {
+            messageIds.forEach(filter::put);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,82 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kulebiakin.sessionservice.dto.SessionExportFilter;
+import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.repository.SessionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes sessions as newline-delimited JSON while reading them from a database cursor,
+ * so memory use does not grow with the number of exported rows.
+ */
+@Service
+@Slf4j
+public class SessionExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final SessionRepository sessionRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter sessionWriter;
+
+    public SessionExportService(SessionRepository sessionRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.sessionRepository = sessionRepository;
+        this.entityManager = entityManager;
+        this.sessionWriter = objectMapper.writerFor(Session.class);
+    }
+
+    /**
+     * Streams every session matching the filter to {@code out}, one JSON object per line.
+     * The first row is flushed immediately; after that the output is flushed and the
+     * persistence context cleared once per fetch batch.
+     *
+     * @return number of exported sessions
+     */
+    @Transactional(readOnly = true)
+    public long exportSessions(SessionExportFilter filter, OutputStream out) throws IOException {
+        log.info("Exporting sessions: {}", filter);
+        long count = 0;
+        try (Stream<Session> sessions = streamSessions(filter)) {
+            Iterator<Session> iterator = sessions.iterator();
+            while (iterator.hasNext()) {
+                out.write(sessionWriter.writeValueAsBytes(iterator.next()));
+                out.write(NEWLINE);
+                count++;
+                if (count == 1 || count % SessionRepository.EXPORT_FETCH_SIZE == 0) {
+                    out.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} sessions", count);
+        return count;
+    }
+
+    /**
+     * Picks the export query for the filters that are set, so the database seeks the matching index.
+     */
+    private Stream<Session> streamSessions(SessionExportFilter filter) {
+        if (filter.coachId() != null && filter.userId() != null) {
+            return sessionRepository.streamForExportByCoachIdAndUserId(
+                    filter.coachId(), filter.userId(), filter.startAt(), filter.endBefore());
+        }
+        if (filter.coachId() != null) {
+            return sessionRepository.streamForExportByCoachId(filter.coachId(), filter.startAt(), filter.endBefore());
+        }
+        if (filter.userId() != null) {
+            return sessionRepository.streamForExportByUserId(filter.userId(), filter.startAt(), filter.endBefore());
+        }
+        return sessionRepository.streamForExport(filter.startAt(), filter.endBefore());
+    }
+}
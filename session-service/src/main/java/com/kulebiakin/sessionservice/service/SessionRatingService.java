@@ -1,7 +1,9 @@
 package com.kulebiakin.sessionservice.service;
 
+import com.kulebiakin.common.dto.ReviewMessage;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
-import com.kulebiakin.sessionservice.client.CoachServiceClient;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.entity.CoachRatingAggregate;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
 import com.kulebiakin.sessionservice.repository.SessionRepository;
@@ -11,6 +13,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,26 +29,31 @@ public class SessionRatingService {
 
     private final SessionRepository sessionRepository;
     private final UserService userService;
-    private final CoachServiceClient coachServiceClient;
+    private final CoachRatingAggregateService aggregateService;
+    private final CoachRatingOutbox coachRatingOutbox;
+    private final CoachScheduleIndex coachScheduleIndex;
 
     @Transactional
     public Session updateSessionRating(Long sessionId, BigDecimal rating, String comment) {
         log.debug("Updating rating for session id: {} to {} with comment: {}", sessionId, rating, comment);
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+        BigDecimal previousRating = session.getRating();
+        SessionSlot previousSlot = CoachScheduleIndex.slotOf(session);
         session.setRating(rating);
         session.setReviewComment(comment);
         session.setSessionStatus(SessionStatus.COMPLETED);
 
         Session savedSession = sessionRepository.save(session);
+        coachScheduleIndex.reschedule(previousSlot, savedSession);
 
-        // Update coach rating via REST call to CoachService
+        // Record the coach rating push in the outbox; it is relayed to CoachService after commit
         Long coachId = session.getCoachId();
-        Double avgRating = sessionRepository.getAverageRatingByCoachId(coachId);
-        Long totalSessions = sessionRepository.countSessionsByCoachId(coachId);
+        CoachRatingAggregate aggregate = aggregateService.ratingChanged(coachId, previousRating, rating);
+        BigDecimal avgRating = aggregate.getAverageRating();
 
         if (avgRating != null) {
-            coachServiceClient.updateCoachRating(coachId, BigDecimal.valueOf(avgRating), totalSessions);
+            coachRatingOutbox.enqueue(coachId, avgRating, aggregate.getSessionCount());
         }
 
         // Increment user sessions taken
@@ -46,4 +61,75 @@ public class SessionRatingService {
 
         return savedSession;
     }
+
+    /**
+     * Applies a batch of reviews in one transaction. Session updates are flushed as JDBC batches,
+     * and each affected coach aggregate is updated and written to the outbox once per batch.
+     *
+     * @return ids of sessions referenced by the batch that do not exist
+     */
+    @Transactional
+    public Set<Long> updateSessionRatings(List<ReviewMessage> reviews) {
+        log.debug("Updating ratings for a batch of {} reviews", reviews.size());
+        Set<Long> sessionIds = reviews.stream().map(ReviewMessage::getSessionId).collect(Collectors.toSet());
+        Map<Long, Session> sessions = sessionRepository.findAllById(sessionIds).stream()
+                .collect(Collectors.toMap(Session::getSessionId, Function.identity()));
+
+        Set<Long> missingSessionIds = new HashSet<>();
+        // sorted by id, so concurrent batches lock aggregate and user rows in the same order
+        Map<Long, BigDecimal> ratingSumDeltas = new TreeMap<>();
+        Map<Long, Long> ratedCountDeltas = new HashMap<>();
+        Map<Long, Integer> sessionsTakenByUser = new TreeMap<>();
+        Map<Long, SessionSlot> previousSlots = new HashMap<>();
+
+        // Reviews are applied in arrival order, so a session rated twice in one batch keeps the last rating
+        for (ReviewMessage review : reviews) {
+            Session session = sessions.get(review.getSessionId());
+            if (session == null) {
+                missingSessionIds.add(review.getSessionId());
+                continue;
+            }
+
+            BigDecimal previousRating = session.getRating();
+            SessionSlot previousSlot = CoachScheduleIndex.slotOf(session);
+            if (previousSlot != null) {
+                previousSlots.put(session.getSessionId(), previousSlot);
+            }
+            session.setRating(review.getRating());
+            session.setReviewComment(review.getComment());
+            session.setSessionStatus(SessionStatus.COMPLETED);
+
+            Long coachId = session.getCoachId();
+            BigDecimal delta = review.getRating();
+            long countDelta = 1;
+            if (previousRating != null) {
+                delta = delta.subtract(previousRating);
+                countDelta = 0;
+            }
+            ratingSumDeltas.merge(coachId, delta, BigDecimal::add);
+            ratedCountDeltas.merge(coachId, countDelta, Long::sum);
+            sessionsTakenByUser.merge(session.getUser().getUserId(), 1, Integer::sum);
+        }
+
+        sessionRepository.saveAll(sessions.values());
+        // completed sessions no longer hold their slot
+        previousSlots.forEach((sessionId, previousSlot) ->
+                coachScheduleIndex.reschedule(previousSlot, sessions.get(sessionId)));
+
+        ratingSumDeltas.forEach((coachId, ratingSumDelta) -> {
+            CoachRatingAggregate aggregate = aggregateService.ratingsChanged(
+                    coachId, ratingSumDelta, ratedCountDeltas.get(coachId));
+            BigDecimal avgRating = aggregate.getAverageRating();
+            if (avgRating != null) {
+                coachRatingOutbox.enqueue(coachId, avgRating, aggregate.getSessionCount());
+            }
+        });
+
+        sessionsTakenByUser.forEach(userService::incrementSessionsTaken);
+
+        if (!missingSessionIds.isEmpty()) {
+            log.warn("Review batch referenced unknown sessions: {}", missingSessionIds);
+        }
+        return missingSessionIds;
+    }
 }
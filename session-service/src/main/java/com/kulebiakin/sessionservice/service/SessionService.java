@@ -1,17 +1,37 @@
 package com.kulebiakin.sessionservice.service;
 
+import com.kulebiakin.common.dto.ReviewMessage;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
+import com.kulebiakin.sessionservice.dto.CursorPage;
+import com.kulebiakin.sessionservice.dto.DailySessionCount;
+import com.kulebiakin.sessionservice.dto.SessionBooking;
+import com.kulebiakin.sessionservice.dto.SessionCursor;
+import com.kulebiakin.sessionservice.dto.SessionDateRange;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.dto.SessionSummary;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
 import com.kulebiakin.sessionservice.entity.User;
 import com.kulebiakin.sessionservice.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,50 +40,168 @@ public class SessionService {
 
     private final SessionRepository sessionRepository;
     private final SessionRatingService sessionRatingService;
+    private final CoachRatingAggregateService aggregateService;
     private final UserService userService;
+    private final ProcessedMessageLedger processedMessageLedger;
+    private final CoachDirectory coachDirectory;
+    private final CoachScheduleIndex coachScheduleIndex;
 
-    public List<Session> getAllSessions() {
-        log.debug("Fetching all sessions");
-        return sessionRepository.findAll();
-    }
+    @Value("${session.bulk-booking.max-sessions:5000}")
+    private int maxBulkBookings = 5000;
+
+    @Value("${session.calendar.max-days:366}")
+    private int maxCalendarDays = 366;
 
     public Session getSessionById(Long sessionId) {
         log.debug("Fetching session with id: {}", sessionId);
-        return sessionRepository.findById(sessionId)
+        return sessionRepository.findWithUserBySessionId(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
     }
 
-    public List<Session> getSessionsByCoachId(Long coachId) {
-        log.debug("Fetching sessions for coach id: {}", coachId);
-        return sessionRepository.findByCoachId(coachId);
+    public CursorPage<SessionSummary> getSessions(SessionCursor after, int limit) {
+        log.debug("Fetching up to {} sessions after {}", limit, after);
+        return toPage(sessionRepository.findPage(
+                after.sessionDateTime(), after.sessionId(), PageRequest.ofSize(limit + 1)), limit);
     }
 
-    public List<Session> getSessionsByUserId(Long userId) {
-        log.debug("Fetching sessions for user id: {}", userId);
-        return sessionRepository.findByUserUserId(userId);
+    public CursorPage<SessionSummary> getSessionsByCoachId(Long coachId, SessionDateRange range,
+                                                           SessionCursor after, int limit) {
+        log.debug("Fetching up to {} sessions for coach id {} in {} after {}", limit, coachId, range, after);
+        SessionCursor start = range.startAfter(after);
+        return toPage(sessionRepository.findPageByCoachId(coachId, start.sessionDateTime(), start.sessionId(),
+                range.endBefore(), PageRequest.ofSize(limit + 1)), limit);
     }
 
-    public List<Session> getSessionsByStatus(SessionStatus status) {
-        log.debug("Fetching sessions with status: {}", status);
-        return sessionRepository.findBySessionStatus(status);
+    public CursorPage<SessionSummary> getSessionsByUserId(Long userId, SessionDateRange range,
+                                                          SessionCursor after, int limit) {
+        log.debug("Fetching up to {} sessions for user id {} in {} after {}", limit, userId, range, after);
+        SessionCursor start = range.startAfter(after);
+        return toPage(sessionRepository.findPageByUserId(userId, start.sessionDateTime(), start.sessionId(),
+                range.endBefore(), PageRequest.ofSize(limit + 1)), limit);
+    }
+
+    /**
+     * Sessions per day of the coach for the days {@code [from, to)}, optionally of one status.
+     */
+    public List<DailySessionCount> getCoachCalendar(Long coachId, LocalDate from, LocalDate to, SessionStatus status) {
+        validateCalendarRange(from, to);
+        log.debug("Counting sessions per day for coach id {} from {} to {} (status={})", coachId, from, to, status);
+        return sessionRepository.countPerDayByCoachId(coachId, from.atStartOfDay(), to.atStartOfDay(), status);
+    }
+
+    /**
+     * Sessions per day of the user for the days {@code [from, to)}, optionally of one status.
+     */
+    public List<DailySessionCount> getUserCalendar(Long userId, LocalDate from, LocalDate to, SessionStatus status) {
+        validateCalendarRange(from, to);
+        log.debug("Counting sessions per day for user id {} from {} to {} (status={})", userId, from, to, status);
+        return sessionRepository.countPerDayByUserId(userId, from.atStartOfDay(), to.atStartOfDay(), status);
+    }
+
+    private void validateCalendarRange(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("Calendar start " + from + " must be before end " + to);
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxCalendarDays) {
+            throw new InvalidRequestException("Calendar range exceeds the limit of " + maxCalendarDays + " days");
+        }
+    }
+
+    public CursorPage<SessionSummary> getSessionsByStatus(SessionStatus status, SessionCursor after, int limit) {
+        log.debug("Fetching up to {} sessions with status {} after {}", limit, status, after);
+        return toPage(sessionRepository.findPageBySessionStatus(
+                status, after.sessionDateTime(), after.sessionId(), PageRequest.ofSize(limit + 1)), limit);
+    }
+
+    /**
+     * Queries fetch one row past the limit; its presence means another page exists.
+     */
+    private CursorPage<SessionSummary> toPage(List<SessionSummary> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<SessionSummary> items = rows.subList(0, limit);
+        SessionSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, new SessionCursor(last.sessionDateTime(), last.sessionId()).encode());
     }
 
     @Transactional
     public Session createSession(Long userId, Long coachId, Session session) {
         log.debug("Creating new session for user {} with coach {}", userId, coachId);
+        coachDirectory.requireBookable(coachId);
         User user = userService.getUserById(userId);
         session.setUser(user);
         session.setCoachId(coachId);
-        return sessionRepository.save(session);
+        SessionSlot slot = CoachScheduleIndex.slotOf(session);
+        if (slot != null) {
+            coachScheduleIndex.lockSlots(List.of(slot));
+        }
+        Session savedSession = sessionRepository.save(session);
+        coachScheduleIndex.reserve(savedSession);
+        aggregateService.sessionAdded(coachId);
+        return savedSession;
+    }
+
+    /**
+     * Books many sessions in one transaction. Coaches are checked against the local coach directory,
+     * users are validated with a single query, and the sessions are written as JDBC-batched inserts
+     * when the transaction flushes. A booking that overlaps another session of its coach, including
+     * one earlier in the same request, rejects the whole request.
+     */
+    @Transactional
+    public List<Session> createSessions(List<SessionBooking> bookings) {
+        if (bookings.isEmpty()) {
+            throw new InvalidRequestException("Bulk booking must contain at least one session");
+        }
+        if (bookings.size() > maxBulkBookings) {
+            throw new InvalidRequestException(
+                    "Bulk booking of " + bookings.size() + " sessions exceeds the limit of " + maxBulkBookings);
+        }
+        log.debug("Creating {} sessions in bulk", bookings.size());
+        coachDirectory.requireBookable(
+                bookings.stream().map(SessionBooking::getCoachId).collect(Collectors.toSet()));
+        Map<Long, User> users = userService.getUsersByIds(
+                bookings.stream().map(SessionBooking::getUserId).collect(Collectors.toSet()));
+
+        List<Session> sessions = bookings.stream()
+                .map(booking -> Session.builder()
+                        .user(users.get(booking.getUserId()))
+                        .coachId(booking.getCoachId())
+                        .sessionDateTime(booking.getSessionDateTime())
+                        .durationMinutes(booking.getDurationMinutes() != null
+                                ? booking.getDurationMinutes() : Session.DEFAULT_DURATION_MINUTES)
+                        .build())
+                .toList();
+        coachScheduleIndex.lockSlots(sessions.stream()
+                .map(CoachScheduleIndex::slotOf)
+                .filter(Objects::nonNull)
+                .toList());
+        List<Session> savedSessions = sessionRepository.saveAll(sessions);
+        savedSessions.forEach(coachScheduleIndex::reserve);
+
+        // aggregate rows are locked in coach id order, so concurrent bulk bookings cannot deadlock
+        savedSessions.stream()
+                .collect(Collectors.groupingBy(Session::getCoachId, TreeMap::new, Collectors.counting()))
+                .forEach((coachId, count) -> aggregateService.sessionsAdded(coachId, count.intValue()));
+        return savedSessions;
     }
 
     @Transactional
     public Session updateSession(Long sessionId, Session sessionDetails) {
         log.debug("Updating session with id: {}", sessionId);
         Session session = getSessionById(sessionId);
+        SessionSlot previousSlot = CoachScheduleIndex.slotOf(session);
+        if (sessionDetails.getSessionStatus() == SessionStatus.SCHEDULED) {
+            // locked before the entity changes, so the range lock is taken before the row moves
+            coachScheduleIndex.lockSlots(List.of(new SessionSlot(session.getCoachId(), sessionId,
+                    sessionDetails.getSessionDateTime(), sessionDetails.getDurationMinutes())));
+        }
         session.setSessionDateTime(sessionDetails.getSessionDateTime());
+        session.setDurationMinutes(sessionDetails.getDurationMinutes());
         session.setSessionStatus(sessionDetails.getSessionStatus());
-        return sessionRepository.save(session);
+        Session savedSession = sessionRepository.save(session);
+        coachScheduleIndex.reschedule(previousSlot, savedSession);
+        return savedSession;
     }
 
     public Session updateSessionRating(Long sessionId, BigDecimal rating, String comment) {
@@ -73,17 +211,61 @@ public class SessionService {
     /**
      * Process a review message received from ReviewService via Azure Service Bus.
      * Updates the session rating, review comment, and notifies CoachService.
+     * Redelivered messages are recognised by their message id and skipped.
+     *
+     * @return false if the message had already been processed
      */
-    public void processReview(Long sessionId, BigDecimal rating, String comment) {
+    @Transactional
+    public boolean processReview(String messageId, Long sessionId, BigDecimal rating, String comment) {
+        if (processedMessageLedger.isProcessed(messageId)) {
+            log.info("Skipping already processed review message {} for session {}", messageId, sessionId);
+            return false;
+        }
         log.info("Processing review for session {}: rating={}, comment={}", sessionId, rating, comment);
         sessionRatingService.updateSessionRating(sessionId, rating, comment);
+        processedMessageLedger.markProcessed(messageId);
         log.info("Successfully processed review for session {}", sessionId);
+        return true;
+    }
+
+    /**
+     * Process a batch of review messages received via Azure Service Bus in a single transaction.
+     * Messages that were already processed are skipped.
+     *
+     * @param reviewsByMessageId reviews keyed by Service Bus message id, in arrival order
+     * @return ids of sessions that could not be found
+     */
+    @Transactional
+    public Set<Long> processReviewBatch(Map<String, ReviewMessage> reviewsByMessageId) {
+        Map<String, ReviewMessage> newReviews = new LinkedHashMap<>();
+        reviewsByMessageId.forEach((messageId, review) -> {
+            if (!processedMessageLedger.isProcessed(messageId)) {
+                newReviews.put(messageId, review);
+            }
+        });
+        log.info("Processing batch of {} reviews ({} duplicates skipped)",
+                newReviews.size(), reviewsByMessageId.size() - newReviews.size());
+        if (newReviews.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<Long> missingSessionIds = sessionRatingService.updateSessionRatings(new ArrayList<>(newReviews.values()));
+        newReviews.forEach((messageId, review) -> {
+            if (!missingSessionIds.contains(review.getSessionId())) {
+                processedMessageLedger.markProcessed(messageId);
+            }
+        });
+        log.info("Finished processing batch of {} reviews", newReviews.size());
+        return missingSessionIds;
     }
 
     @Transactional
     public void deleteSession(Long sessionId) {
         log.debug("Deleting session with id: {}", sessionId);
-        Session session = getSessionById(sessionId);
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
         sessionRepository.delete(session);
+        coachScheduleIndex.release(session);
+        aggregateService.sessionRemoved(session.getCoachId(), session.getRating());
     }
 }
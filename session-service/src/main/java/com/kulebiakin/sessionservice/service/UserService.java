@@ -8,7 +8,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +32,24 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", userId));
     }
 
+    /**
+     * Loads all given users in one query.
+     *
+     * @throws ResourceNotFoundException if any of the users does not exist
+     */
+    public Map<Long, User> getUsersByIds(Collection<Long> userIds) {
+        log.debug("Fetching {} users", userIds.size());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        userIds.stream()
+                .filter(userId -> !users.containsKey(userId))
+                .findFirst()
+                .ifPresent(userId -> {
+                    throw new ResourceNotFoundException("User", userId);
+                });
+        return users;
+    }
+
     @Transactional
     public User createUser(User user) {
         log.debug("Creating new user: {} {}", user.getFirstName(), user.getLastName());
@@ -44,11 +66,16 @@ public class UserService {
     }
 
     @Transactional
-    public User incrementSessionsTaken(Long userId) {
-        log.debug("Incrementing sessions taken for user id: {}", userId);
-        User user = getUserById(userId);
-        user.setSessionsTaken(user.getSessionsTaken() + 1);
-        return userRepository.save(user);
+    public void incrementSessionsTaken(Long userId) {
+        incrementSessionsTaken(userId, 1);
+    }
+
+    @Transactional
+    public void incrementSessionsTaken(Long userId, int count) {
+        log.debug("Incrementing sessions taken for user id: {} by {}", userId, count);
+        if (userRepository.incrementSessionsTaken(userId, count) == 0) {
+            throw new ResourceNotFoundException("User", userId);
+        }
     }
 
     @Transactional
@@ -0,0 +1,34 @@
+-- Sessions occupy [session_date_time, session_date_time + duration_minutes) of the coach's time
+ALTER TABLE sessions ADD duration_minutes INT NOT NULL
+    CONSTRAINT df_sessions_duration_minutes DEFAULT 60
+    CONSTRAINT ck_sessions_duration_minutes CHECK (duration_minutes BETWEEN 1 AND 1440);
+
+-- Slots double-booked before overlap protection existed would make the unique index below fail.
+-- The earliest booking of each slot is kept; later ones are cancelled and recorded here so the
+-- affected users can be contacted.
+CREATE TABLE session_slot_conflicts (
+    session_id BIGINT NOT NULL CONSTRAINT pk_session_slot_conflicts PRIMARY KEY,
+    kept_session_id BIGINT NOT NULL,
+    resolved_at DATETIME2 NOT NULL CONSTRAINT df_session_slot_conflicts_resolved_at DEFAULT SYSUTCDATETIME()
+);
+
+WITH ranked AS (
+    SELECT session_id,
+           FIRST_VALUE(session_id) OVER (PARTITION BY coach_id, session_date_time ORDER BY session_id) AS kept_session_id
+    FROM sessions
+    WHERE session_status = 'SCHEDULED'
+)
+INSERT INTO session_slot_conflicts (session_id, kept_session_id)
+SELECT session_id, kept_session_id
+FROM ranked
+WHERE session_id <> kept_session_id;
+
+UPDATE s
+SET s.session_status = 'CANCELLED'
+FROM sessions s
+JOIN session_slot_conflicts c ON c.session_id = s.session_id;
+
+-- Final arbiter against double-booking a coach slot. Overlaps are rejected in memory before the
+-- write; this catches two instances booking the same slot concurrently.
+CREATE UNIQUE INDEX ux_session_coach_scheduled_slot ON sessions(coach_id, session_date_time)
+    WHERE session_status = 'SCHEDULED';
@@ -0,0 +1,13 @@
+-- Maintained per-coach rating aggregate, updated in the same transaction as session ratings
+CREATE TABLE coach_rating_aggregate (
+    coach_id BIGINT PRIMARY KEY,
+    rating_sum DECIMAL(19,2) NOT NULL DEFAULT 0,
+    rated_count BIGINT NOT NULL DEFAULT 0,
+    session_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Seed from existing sessions
+INSERT INTO coach_rating_aggregate (coach_id, rating_sum, rated_count, session_count)
+SELECT coach_id, ISNULL(SUM(rating), 0), COUNT(rating), COUNT(*)
+FROM sessions
+GROUP BY coach_id;
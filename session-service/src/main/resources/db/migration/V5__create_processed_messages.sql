@@ -0,0 +1,7 @@
+-- Ledger of consumed Service Bus messages, used to acknowledge redeliveries without reprocessing
+CREATE TABLE processed_messages (
+    message_id NVARCHAR(128) PRIMARY KEY,
+    processed_at DATETIME2 NOT NULL
+);
+
+CREATE INDEX idx_processed_messages_processed_at ON processed_messages(processed_at);
@@ -0,0 +1,10 @@
+-- Composite indexes matching the (session_date_time, session_id) keyset order of the list endpoints.
+-- They supersede the single-column indexes from V1, which are dropped.
+DROP INDEX idx_session_coach_id ON sessions;
+DROP INDEX idx_session_user_id ON sessions;
+DROP INDEX idx_session_status ON sessions;
+
+CREATE INDEX idx_session_date ON sessions(session_date_time, session_id);
+CREATE INDEX idx_session_coach_date ON sessions(coach_id, session_date_time, session_id);
+CREATE INDEX idx_session_user_date ON sessions(user_id, session_date_time, session_id);
+CREATE INDEX idx_session_status_date ON sessions(session_status, session_date_time, session_id);
@@ -0,0 +1,42 @@
+-- Replace the IDENTITY session_id with a sequence so Hibernate can batch inserts.
+-- Hibernate's pooled optimizer reserves 50 ids per call; keep INCREMENT BY in sync with allocationSize.
+-- SQL Server cannot drop IDENTITY from a column, so the table is rebuilt.
+CREATE SEQUENCE session_seq AS BIGINT START WITH 50 INCREMENT BY 50;
+GO
+
+ALTER TABLE sessions DROP CONSTRAINT fk_session_user, chk_session_status, chk_session_rating;
+EXEC sp_rename 'sessions', 'sessions_old';
+GO
+
+CREATE TABLE sessions (
+    session_id BIGINT NOT NULL CONSTRAINT pk_sessions PRIMARY KEY,
+    session_date_time DATETIME2 NOT NULL,
+    session_status NVARCHAR(20) NOT NULL CONSTRAINT df_session_status DEFAULT 'SCHEDULED',
+    coach_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    rating DECIMAL(4,2) NULL,
+    review_comment NVARCHAR(1000) NULL,
+    CONSTRAINT fk_session_user FOREIGN KEY (user_id) REFERENCES app_users(user_id),
+    CONSTRAINT chk_session_status CHECK (session_status IN ('SCHEDULED', 'COMPLETED', 'CANCELLED')),
+    CONSTRAINT chk_session_rating CHECK (rating IS NULL OR (rating >= 0 AND rating <= 10))
+);
+GO
+
+INSERT INTO sessions (session_id, session_date_time, session_status, coach_id, user_id, rating, review_comment)
+SELECT session_id, session_date_time, session_status, coach_id, user_id, rating, review_comment
+FROM sessions_old;
+
+DROP TABLE sessions_old;
+GO
+
+CREATE INDEX idx_session_date ON sessions(session_date_time, session_id);
+CREATE INDEX idx_session_coach_date ON sessions(coach_id, session_date_time, session_id);
+CREATE INDEX idx_session_user_date ON sessions(user_id, session_date_time, session_id);
+CREATE INDEX idx_session_status_date ON sessions(session_status, session_date_time, session_id);
+GO
+
+-- The first value Hibernate reads is the top of its first block, so start one block past existing ids
+DECLARE @restart BIGINT = (SELECT ISNULL(MAX(session_id), 0) + 50 FROM sessions);
+DECLARE @sql NVARCHAR(200) = N'ALTER SEQUENCE session_seq RESTART WITH ' + CAST(@restart AS NVARCHAR(20));
+EXEC sp_executesql @sql;
+GO
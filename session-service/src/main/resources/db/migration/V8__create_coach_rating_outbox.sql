@@ -0,0 +1,19 @@
+-- Coach rating updates written in the rating transaction and relayed to CoachService afterwards
+CREATE TABLE coach_rating_outbox (
+    outbox_id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    coach_id BIGINT NOT NULL,
+    rating DECIMAL(4,2) NOT NULL,
+    total_sessions BIGINT NOT NULL,
+    created_at DATETIME2 NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME2 NOT NULL,
+    completed_at DATETIME2 NULL,
+    last_error NVARCHAR(500) NULL
+);
+
+-- Open entries per coach, read by the relay on every drain
+CREATE INDEX idx_coach_rating_outbox_open ON coach_rating_outbox(coach_id, outbox_id)
+    INCLUDE (next_attempt_at) WHERE completed_at IS NULL;
+
+CREATE INDEX idx_coach_rating_outbox_completed ON coach_rating_outbox(completed_at)
+    WHERE completed_at IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Per-day calendar counts filter on session_status; carrying it in the per-coach and per-user
+-- date indexes lets those aggregations run as index-only range scans.
+DROP INDEX idx_session_coach_date ON sessions;
+DROP INDEX idx_session_user_date ON sessions;
+
+CREATE INDEX idx_session_coach_date ON sessions(coach_id, session_date_time, session_id) INCLUDE (session_status);
+CREATE INDEX idx_session_user_date ON sessions(user_id, session_date_time, session_id) INCLUDE (session_status);
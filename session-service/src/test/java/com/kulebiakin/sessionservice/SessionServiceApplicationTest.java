@@ -0,0 +1,20 @@
+package com.kulebiakin.sessionservice;
+
+import com.kulebiakin.sessionservice.messaging.ReviewMessageConsumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionServiceApplicationTest {
+
+    // connects to Service Bus on startup
+    @MockBean
+    private ReviewMessageConsumer reviewMessageConsumer;
+
+    @Test
+    void contextLoads() {
+    }
+}
@@ -0,0 +1,113 @@
+package com.kulebiakin.sessionservice.client;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingOutboxEntry;
+import com.kulebiakin.sessionservice.service.CoachRatingOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachRatingOutboxRelayTest {
+
+    @Mock
+    private CoachRatingOutbox outbox;
+
+    @Mock
+    private CoachServiceClient coachServiceClient;
+
+    private CoachRatingOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new CoachRatingOutboxRelay(outbox, coachServiceClient, 50, Duration.ofMillis(200));
+    }
+
+    @Test
+    void relay_nothingDue_sendsNothing() {
+        when(outbox.claimDue(50, Duration.ofMillis(200))).thenReturn(List.of());
+
+        relay.relay();
+
+        verifyNoInteractions(coachServiceClient);
+    }
+
+    @Test
+    void relay_marksDeliveredEntries() {
+        CoachRatingOutboxEntry entry = entry(10L, 1L);
+        when(outbox.claimDue(50, Duration.ofMillis(200))).thenReturn(List.of(entry));
+        when(coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(7.5), 4L, 10L))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outbox).markDelivered(entry);
+        verify(outbox, never()).markFailed(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void relay_transientFailure_schedulesRetry() {
+        CoachRatingOutboxEntry entry = entry(10L, 1L);
+        CoachServiceUnavailableException error = new CoachServiceUnavailableException("circuit open");
+        when(outbox.claimDue(50, Duration.ofMillis(200))).thenReturn(List.of(entry));
+        when(coachServiceClient.updateCoachRating(any(), any(), any(), any())).thenReturn(CompletableFuture.failedFuture(error));
+
+        relay.relay();
+
+        verify(outbox).markFailed(entry, error, true);
+    }
+
+    @Test
+    void relay_rejectedUpdate_isNotRetried() {
+        CoachRatingOutboxEntry entry = entry(10L, 1L);
+        WebClientResponseException error = WebClientResponseException.create(
+            HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null);
+        when(outbox.claimDue(50, Duration.ofMillis(200))).thenReturn(List.of(entry));
+        when(coachServiceClient.updateCoachRating(any(), any(), any(), any())).thenReturn(CompletableFuture.failedFuture(error));
+
+        relay.relay();
+
+        verify(outbox).markFailed(entry, error, false);
+    }
+
+    @Test
+    void relay_outstandingDelivery_leftLeasedForLaterRun() {
+        CoachRatingOutboxEntry slow = entry(10L, 1L);
+        CoachRatingOutboxEntry fast = entry(11L, 2L);
+        when(outbox.claimDue(50, Duration.ofMillis(200))).thenReturn(List.of(slow, fast));
+        when(coachServiceClient.updateCoachRating(eq(1L), any(), any(), any())).thenReturn(new CompletableFuture<>());
+        when(coachServiceClient.updateCoachRating(eq(2L), any(), any(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outbox).markDelivered(fast);
+        verify(outbox, never()).markDelivered(slow);
+        verify(outbox, never()).markFailed(eq(slow), any(), anyBoolean());
+    }
+
+    private static CoachRatingOutboxEntry entry(Long outboxId, Long coachId) {
+        return CoachRatingOutboxEntry.builder()
+            .outboxId(outboxId)
+            .coachId(coachId)
+            .rating(BigDecimal.valueOf(7.5))
+            .totalSessions(4L)
+            .build();
+    }
+}
@@ -1,22 +1,35 @@
 package com.kulebiakin.sessionservice.client;
 
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 class CoachServiceClientTest {
 
     private MockWebServer mockWebServer;
+    private SimpleMeterRegistry meterRegistry;
+    private String baseUrl;
     private CoachServiceClient coachServiceClient;
 
     @BeforeEach
@@ -24,8 +37,9 @@ class CoachServiceClientTest {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
 
-        String baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
-        coachServiceClient = new CoachServiceClient(WebClient.builder(), baseUrl);
+        meterRegistry = new SimpleMeterRegistry();
+        baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
+        coachServiceClient = client(WebClient.builder().baseUrl(baseUrl).build(), 4, 2, 3);
     }
 
     @AfterEach
@@ -39,7 +53,7 @@ class CoachServiceClientTest {
             .setResponseCode(200)
             .setHeader("Content-Type", "application/json"));
 
-        coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L);
+        coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L, 1L);
 
         // Wait for async request to be sent
         RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
@@ -62,7 +76,7 @@ class CoachServiceClientTest {
             .setBody("{\"error\": \"Internal Server Error\"}"));
 
         // Should not throw exception - errors are logged
-        coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(7.0), 5L);
+        coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(7.0), 5L, 1L);
 
         RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
         assertThat(request).isNotNull();
@@ -76,7 +90,7 @@ class CoachServiceClientTest {
             .setBodyDelay(10, TimeUnit.SECONDS));
 
         // Should not throw - async operation
-        coachServiceClient.updateCoachRating(2L, BigDecimal.valueOf(9.0), 15L);
+        coachServiceClient.updateCoachRating(2L, BigDecimal.valueOf(9.0), 15L, 1L);
 
         // Request should still be sent
         RecordedRequest request = mockWebServer.takeRequest(2, TimeUnit.SECONDS);
@@ -91,7 +105,7 @@ class CoachServiceClientTest {
         Long totalSessions = 25L;
         Long coachId = 42L;
 
-        coachServiceClient.updateCoachRating(coachId, rating, totalSessions);
+        coachServiceClient.updateCoachRating(coachId, rating, totalSessions, 7L);
 
         RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
         assertThat(request).isNotNull();
@@ -100,13 +114,14 @@ class CoachServiceClientTest {
         assertThat(body).contains("\"coachId\":42");
         assertThat(body).contains("\"rating\":7.25");
         assertThat(body).contains("\"totalSessions\":25");
+        assertThat(body).contains("\"version\":7");
     }
 
     @Test
     void updateCoachRating_handlesZeroRating() throws InterruptedException {
         mockWebServer.enqueue(new MockResponse().setResponseCode(200));
 
-        coachServiceClient.updateCoachRating(1L, BigDecimal.ZERO, 0L);
+        coachServiceClient.updateCoachRating(1L, BigDecimal.ZERO, 0L, 1L);
 
         RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
         assertThat(request).isNotNull();
@@ -120,7 +135,7 @@ class CoachServiceClientTest {
     void updateCoachRating_handlesMaxRating() throws InterruptedException {
         mockWebServer.enqueue(new MockResponse().setResponseCode(200));
 
-        coachServiceClient.updateCoachRating(1L, BigDecimal.TEN, 100L);
+        coachServiceClient.updateCoachRating(1L, BigDecimal.TEN, 100L, 1L);
 
         RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
         assertThat(request).isNotNull();
@@ -128,4 +143,112 @@ class CoachServiceClientTest {
         String body = request.getBody().readUtf8();
         assertThat(body).contains("\"rating\":10");
     }
+
+    @Test
+    void updateCoachRating_retriesTransientErrors() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(502));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        coachServiceClient.updateCoachRating(1L, BigDecimal.valueOf(8.5), 10L, 1L).join();
+
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        assertThat(meterRegistry.get("coach.client.requests").tag("outcome", "success").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void updateCoachRating_doesNotRetryClientErrors() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        Throwable error = catchThrowable(() -> coachServiceClient.updateCoachRating(99L, BigDecimal.ONE, 1L, 1L).join());
+
+        assertThat(error).hasCauseInstanceOf(WebClientResponseException.NotFound.class);
+        assertThat(CoachServiceClient.isTransient(error)).isFalse();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        assertThat(coachServiceClient.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void updateCoachRating_opensCircuitAfterConsecutiveFailures() {
+        coachServiceClient = client(WebClient.builder().baseUrl(baseUrl).build(), 4, 0, 3);
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+            catchThrowable(() -> coachServiceClient.updateCoachRating(1L, BigDecimal.ONE, 1L, 1L).join());
+        }
+
+        Throwable error = catchThrowable(() -> coachServiceClient.updateCoachRating(1L, BigDecimal.ONE, 1L, 1L).join());
+
+        assertThat(error).hasCauseInstanceOf(CoachServiceUnavailableException.class);
+        assertThat(CoachServiceClient.isTransient(error)).isTrue();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        assertThat(coachServiceClient.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("coach.client.rejected").tag("reason", "circuit_open").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void updateCoachRating_refusesCallsOverInFlightLimit() throws InterruptedException {
+        coachServiceClient = client(WebClient.builder().baseUrl(baseUrl).build(), 1, 0, 3);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(1, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> first = coachServiceClient.updateCoachRating(1L, BigDecimal.ONE, 1L, 1L);
+        mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> second = coachServiceClient.updateCoachRating(2L, BigDecimal.ONE, 1L, 1L);
+
+        assertThat(second).isCompletedExceptionally();
+        assertThat(catchThrowable(second::join)).hasCauseInstanceOf(CoachServiceUnavailableException.class);
+        assertThat(meterRegistry.get("coach.client.in.flight").gauge().value()).isEqualTo(1);
+        first.join();
+        assertThat(meterRegistry.get("coach.client.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void updateCoachRating_responseTimeout_failsAsTransient() {
+        HttpClient httpClient = HttpClient.create().responseTimeout(Duration.ofMillis(200));
+        WebClient webClient = WebClient.builder()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+        coachServiceClient = client(webClient, 4, 0, 3);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(5, TimeUnit.SECONDS));
+
+        Throwable error = catchThrowable(() -> coachServiceClient.updateCoachRating(1L, BigDecimal.ONE, 1L, 1L).join());
+
+        assertThat(error).hasCauseInstanceOf(WebClientRequestException.class);
+        assertThat(CoachServiceClient.isTransient(error)).isTrue();
+    }
+
+    @Test
+    void fetchCoachDirectory_sendsSinceAndParsesEntries() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"asOf\":\"2024-01-01T12:05:00\",\"coaches\":[{\"coachId\":7,\"status\":\"DEACTIVATED\"}]}"));
+
+        CoachDirectoryDelta delta = coachServiceClient.fetchCoachDirectory(LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(request.getPath()).isEqualTo("/api/coaches/directory?since=2024-01-01T12:00");
+        assertThat(delta.getAsOf()).isEqualTo(LocalDateTime.of(2024, 1, 1, 12, 5));
+        assertThat(delta.getCoaches()).containsExactly(new CoachDirectoryEntry(7L, "DEACTIVATED"));
+    }
+
+    @Test
+    void fetchCoachDirectory_withoutSince_requestsFullDirectory() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"asOf\":\"2024-01-01T12:05:00\",\"coaches\":[]}"));
+
+        coachServiceClient.fetchCoachDirectory(null);
+
+        assertThat(mockWebServer.takeRequest(5, TimeUnit.SECONDS).getPath()).isEqualTo("/api/coaches/directory");
+    }
+
+    private CoachServiceClient client(WebClient webClient, int maxInFlight, int maxRetries, int failureThreshold) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new CoachServiceClient(webClient, meterRegistry, maxInFlight, maxRetries,
+            Duration.ofMillis(10), failureThreshold, Duration.ofSeconds(30));
+    }
 }
@@ -2,9 +2,19 @@ package com.kulebiakin.sessionservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
+import com.kulebiakin.sessionservice.dto.BulkBookingRequest;
+import com.kulebiakin.sessionservice.dto.CursorPage;
+import com.kulebiakin.sessionservice.dto.DailySessionCount;
+import com.kulebiakin.sessionservice.dto.RecurringBooking;
+import com.kulebiakin.sessionservice.dto.SessionBooking;
+import com.kulebiakin.sessionservice.dto.SessionCursor;
+import com.kulebiakin.sessionservice.dto.SessionDateRange;
+import com.kulebiakin.sessionservice.dto.SessionExportFilter;
+import com.kulebiakin.sessionservice.dto.SessionSummary;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
 import com.kulebiakin.sessionservice.entity.User;
+import com.kulebiakin.sessionservice.service.SessionExportService;
 import com.kulebiakin.sessionservice.service.SessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,25 +23,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SessionController.class)
@@ -46,7 +64,11 @@ class SessionControllerTest {
     @MockBean
     private SessionService sessionService;
 
+    @MockBean
+    private SessionExportService sessionExportService;
+
     private Session testSession;
+    private SessionSummary testSummary;
 
     @BeforeEach
     void setUp() {
@@ -64,19 +86,71 @@ class SessionControllerTest {
             .coachId(1L)
             .user(testUser)
             .build();
+
+        testSummary = new SessionSummary(1L, LocalDateTime.of(2024, 12, 25, 10, 0), 60, SessionStatus.SCHEDULED, 1L, 1L, null, null);
     }
 
     @Test
     void getAllSessions_returnsOkWithList() throws Exception {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionService.getAllSessions()).thenReturn(sessions);
+        when(sessionService.getSessions(SessionCursor.START, 50))
+            .thenReturn(new CursorPage<>(List.of(testSummary), null));
 
         mockMvc.perform(get("/api/sessions"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
             .andExpect(jsonPath("$[0].sessionStatus").value("SCHEDULED"));
     }
 
+    @Test
+    void getAllSessions_withCursorAndStatus_returnsNextCursorHeader() throws Exception {
+        SessionCursor after = new SessionCursor(LocalDateTime.of(2024, 12, 24, 10, 0), 7L);
+        when(sessionService.getSessionsByStatus(SessionStatus.SCHEDULED, after, 500))
+            .thenReturn(new CursorPage<>(List.of(testSummary), "next-token"));
+
+        mockMvc.perform(get("/api/sessions")
+                .param("status", "SCHEDULED")
+                .param("after", after.encode())
+                .param("limit", "10000"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Next-Cursor", "next-token"));
+    }
+
+    @Test
+    void getAllSessions_malformedCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sessions").param("after", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportSessions_streamsNdjson() throws Exception {
+        SessionExportFilter filter = new SessionExportFilter(1L, null, LocalDateTime.of(2024, 12, 1, 0, 0), null);
+        when(sessionExportService.exportSessions(eq(filter), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"sessionId\":1}\n{\"sessionId\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/sessions/export")
+                .param("coachId", "1")
+                .param("from", "2024-12-01T00:00:00"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string("{\"sessionId\":1}\n{\"sessionId\":2}\n"));
+    }
+
+    @Test
+    void exportSessions_invertedRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sessions/export")
+                .param("from", "2025-01-01T00:00:00")
+                .param("to", "2024-12-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getSessionById_existingId_returnsOk() throws Exception {
         when(sessionService.getSessionById(1L)).thenReturn(testSession);
@@ -97,21 +171,72 @@ class SessionControllerTest {
 
     @Test
     void getSessionsByCoachId_returnsOk() throws Exception {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionService.getSessionsByCoachId(1L)).thenReturn(sessions);
+        when(sessionService.getSessionsByCoachId(1L, SessionDateRange.ALL, SessionCursor.START, 20))
+            .thenReturn(new CursorPage<>(List.of(testSummary), null));
 
-        mockMvc.perform(get("/api/sessions/coach/1"))
+        mockMvc.perform(get("/api/sessions/coach/1").param("limit", "20"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].coachId").value(1));
     }
 
     @Test
     void getSessionsByUserId_returnsOk() throws Exception {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionService.getSessionsByUserId(1L)).thenReturn(sessions);
+        when(sessionService.getSessionsByUserId(1L, SessionDateRange.ALL, SessionCursor.START, 50))
+            .thenReturn(new CursorPage<>(List.of(testSummary), null));
 
         mockMvc.perform(get("/api/sessions/user/1"))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].userId").value(1))
+            .andExpect(jsonPath("$[0].user").doesNotExist());
+    }
+
+    @Test
+    void getSessionsByCoachId_withRange_passesRange() throws Exception {
+        SessionDateRange range = new SessionDateRange(
+            LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0));
+        when(sessionService.getSessionsByCoachId(1L, range, SessionCursor.START, 50))
+            .thenReturn(new CursorPage<>(List.of(testSummary), null));
+
+        mockMvc.perform(get("/api/sessions/coach/1")
+                .param("from", "2025-03-01T00:00:00")
+                .param("to", "2025-04-01T00:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].coachId").value(1));
+    }
+
+    @Test
+    void getSessionsByUserId_invertedRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sessions/user/1")
+                .param("from", "2025-04-01T00:00:00")
+                .param("to", "2025-03-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCoachCalendar_returnsDailyCounts() throws Exception {
+        when(sessionService.getCoachCalendar(1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1), null))
+            .thenReturn(List.of(new DailySessionCount(LocalDate.of(2025, 3, 3), 4)));
+
+        mockMvc.perform(get("/api/sessions/coach/1/calendar")
+                .param("from", "2025-03-01")
+                .param("to", "2025-04-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].date").value("2025-03-03"))
+            .andExpect(jsonPath("$[0].sessions").value(4));
+    }
+
+    @Test
+    void getUserCalendar_filtersByStatus() throws Exception {
+        when(sessionService.getUserCalendar(1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 8),
+                SessionStatus.COMPLETED))
+            .thenReturn(List.of());
+
+        mockMvc.perform(get("/api/sessions/user/1/calendar")
+                .param("from", "2025-03-01")
+                .param("to", "2025-03-08")
+                .param("status", "COMPLETED"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
     }
 
     @Test
@@ -129,6 +254,87 @@ class SessionControllerTest {
             .andExpect(status().isCreated());
     }
 
+    @Test
+    void createSession_withDuration_passesDurationToService() throws Exception {
+        when(sessionService.createSession(eq(1L), eq(1L), argThat(session -> session.getDurationMinutes() == 90)))
+            .thenReturn(testSession);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", 1);
+        payload.put("coachId", 1);
+        payload.put("sessionDateTime", "2024-12-25T10:00:00");
+        payload.put("durationMinutes", 90);
+
+        mockMvc.perform(post("/api/sessions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(payload)))
+            .andExpect(status().isCreated());
+    }
+
+    @Test
+    void createSession_durationOutOfRange_returnsBadRequest() throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", 1);
+        payload.put("coachId", 1);
+        payload.put("sessionDateTime", "2024-12-25T10:00:00");
+        payload.put("durationMinutes", 0);
+
+        mockMvc.perform(post("/api/sessions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(payload)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createSessions_expandsRecurringSeries_returnsCreated() throws Exception {
+        LocalDateTime firstTuesday = LocalDateTime.of(2025, 1, 7, 18, 0);
+        BulkBookingRequest request = BulkBookingRequest.builder()
+            .sessions(List.of(new SessionBooking(1L, 2L, LocalDateTime.of(2025, 1, 1, 9, 0), null)))
+            .series(List.of(RecurringBooking.builder()
+                .userId(1L)
+                .coachId(1L)
+                .firstSessionDateTime(firstTuesday)
+                .occurrences(12)
+                .build()))
+            .build();
+        when(sessionService.createSessions(anyList())).thenAnswer(invocation -> {
+            List<SessionBooking> bookings = invocation.getArgument(0);
+            return bookings.stream()
+                .map(booking -> Session.builder()
+                    .sessionDateTime(booking.getSessionDateTime())
+                    .coachId(booking.getCoachId())
+                    .user(testSession.getUser())
+                    .build())
+                .toList();
+        });
+
+        mockMvc.perform(post("/api/sessions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(13))
+            .andExpect(jsonPath("$[1].sessionDateTime").value("2025-01-07T18:00:00"))
+            .andExpect(jsonPath("$[12].sessionDateTime").value("2025-03-25T18:00:00"))
+            .andExpect(jsonPath("$[12].userId").value(1));
+    }
+
+    @Test
+    void createSessions_invalidSeries_returnsBadRequest() throws Exception {
+        BulkBookingRequest request = BulkBookingRequest.builder()
+            .series(List.of(RecurringBooking.builder()
+                .userId(1L)
+                .coachId(1L)
+                .firstSessionDateTime(LocalDateTime.of(2025, 1, 7, 18, 0))
+                .occurrences(0)
+                .build()))
+            .build();
+
+        mockMvc.perform(post("/api/sessions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateSession_existingId_returnsOk() throws Exception {
         when(sessionService.updateSession(eq(1L), any(Session.class))).thenReturn(testSession);
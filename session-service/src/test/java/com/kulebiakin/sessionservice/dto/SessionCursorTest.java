@@ -0,0 +1,31 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.common.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    void encode_decode_roundTrips() {
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(2024, 12, 25, 10, 30, 15), 42L);
+
+        assertThat(SessionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_blankToken_returnsStart() {
+        assertThat(SessionCursor.decode(null)).isEqualTo(SessionCursor.START);
+        assertThat(SessionCursor.decode("")).isEqualTo(SessionCursor.START);
+    }
+
+    @Test
+    void decode_malformedToken_throwsInvalidRequestException() {
+        assertThatThrownBy(() -> SessionCursor.decode("not-a-cursor"))
+            .isInstanceOf(InvalidRequestException.class);
+    }
+}
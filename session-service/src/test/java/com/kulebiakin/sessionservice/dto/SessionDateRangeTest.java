@@ -0,0 +1,42 @@
+package com.kulebiakin.sessionservice.dto;
+
+import com.kulebiakin.common.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionDateRangeTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    @Test
+    void constructor_startNotBeforeEnd_throwsInvalidRequestException() {
+        assertThatThrownBy(() -> new SessionDateRange(TO, FROM)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> new SessionDateRange(FROM, FROM)).isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void startAfter_cursorBeforeRange_startsAtRangeStart() {
+        SessionDateRange range = new SessionDateRange(FROM, TO);
+
+        assertThat(range.startAfter(SessionCursor.START)).isEqualTo(new SessionCursor(FROM, 0L));
+    }
+
+    @Test
+    void startAfter_cursorInsideRange_keepsCursor() {
+        SessionCursor cursor = new SessionCursor(FROM.plusDays(3), 7L);
+
+        assertThat(new SessionDateRange(FROM, TO).startAfter(cursor)).isEqualTo(cursor);
+        assertThat(SessionDateRange.ALL.startAfter(cursor)).isEqualTo(cursor);
+    }
+
+    @Test
+    void endBefore_openEnded_returnsUpperBound() {
+        assertThat(new SessionDateRange(FROM, TO).endBefore()).isEqualTo(TO);
+        assertThat(new SessionDateRange(FROM, null).endBefore()).isEqualTo(SessionDateRange.END);
+    }
+}
@@ -85,4 +85,19 @@ class ReviewMessageConsumerTest {
         assertThat(deserialized.getSessionId()).isEqualTo(1L);
         assertThat(deserialized.getRating()).isEqualByComparingTo(BigDecimal.valueOf(7.0));
     }
+
+    @Test
+    void laneKey_usesSessionId() {
+        ReviewMessage message = ReviewMessage.builder().sessionId(5L).coachId(2L).build();
+
+        assertThat(ReviewMessageConsumer.laneKey(message)).isEqualTo(5L);
+    }
+
+    @Test
+    void laneKey_sameSessionWithDifferentCoachIds_sharesLane() {
+        ReviewMessage first = ReviewMessage.builder().sessionId(5L).coachId(2L).build();
+        ReviewMessage second = ReviewMessage.builder().sessionId(5L).coachId(3L).build();
+
+        assertThat(ReviewMessageConsumer.laneKey(first)).isEqualTo(ReviewMessageConsumer.laneKey(second));
+    }
 }
@@ -0,0 +1,91 @@
+package com.kulebiakin.sessionservice.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StripedExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = StripedExecutor.create("test", 4, 16, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void submit_sameKey_runsInSubmissionOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            futures.add(executor.submit(42L, () -> {
+                order.add(value);
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(order).isSorted().hasSize(100);
+    }
+
+    @Test
+    void submit_differentLanes_runInParallel() throws Exception {
+        long blockedKey = 0L;
+        long otherKey = 1L;
+        while (executor.laneFor(otherKey) == executor.laneFor(blockedKey)) {
+            otherKey++;
+        }
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> blocked = executor.submit(blockedKey, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        String result = executor.submit(otherKey, () -> "done").get(5, TimeUnit.SECONDS);
+
+        assertThat(result).isEqualTo("done");
+        assertThat(blocked).isNotDone();
+        release.countDown();
+        blocked.join();
+    }
+
+    @Test
+    void submit_failingTask_completesExceptionally() {
+        CompletableFuture<Object> future = executor.submit(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void metrics_areRegisteredPerLane() {
+        executor.submit(1L, () -> null).join();
+
+        assertThat(meterRegistry.get("test.lanes").gauge().value()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("test.lane.queue.depth").gauges()).hasSize(4);
+        assertThat(meterRegistry.get("test.lane.latency").timers())
+            .extracting(timer -> timer.count())
+            .contains(1L);
+    }
+}
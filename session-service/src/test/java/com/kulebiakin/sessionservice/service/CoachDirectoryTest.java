@@ -0,0 +1,154 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.common.dto.CoachDirectoryDelta;
+import com.kulebiakin.common.dto.CoachDirectoryEntry;
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.common.exception.ResourceNotFoundException;
+import com.kulebiakin.sessionservice.client.CoachServiceClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachDirectoryTest {
+
+    private static final LocalDateTime LOADED_AS_OF = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private CoachServiceClient coachServiceClient;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachDirectory coachDirectory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coachDirectory = new CoachDirectory(coachServiceClient, taskScheduler, meterRegistry,
+            Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofHours(1), 16);
+    }
+
+    @Test
+    void requireBookable_beforeFirstLoad_acceptsAnyCoach() {
+        assertThatCode(() -> coachDirectory.requireBookable(1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void requireBookable_checksLoadedStatuses() {
+        load(new CoachDirectoryEntry(1L, "ACTIVE"), new CoachDirectoryEntry(2L, "DEACTIVATED"));
+
+        assertThatCode(() -> coachDirectory.requireBookable(1L)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> coachDirectory.requireBookable(2L)).isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> coachDirectory.requireBookable(3L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> coachDirectory.requireBookable(Set.of(1L, 3L)))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(meterRegistry.get("coach.directory.size").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("coach.directory.rejected").tag("reason", "unknown").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void requireBookable_unknownCoach_rejectsLocallyAndSchedulesOneRefresh() {
+        load(new CoachDirectoryEntry(1L, "ACTIVE"));
+
+        assertThatThrownBy(() -> coachDirectory.requireBookable(5L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> coachDirectory.requireBookable(6L)).isInstanceOf(ResourceNotFoundException.class);
+
+        ArgumentCaptor<Runnable> scheduledRefresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(scheduledRefresh.capture(), any(Instant.class));
+        verify(coachServiceClient).fetchCoachDirectory(null);
+        verifyNoMoreInteractions(coachServiceClient);
+
+        when(coachServiceClient.fetchCoachDirectory(LOADED_AS_OF.minusSeconds(5))).thenReturn(CoachDirectoryDelta.builder()
+            .asOf(LOADED_AS_OF.plusSeconds(1))
+            .coaches(List.of(new CoachDirectoryEntry(5L, "ACTIVE")))
+            .build());
+        scheduledRefresh.getValue().run();
+
+        assertThatCode(() -> coachDirectory.requireBookable(5L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void refresh_afterLoad_appliesDeltaSinceLastPollMinusOverlap() {
+        load(new CoachDirectoryEntry(1L, "ACTIVE"));
+        when(coachServiceClient.fetchCoachDirectory(LOADED_AS_OF.minusSeconds(5))).thenReturn(CoachDirectoryDelta.builder()
+            .asOf(LOADED_AS_OF.plusSeconds(5))
+            .coaches(List.of(new CoachDirectoryEntry(1L, "DEACTIVATED"), new CoachDirectoryEntry(4L, "ACTIVE")))
+            .build());
+
+        coachDirectory.refresh();
+
+        assertThatThrownBy(() -> coachDirectory.requireBookable(1L)).isInstanceOf(ConflictException.class);
+        assertThatCode(() -> coachDirectory.requireBookable(4L)).doesNotThrowAnyException();
+        verify(coachServiceClient).fetchCoachDirectory(LOADED_AS_OF.minusSeconds(5));
+    }
+
+    @Test
+    void refresh_failedInitialLoad_retriesFullLoad() {
+        when(coachServiceClient.fetchCoachDirectory(null))
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenReturn(directory(new CoachDirectoryEntry(1L, "ACTIVE")));
+
+        coachDirectory.refresh();
+        coachDirectory.refresh();
+
+        verify(coachServiceClient, times(2)).fetchCoachDirectory(null);
+        assertThatThrownBy(() -> coachDirectory.requireBookable(2L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void refresh_failedDelta_keepsCurrentDirectory() {
+        load(new CoachDirectoryEntry(1L, "ACTIVE"));
+        when(coachServiceClient.fetchCoachDirectory(any())).thenThrow(new IllegalStateException("timeout"));
+
+        coachDirectory.refresh();
+
+        assertThatCode(() -> coachDirectory.requireBookable(1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void refresh_afterFullReloadInterval_reloadsWholeDirectory() {
+        coachDirectory = new CoachDirectory(coachServiceClient, taskScheduler, meterRegistry,
+            Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ZERO, 16);
+        load(new CoachDirectoryEntry(1L, "ACTIVE"), new CoachDirectoryEntry(2L, "ACTIVE"));
+        when(coachServiceClient.fetchCoachDirectory(null)).thenReturn(directory(new CoachDirectoryEntry(1L, "ACTIVE")));
+
+        coachDirectory.refresh();
+
+        assertThatThrownBy(() -> coachDirectory.requireBookable(2L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void load(CoachDirectoryEntry... entries) {
+        when(coachServiceClient.fetchCoachDirectory(null)).thenReturn(directory(entries));
+        coachDirectory.warmUp();
+    }
+
+    private static CoachDirectoryDelta directory(CoachDirectoryEntry... entries) {
+        return CoachDirectoryDelta.builder()
+            .asOf(LOADED_AS_OF)
+            .coaches(List.of(entries))
+            .build();
+    }
+}
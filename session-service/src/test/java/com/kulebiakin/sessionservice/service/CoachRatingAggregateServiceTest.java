@@ -0,0 +1,115 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingAggregate;
+import com.kulebiakin.sessionservice.repository.CoachRatingAggregateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachRatingAggregateServiceTest {
+
+    @Mock
+    private CoachRatingAggregateRepository aggregateRepository;
+
+    @InjectMocks
+    private CoachRatingAggregateService aggregateService;
+
+    @Test
+    void ratingChanged_firstRating_createsAggregateWithUpsertAndLocksIt() {
+        when(aggregateRepository.findByIdForUpdate(1L))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(CoachRatingAggregate.builder().coachId(1L).build()));
+        when(aggregateRepository.save(any(CoachRatingAggregate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CoachRatingAggregate result = aggregateService.ratingChanged(1L, null, BigDecimal.valueOf(8.0));
+
+        assertThat(result.getRatingSum()).isEqualByComparingTo("8.0");
+        assertThat(result.getRatedCount()).isEqualTo(1L);
+        assertThat(result.getAverageRating()).isEqualByComparingTo("8.00");
+        verify(aggregateRepository).createIfAbsent(1L);
+        verify(aggregateRepository, times(2)).findByIdForUpdate(1L);
+    }
+
+    @Test
+    void ratingChanged_reRating_replacesOldValue() {
+        CoachRatingAggregate existing = CoachRatingAggregate.builder()
+            .coachId(1L)
+            .ratingSum(BigDecimal.valueOf(14.0))
+            .ratedCount(2L)
+            .sessionCount(3L)
+            .build();
+        when(aggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existing));
+        when(aggregateRepository.save(any(CoachRatingAggregate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CoachRatingAggregate result = aggregateService.ratingChanged(1L, BigDecimal.valueOf(4.0), BigDecimal.valueOf(6.0));
+
+        assertThat(result.getRatingSum()).isEqualByComparingTo("16.0");
+        assertThat(result.getRatedCount()).isEqualTo(2L);
+        assertThat(result.getSessionCount()).isEqualTo(3L);
+        assertThat(result.getAverageRating()).isEqualByComparingTo("8.00");
+    }
+
+    @Test
+    void sessionAdded_incrementsSessionCountOnly() {
+        CoachRatingAggregate existing = CoachRatingAggregate.builder()
+            .coachId(1L)
+            .ratingSum(BigDecimal.valueOf(9.0))
+            .ratedCount(1L)
+            .sessionCount(1L)
+            .build();
+        when(aggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existing));
+        when(aggregateRepository.save(any(CoachRatingAggregate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CoachRatingAggregate result = aggregateService.sessionAdded(1L);
+
+        assertThat(result.getSessionCount()).isEqualTo(2L);
+        assertThat(result.getRatedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void sessionRemoved_ratedSession_subtractsRating() {
+        CoachRatingAggregate existing = CoachRatingAggregate.builder()
+            .coachId(1L)
+            .ratingSum(BigDecimal.valueOf(15.0))
+            .ratedCount(2L)
+            .sessionCount(2L)
+            .build();
+        when(aggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existing));
+        when(aggregateRepository.save(any(CoachRatingAggregate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CoachRatingAggregate result = aggregateService.sessionRemoved(1L, BigDecimal.valueOf(5.0));
+
+        assertThat(result.getRatingSum()).isEqualByComparingTo("10.0");
+        assertThat(result.getRatedCount()).isEqualTo(1L);
+        assertThat(result.getSessionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void averageRating_noRatedSessions_isNull() {
+        CoachRatingAggregate aggregate = CoachRatingAggregate.builder().coachId(1L).build();
+
+        assertThat(aggregate.getAverageRating()).isNull();
+    }
+
+    @Test
+    void rebuild_recomputesFromSessions() {
+        when(aggregateRepository.rebuildFromSessions()).thenReturn(3);
+
+        int result = aggregateService.rebuild();
+
+        assertThat(result).isEqualTo(3);
+        verify(aggregateRepository).deleteAllAggregates();
+    }
+}
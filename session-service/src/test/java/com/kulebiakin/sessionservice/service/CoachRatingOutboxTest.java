@@ -0,0 +1,138 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.entity.CoachRatingOutboxEntry;
+import com.kulebiakin.sessionservice.repository.CoachRatingOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachRatingOutboxTest {
+
+    @Mock
+    private CoachRatingOutboxRepository outboxRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachRatingOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outbox = new CoachRatingOutbox(outboxRepository, meterRegistry,
+            Duration.ofSeconds(1), Duration.ofMinutes(5), Duration.ofDays(1));
+    }
+
+    @Test
+    void enqueue_savesEntryDueImmediately() {
+        outbox.enqueue(1L, BigDecimal.valueOf(8.5), 10L);
+
+        ArgumentCaptor<CoachRatingOutboxEntry> captor = ArgumentCaptor.forClass(CoachRatingOutboxEntry.class);
+        verify(outboxRepository).save(captor.capture());
+        CoachRatingOutboxEntry entry = captor.getValue();
+        assertThat(entry.getCoachId()).isEqualTo(1L);
+        assertThat(entry.getRating()).isEqualTo(BigDecimal.valueOf(8.5));
+        assertThat(entry.getTotalSessions()).isEqualTo(10L);
+        assertThat(entry.getAttempts()).isZero();
+        assertThat(entry.getNextAttemptAt()).isEqualTo(entry.getCreatedAt());
+        assertThat(meterRegistry.get("coach.rating.push.submitted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void claimDue_returnsOnlyEntriesThisRelayLeased() {
+        CoachRatingOutboxEntry first = entry(10L, 1L);
+        CoachRatingOutboxEntry second = entry(11L, 2L);
+        when(outboxRepository.findDueHeadIds(any(), any())).thenReturn(List.of(10L, 11L));
+        when(outboxRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(first, second));
+        when(outboxRepository.claim(eq(1L), eq(10L), any(), any())).thenReturn(2);
+        when(outboxRepository.claim(eq(2L), eq(11L), any(), any())).thenReturn(0);
+        when(outboxRepository.countByCompletedAtIsNull()).thenReturn(3L);
+
+        List<CoachRatingOutboxEntry> claimed = outbox.claimDue(50, Duration.ofMinutes(1));
+
+        assertThat(claimed).containsExactly(first);
+        assertThat(meterRegistry.get("coach.rating.push.pending").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void markDelivered_completesOlderEntriesAsCoalesced() {
+        outbox.enqueue(1L, BigDecimal.valueOf(8.0), 1L);
+        outbox.enqueue(1L, BigDecimal.valueOf(7.0), 2L);
+        outbox.enqueue(1L, BigDecimal.valueOf(6.0), 3L);
+        when(outboxRepository.complete(eq(1L), eq(12L), any(), isNull())).thenReturn(3);
+
+        outbox.markDelivered(entry(12L, 1L));
+
+        assertThat(meterRegistry.get("coach.rating.push.sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("coach.rating.push.coalesced").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("coach.rating.push.coalescing.ratio").gauge().value())
+            .isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void markFailed_transient_schedulesRetryWithBackoff() {
+        CoachRatingOutboxEntry head = entry(12L, 1L);
+        head.setAttempts(3);
+        LocalDateTime before = LocalDateTime.now();
+
+        outbox.markFailed(head, new IllegalStateException("503"), true);
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).scheduleRetry(eq(1L), eq(12L), retryAt.capture(), any());
+        assertThat(retryAt.getValue()).isAfterOrEqualTo(before.plusSeconds(8));
+        verify(outboxRepository, never()).complete(any(), any(), any(), any());
+        assertThat(meterRegistry.get("coach.rating.push.requeued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void markFailed_rejected_completesWithError() {
+        outbox.markFailed(entry(12L, 1L), new IllegalStateException("404 Not Found"), false);
+
+        verify(outboxRepository).complete(eq(1L), eq(12L), any(), eq("java.lang.IllegalStateException: 404 Not Found"));
+        assertThat(meterRegistry.get("coach.rating.push.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void backoff_growsExponentiallyUpToMax() {
+        assertThat(outbox.backoff(0)).isBetween(Duration.ofSeconds(1), Duration.ofMillis(1200));
+        assertThat(outbox.backoff(4)).isBetween(Duration.ofSeconds(16), Duration.ofMillis(19200));
+        assertThat(outbox.backoff(20)).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(6));
+        assertThat(outbox.backoff(100)).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(6));
+    }
+
+    @Test
+    void prune_deletesCompletedEntriesPastRetention() {
+        LocalDateTime before = LocalDateTime.now();
+
+        outbox.prune();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).deleteCompletedBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before.minusDays(1), LocalDateTime.now().minusDays(1));
+    }
+
+    private static CoachRatingOutboxEntry entry(Long outboxId, Long coachId) {
+        return CoachRatingOutboxEntry.builder()
+            .outboxId(outboxId)
+            .coachId(coachId)
+            .rating(BigDecimal.valueOf(7.5))
+            .totalSessions(4L)
+            .build();
+    }
+}
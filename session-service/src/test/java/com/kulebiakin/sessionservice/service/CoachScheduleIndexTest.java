@@ -0,0 +1,216 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.entity.SessionStatus;
+import com.kulebiakin.sessionservice.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoachScheduleIndexTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoachScheduleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new CoachScheduleIndex(sessionRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reserve_overlappingSlotOfSameCoach_throwsConflict() {
+        index.reserve(session(1L, 1L, NINE, 60));
+
+        assertThatThrownBy(() -> index.reserve(session(2L, 1L, NINE.plusMinutes(30), 60)))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("session 1");
+        assertThat(meterRegistry.get("coach.schedule.conflicts").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("coach.schedule.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reserve_longEarlierSessionCoveringSlot_throwsConflict() {
+        index.reserve(session(1L, 1L, NINE, 240));
+
+        assertThatThrownBy(() -> index.reserve(session(2L, 1L, NINE.plusHours(2), 30)))
+            .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void reserve_adjacentSlotOrOtherCoach_isAccepted() {
+        index.reserve(session(1L, 1L, NINE, 60));
+
+        assertThatCode(() -> {
+            index.reserve(session(2L, 1L, NINE.plusHours(1), 60));
+            index.reserve(session(3L, 1L, NINE.minusHours(1), 60));
+            index.reserve(session(4L, 2L, NINE, 60));
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserve_notScheduledSession_holdsNoSlot() {
+        Session cancelled = session(1L, 1L, NINE, 60);
+        cancelled.setSessionStatus(SessionStatus.CANCELLED);
+        index.reserve(cancelled);
+
+        assertThatCode(() -> index.reserve(session(2L, 1L, NINE, 60))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reschedule_withinOwnSlot_isAcceptedAndFreesPreviousSlot() {
+        Session session = session(1L, 1L, NINE, 60);
+        index.reserve(session);
+        SessionSlot previous = CoachScheduleIndex.slotOf(session);
+
+        session.setSessionDateTime(NINE.plusMinutes(30));
+        index.reschedule(previous, session);
+
+        assertThatCode(() -> index.reserve(session(2L, 1L, NINE.minusMinutes(30), 60))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void release_freesSlot() {
+        Session session = session(1L, 1L, NINE, 60);
+        index.reserve(session);
+
+        index.release(session);
+
+        assertThatCode(() -> index.reserve(session(2L, 1L, NINE, 60))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserve_rolledBackTransaction_freesSlot() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(session(1L, 1L, NINE, 60));
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatCode(() -> index.reserve(session(2L, 1L, NINE, 60))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void release_rolledBackTransaction_restoresSlot() {
+        Session session = session(1L, 1L, NINE, 60);
+        index.reserve(session);
+        TransactionSynchronizationManager.initSynchronization();
+        index.release(session);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatThrownBy(() -> index.reserve(session(2L, 1L, NINE, 60))).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void warmUp_loadsSlotsThatHaveNotEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        when(sessionRepository.streamScheduledSlotsStartingAfter(any())).thenReturn(Stream.of(
+            new SessionSlot(1L, 1L, NINE, 60),
+            new SessionSlot(1L, 2L, now.minusHours(3), 60)));
+
+        index.warmUp();
+
+        assertThat(meterRegistry.get("coach.schedule.size").gauge().value()).isEqualTo(1.0);
+        assertThatThrownBy(() -> index.reserve(session(3L, 1L, NINE, 30))).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void reload_replacesIndexWithDatabaseSlots() {
+        index.reserve(session(1L, 1L, NINE, 60));
+        when(sessionRepository.streamScheduledSlotsStartingAfter(any())).thenReturn(Stream.of(
+            new SessionSlot(1L, 2L, NINE.plusHours(2), 60),
+            new SessionSlot(1L, 3L, LocalDateTime.now().minusHours(2), 60)));
+
+        index.reload();
+
+        assertThat(meterRegistry.get("coach.schedule.size").gauge().value()).isEqualTo(1.0);
+        // session 1 was cancelled through another instance, session 2 booked there
+        assertThatCode(() -> index.reserve(session(4L, 1L, NINE, 60))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> index.reserve(session(5L, 1L, NINE.plusHours(2), 30)))
+            .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void lockSlots_overlapsSessionInDatabase_throwsConflict() {
+        when(sessionRepository.lockScheduledByCoachId(1L, NINE.minusMinutes(Session.MAX_DURATION_MINUTES), NINE.plusHours(1)))
+            .thenReturn(List.of(session(1L, 1L, NINE.minusMinutes(30), 60)));
+
+        assertThatThrownBy(() -> index.lockSlots(List.of(new SessionSlot(1L, null, NINE, 60))))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("session 1");
+        assertThat(meterRegistry.get("coach.schedule.conflicts").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void lockSlots_ownSlotOrAdjacentSession_isAccepted() {
+        when(sessionRepository.lockScheduledByCoachId(1L, NINE.plusMinutes(30).minusMinutes(Session.MAX_DURATION_MINUTES), NINE.plusHours(2)))
+            .thenReturn(List.of(session(1L, 1L, NINE, 60), session(2L, 1L, NINE.minusHours(1), 60)));
+
+        assertThatCode(() -> index.lockSlots(List.of(
+                new SessionSlot(1L, 1L, NINE.plusMinutes(30), 60),
+                new SessionSlot(1L, null, NINE.plusHours(1).plusMinutes(30), 30))))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void lockSlots_locksCoachesInIdOrder() {
+        when(sessionRepository.lockScheduledByCoachId(any(), any(), any())).thenReturn(List.of());
+
+        index.lockSlots(List.of(
+            new SessionSlot(3L, null, NINE, 60),
+            new SessionSlot(1L, null, NINE, 60),
+            new SessionSlot(2L, null, NINE, 60)));
+
+        InOrder inOrder = inOrder(sessionRepository);
+        inOrder.verify(sessionRepository).lockScheduledByCoachId(eq(1L), any(), any());
+        inOrder.verify(sessionRepository).lockScheduledByCoachId(eq(2L), any(), any());
+        inOrder.verify(sessionRepository).lockScheduledByCoachId(eq(3L), any(), any());
+    }
+
+    private static Session session(Long sessionId, Long coachId, LocalDateTime start, int durationMinutes) {
+        return Session.builder()
+            .sessionId(sessionId)
+            .coachId(coachId)
+            .sessionDateTime(start)
+            .durationMinutes(durationMinutes)
+            .build();
+    }
+}
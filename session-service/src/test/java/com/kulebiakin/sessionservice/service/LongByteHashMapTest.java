@@ -0,0 +1,88 @@
+package com.kulebiakin.sessionservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongByteHashMapTest {
+
+    @Test
+    void get_absentKey_returnsZero() {
+        LongByteHashMap map = new LongByteHashMap(16);
+
+        assertThat(map.get(42L)).isZero();
+    }
+
+    @Test
+    void put_overwritesExistingValue() {
+        LongByteHashMap map = new LongByteHashMap(16);
+        map.put(42L, (byte) 1);
+
+        map.put(42L, (byte) 2);
+
+        assertThat(map.get(42L)).isEqualTo((byte) 2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_growsBeyondExpectedSize() {
+        LongByteHashMap map = new LongByteHashMap(4);
+
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(key, (byte) (key % 2 + 1));
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        assertThat(map.get(1L)).isEqualTo((byte) 2);
+        assertThat(map.get(100_000L)).isEqualTo((byte) 1);
+        assertThat(map.get(100_001L)).isZero();
+    }
+
+    @Test
+    void put_zeroValue_isRejected() {
+        LongByteHashMap map = new LongByteHashMap(16);
+
+        assertThatThrownBy(() -> map.put(1L, (byte) 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void remove_keepsOtherKeysReachable() {
+        LongByteHashMap map = new LongByteHashMap(16);
+        Map<Long, Byte> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                map.put(key, (byte) 1);
+                expected.put(key, (byte) 1);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, (byte) 0));
+        }
+    }
+
+    @Test
+    void copy_isIndependentOfOriginal() {
+        LongByteHashMap map = new LongByteHashMap(16);
+        map.put(1L, (byte) 1);
+
+        LongByteHashMap copy = map.copy();
+        copy.put(1L, (byte) 2);
+        copy.put(2L, (byte) 1);
+
+        assertThat(map.get(1L)).isEqualTo((byte) 1);
+        assertThat(map.get(2L)).isZero();
+        assertThat(copy.get(1L)).isEqualTo((byte) 2);
+    }
+}
@@ -0,0 +1,99 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.kulebiakin.sessionservice.repository.ProcessedMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedMessageLedgerTest {
+
+    @Mock
+    private ProcessedMessageRepository processedMessageRepository;
+
+    private ProcessedMessageLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new ProcessedMessageLedger(processedMessageRepository, 2, 1000, 0.01, Duration.ofDays(14));
+    }
+
+    @Test
+    void isProcessed_unknownMessage_doesNotQueryDatabase() {
+        assertThat(ledger.isProcessed("msg-1")).isFalse();
+
+        verify(processedMessageRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void isProcessed_recentlyMarkedMessage_doesNotQueryDatabase() {
+        ledger.markProcessed("msg-1");
+
+        assertThat(ledger.isProcessed("msg-1")).isTrue();
+        verify(processedMessageRepository).insert(eq("msg-1"), any(LocalDateTime.class));
+        verify(processedMessageRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void isProcessed_evictedFromLru_fallsBackToDatabase() {
+        ledger.markProcessed("msg-1");
+        ledger.markProcessed("msg-2");
+        ledger.markProcessed("msg-3");
+        when(processedMessageRepository.existsById("msg-1")).thenReturn(true);
+
+        assertThat(ledger.isProcessed("msg-1")).isTrue();
+        verify(processedMessageRepository).existsById("msg-1");
+    }
+
+    @Test
+    void warmUp_loadsExistingIdsIntoBloomFilter() {
+        when(processedMessageRepository.streamAllMessageIds()).thenReturn(Stream.of("msg-old"));
+        when(processedMessageRepository.existsById("msg-old")).thenReturn(true);
+
+        ledger.warmUp();
+
+        assertThat(ledger.isProcessed("msg-old")).isTrue();
+        assertThat(ledger.isProcessed("msg-new")).isFalse();
+    }
+
+    @Test
+    void prune_deletesExpiredEntriesAndKeepsRecentIds() {
+        ledger.markProcessed("msg-1");
+        when(processedMessageRepository.streamAllMessageIds()).thenReturn(Stream.empty());
+
+        ledger.prune();
+
+        verify(processedMessageRepository).deleteProcessedBefore(any(LocalDateTime.class));
+        assertThat(ledger.isProcessed("msg-1")).isTrue();
+    }
+
+    @Test
+    void bloomFilter_neverReportsFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("message-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("message-" + i)).isTrue();
+        }
+        long falsePositives = java.util.stream.IntStream.range(0, 10_000)
+            .filter(i -> filter.mightContain("other-" + i))
+            .count();
+        assertThat(falsePositives).isLessThan(500);
+    }
+}
@@ -0,0 +1,131 @@
+package com.kulebiakin.sessionservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kulebiakin.common.exception.InvalidRequestException;
+import com.kulebiakin.sessionservice.dto.SessionExportFilter;
+import com.kulebiakin.sessionservice.entity.Session;
+import com.kulebiakin.sessionservice.entity.SessionStatus;
+import com.kulebiakin.sessionservice.entity.User;
+import com.kulebiakin.sessionservice.repository.SessionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionExportServiceTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private SessionExportService exportService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new SessionExportService(sessionRepository, entityManager, objectMapper);
+
+        testUser = User.builder()
+            .userId(1L)
+            .firstName("John")
+            .lastName("Doe")
+            .sessionsTaken(0)
+            .build();
+    }
+
+    @Test
+    void exportSessions_writesOneJsonObjectPerLine() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(sessionRepository.streamForExportByCoachId(3L, from, to))
+            .thenReturn(Stream.of(session(1L), session(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportSessions(new SessionExportFilter(3L, null, from, to), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"sessionId\":1", "\"sessionDateTime\":\"2024-12-25T10:00:00\"");
+        assertThat(lines[1]).contains("\"sessionId\":2");
+    }
+
+    @Test
+    void exportSessions_clearsPersistenceContextEveryFetchBatch() throws Exception {
+        int rows = SessionRepository.EXPORT_FETCH_SIZE * 2 + 1;
+        SessionExportFilter filter = SessionExportFilter.all();
+        when(sessionRepository.streamForExport(filter.startAt(), filter.endBefore()))
+            .thenReturn(IntStream.rangeClosed(1, rows).mapToObj(i -> session((long) i)));
+
+        long count = exportService.exportSessions(filter, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(rows);
+        // once after the first row, then after each full batch
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void exportSessions_userFilter_usesUserQueryWithOpenRangeBounds() throws Exception {
+        SessionExportFilter filter = new SessionExportFilter(null, 1L, null, null);
+        when(sessionRepository.streamForExportByUserId(1L, filter.startAt(), filter.endBefore()))
+            .thenReturn(Stream.of(session(1L)));
+
+        long count = exportService.exportSessions(filter, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(1);
+        assertThat(filter.startAt()).isNotNull();
+        assertThat(filter.endBefore()).isAfter(filter.startAt());
+    }
+
+    @Test
+    void exportSessions_coachAndUserFilter_usesCombinedQuery() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 12, 1, 0, 0);
+        SessionExportFilter filter = new SessionExportFilter(3L, 1L, from, null);
+        when(sessionRepository.streamForExportByCoachIdAndUserId(3L, 1L, from, filter.endBefore()))
+            .thenReturn(Stream.of(session(1L), session(2L)));
+
+        long count = exportService.exportSessions(filter, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    void exportFilter_emptyRange_throwsInvalidRequestException() {
+        LocalDateTime at = LocalDateTime.of(2024, 12, 1, 0, 0);
+
+        assertThatThrownBy(() -> new SessionExportFilter(null, null, at, at))
+            .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private Session session(Long sessionId) {
+        return Session.builder()
+            .sessionId(sessionId)
+            .sessionDateTime(LocalDateTime.of(2024, 12, 25, 10, 0))
+            .sessionStatus(SessionStatus.SCHEDULED)
+            .coachId(3L)
+            .user(testUser)
+            .build();
+    }
+}
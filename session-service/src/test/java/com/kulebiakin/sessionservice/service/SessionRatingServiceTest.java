@@ -1,7 +1,9 @@
 package com.kulebiakin.sessionservice.service;
 
+import com.kulebiakin.common.dto.ReviewMessage;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
-import com.kulebiakin.sessionservice.client.CoachServiceClient;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.entity.CoachRatingAggregate;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
 import com.kulebiakin.sessionservice.entity.User;
@@ -9,13 +11,16 @@ import com.kulebiakin.sessionservice.repository.SessionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,7 +38,13 @@ class SessionRatingServiceTest {
     private UserService userService;
 
     @Mock
-    private CoachServiceClient coachServiceClient;
+    private CoachRatingAggregateService aggregateService;
+
+    @Mock
+    private CoachRatingOutbox coachRatingOutbox;
+
+    @Mock
+    private CoachScheduleIndex coachScheduleIndex;
 
     @InjectMocks
     private SessionRatingService sessionRatingService;
@@ -60,23 +71,23 @@ class SessionRatingServiceTest {
     }
 
     @Test
-    void updateSessionRating_updatesRatingAndStatus() {
+    void updateSessionRating_updatesRatingAndStatusAndFreesSlot() {
         BigDecimal rating = BigDecimal.valueOf(8.5);
         String comment = "Great session!";
+        SessionSlot scheduledSlot = SessionSlot.of(testSession);
 
         when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
-        when(sessionRepository.getAverageRatingByCoachId(1L)).thenReturn(8.5);
-        when(sessionRepository.countSessionsByCoachId(1L)).thenReturn(5L);
-        when(userService.incrementSessionsTaken(1L)).thenReturn(testUser);
+        when(aggregateService.ratingChanged(1L, null, rating)).thenReturn(aggregate(8.5, 1, 5));
 
         Session result = sessionRatingService.updateSessionRating(1L, rating, comment);
 
         assertThat(result.getRating()).isEqualTo(rating);
         assertThat(result.getReviewComment()).isEqualTo(comment);
         assertThat(result.getSessionStatus()).isEqualTo(SessionStatus.COMPLETED);
-        verify(coachServiceClient).updateCoachRating(eq(1L), any(BigDecimal.class), eq(5L));
+        verify(coachRatingOutbox).enqueue(eq(1L), eq(new BigDecimal("8.50")), eq(5L));
         verify(userService).incrementSessionsTaken(1L);
+        verify(coachScheduleIndex).reschedule(scheduledSlot, testSession);
     }
 
     @Test
@@ -94,13 +105,11 @@ class SessionRatingServiceTest {
 
         when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
-        when(sessionRepository.getAverageRatingByCoachId(1L)).thenReturn(null);
-        when(sessionRepository.countSessionsByCoachId(1L)).thenReturn(0L);
-        when(userService.incrementSessionsTaken(1L)).thenReturn(testUser);
+        when(aggregateService.ratingChanged(1L, null, rating)).thenReturn(aggregate(0, 0, 0));
 
         sessionRatingService.updateSessionRating(1L, rating, null);
 
-        verify(coachServiceClient, never()).updateCoachRating(any(), any(), any());
+        verify(coachRatingOutbox, never()).enqueue(any(), any(), any());
     }
 
     @Test
@@ -109,12 +118,100 @@ class SessionRatingServiceTest {
 
         when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
-        when(sessionRepository.getAverageRatingByCoachId(1L)).thenReturn(9.0);
-        when(sessionRepository.countSessionsByCoachId(1L)).thenReturn(1L);
-        when(userService.incrementSessionsTaken(1L)).thenReturn(testUser);
+        when(aggregateService.ratingChanged(1L, null, rating)).thenReturn(aggregate(9.0, 1, 1));
 
         Session result = sessionRatingService.updateSessionRating(1L, rating, null);
 
         assertThat(result.getReviewComment()).isNull();
     }
+
+    @Test
+    void updateSessionRating_reRating_passesPreviousRatingToAggregate() {
+        testSession.setRating(BigDecimal.valueOf(4.0));
+        BigDecimal rating = BigDecimal.valueOf(6.0);
+
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
+        when(aggregateService.ratingChanged(1L, BigDecimal.valueOf(4.0), rating)).thenReturn(aggregate(6.0, 1, 1));
+
+        sessionRatingService.updateSessionRating(1L, rating, null);
+
+        verify(aggregateService).ratingChanged(1L, BigDecimal.valueOf(4.0), rating);
+        verify(coachRatingOutbox).enqueue(eq(1L), eq(new BigDecimal("6.00")), eq(1L));
+    }
+
+    @Test
+    void updateSessionRatings_batch_updatesEachCoachOnce() {
+        Session secondSession = Session.builder()
+            .sessionId(2L)
+            .sessionDateTime(LocalDateTime.now())
+            .sessionStatus(SessionStatus.SCHEDULED)
+            .coachId(1L)
+            .user(testUser)
+            .build();
+        List<ReviewMessage> reviews = List.of(
+            review(1L, 8.0),
+            review(2L, 6.0),
+            review(1L, 9.0));
+        SessionSlot firstSlot = SessionSlot.of(testSession);
+        SessionSlot secondSlot = SessionSlot.of(secondSession);
+
+        when(sessionRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testSession, secondSession));
+        when(aggregateService.ratingsChanged(1L, BigDecimal.valueOf(15.0), 2L)).thenReturn(aggregate(15.0, 2, 2));
+
+        Set<Long> missing = sessionRatingService.updateSessionRatings(reviews);
+
+        assertThat(missing).isEmpty();
+        assertThat(testSession.getRating()).isEqualTo(BigDecimal.valueOf(9.0));
+        assertThat(secondSession.getSessionStatus()).isEqualTo(SessionStatus.COMPLETED);
+        verify(coachRatingOutbox, times(1)).enqueue(eq(1L), eq(new BigDecimal("7.50")), eq(2L));
+        verify(userService).incrementSessionsTaken(1L, 3);
+        verify(coachScheduleIndex).reschedule(firstSlot, testSession);
+        verify(coachScheduleIndex).reschedule(secondSlot, secondSession);
+    }
+
+    @Test
+    void updateSessionRatings_updatesAggregatesInCoachIdOrder() {
+        Session coach17Session = Session.builder()
+            .sessionId(2L)
+            .sessionDateTime(LocalDateTime.now())
+            .coachId(17L)
+            .user(testUser)
+            .build();
+        when(sessionRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testSession, coach17Session));
+        when(aggregateService.ratingsChanged(any(), any(), any(Long.class))).thenReturn(aggregate(8.0, 1, 1));
+
+        sessionRatingService.updateSessionRatings(List.of(review(2L, 8.0), review(1L, 8.0)));
+
+        InOrder inOrder = inOrder(aggregateService);
+        inOrder.verify(aggregateService).ratingsChanged(eq(1L), any(), any(Long.class));
+        inOrder.verify(aggregateService).ratingsChanged(eq(17L), any(), any(Long.class));
+    }
+
+    @Test
+    void updateSessionRatings_unknownSession_isReportedAsMissing() {
+        when(sessionRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+
+        Set<Long> missing = sessionRatingService.updateSessionRatings(List.of(review(99L, 8.0)));
+
+        assertThat(missing).containsExactly(99L);
+        verify(coachRatingOutbox, never()).enqueue(any(), any(), any());
+    }
+
+    private ReviewMessage review(Long sessionId, double rating) {
+        return ReviewMessage.builder()
+            .sessionId(sessionId)
+            .rating(BigDecimal.valueOf(rating))
+            .coachId(1L)
+            .build();
+    }
+
+    private CoachRatingAggregate aggregate(double ratingSum, long ratedCount, long sessionCount) {
+        return CoachRatingAggregate.builder()
+            .coachId(1L)
+            .ratingSum(BigDecimal.valueOf(ratingSum))
+            .ratedCount(ratedCount)
+            .sessionCount(sessionCount)
+            .build();
+    }
 }
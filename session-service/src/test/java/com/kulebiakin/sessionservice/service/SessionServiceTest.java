@@ -1,6 +1,16 @@
 package com.kulebiakin.sessionservice.service;
 
+import com.kulebiakin.common.dto.ReviewMessage;
+import com.kulebiakin.common.exception.ConflictException;
+import com.kulebiakin.common.exception.InvalidRequestException;
 import com.kulebiakin.common.exception.ResourceNotFoundException;
+import com.kulebiakin.sessionservice.dto.CursorPage;
+import com.kulebiakin.sessionservice.dto.DailySessionCount;
+import com.kulebiakin.sessionservice.dto.SessionBooking;
+import com.kulebiakin.sessionservice.dto.SessionCursor;
+import com.kulebiakin.sessionservice.dto.SessionDateRange;
+import com.kulebiakin.sessionservice.dto.SessionSlot;
+import com.kulebiakin.sessionservice.dto.SessionSummary;
 import com.kulebiakin.sessionservice.entity.Session;
 import com.kulebiakin.sessionservice.entity.SessionStatus;
 import com.kulebiakin.sessionservice.entity.User;
@@ -8,19 +18,30 @@ import com.kulebiakin.sessionservice.repository.SessionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,9 +54,21 @@ class SessionServiceTest {
     @Mock
     private SessionRatingService sessionRatingService;
 
+    @Mock
+    private CoachRatingAggregateService aggregateService;
+
     @Mock
     private UserService userService;
 
+    @Mock
+    private ProcessedMessageLedger processedMessageLedger;
+
+    @Mock
+    private CoachDirectory coachDirectory;
+
+    @Mock
+    private CoachScheduleIndex coachScheduleIndex;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -61,29 +94,47 @@ class SessionServiceTest {
     }
 
     @Test
-    void getAllSessions_returnsListOfSessions() {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionRepository.findAll()).thenReturn(sessions);
+    void getSessions_lastPage_returnsItemsWithoutCursor() {
+        SessionSummary summary = summary(1L, testSession.getSessionDateTime());
+        when(sessionRepository.findPage(eq(SessionCursor.START.sessionDateTime()), eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(summary));
+
+        CursorPage<SessionSummary> result = sessionService.getSessions(SessionCursor.START, 10);
 
-        List<Session> result = sessionService.getAllSessions();
+        assertThat(result.items()).containsExactly(summary);
+        assertThat(result.hasMore()).isFalse();
+        verify(sessionRepository).findPage(SessionCursor.START.sessionDateTime(), 0L, PageRequest.ofSize(11));
+    }
 
-        assertThat(result).hasSize(1);
-        verify(sessionRepository).findAll();
+    @Test
+    void getSessions_moreRowsThanLimit_returnsCursorOfLastItem() {
+        LocalDateTime start = testSession.getSessionDateTime();
+        SessionSummary first = summary(1L, start);
+        SessionSummary second = summary(2L, start.plusHours(1));
+        SessionSummary third = summary(3L, start.plusHours(2));
+        when(sessionRepository.findPage(any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(first, second, third));
+
+        CursorPage<SessionSummary> result = sessionService.getSessions(SessionCursor.START, 2);
+
+        assertThat(result.items()).containsExactly(first, second);
+        assertThat(SessionCursor.decode(result.nextCursor()))
+            .isEqualTo(new SessionCursor(start.plusHours(1), 2L));
     }
 
     @Test
     void getSessionById_existingId_returnsSession() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.findWithUserBySessionId(1L)).thenReturn(Optional.of(testSession));
 
         Session result = sessionService.getSessionById(1L);
 
         assertThat(result).isEqualTo(testSession);
-        verify(sessionRepository).findById(1L);
+        verify(sessionRepository).findWithUserBySessionId(1L);
     }
 
     @Test
     void getSessionById_nonExistingId_throwsException() {
-        when(sessionRepository.findById(99L)).thenReturn(Optional.empty());
+        when(sessionRepository.findWithUserBySessionId(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> sessionService.getSessionById(99L))
             .isInstanceOf(ResourceNotFoundException.class);
@@ -91,34 +142,98 @@ class SessionServiceTest {
 
     @Test
     void getSessionsByCoachId_returnsFilteredSessions() {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionRepository.findByCoachId(1L)).thenReturn(sessions);
+        SessionCursor after = new SessionCursor(LocalDateTime.of(2024, 1, 1, 9, 0), 5L);
+        when(sessionRepository.findPageByCoachId(
+                1L, after.sessionDateTime(), 5L, SessionDateRange.ALL.endBefore(), PageRequest.ofSize(51)))
+            .thenReturn(List.of(summary(1L, testSession.getSessionDateTime())));
 
-        List<Session> result = sessionService.getSessionsByCoachId(1L);
+        CursorPage<SessionSummary> result = sessionService.getSessionsByCoachId(1L, SessionDateRange.ALL, after, 50);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getCoachId()).isEqualTo(1L);
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.items().get(0).coachId()).isEqualTo(1L);
     }
 
     @Test
     void getSessionsByUserId_returnsFilteredSessions() {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionRepository.findByUserUserId(1L)).thenReturn(sessions);
+        when(sessionRepository.findPageByUserId(eq(1L), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(summary(1L, testSession.getSessionDateTime())));
+
+        CursorPage<SessionSummary> result = sessionService.getSessionsByUserId(
+            1L, SessionDateRange.ALL, SessionCursor.START, 50);
+
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.items().get(0).userId()).isEqualTo(1L);
+    }
+
+    @Test
+    void getSessionsByCoachId_withRange_startsAtRangeStartAndStopsAtRangeEnd() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+        when(sessionRepository.findPageByCoachId(1L, from, 0L, to, PageRequest.ofSize(51))).thenReturn(List.of());
+
+        CursorPage<SessionSummary> result = sessionService.getSessionsByCoachId(
+            1L, new SessionDateRange(from, to), SessionCursor.START, 50);
+
+        assertThat(result.items()).isEmpty();
+        assertThat(result.hasMore()).isFalse();
+    }
+
+    @Test
+    void getSessionsByUserId_withRangeAndLaterCursor_resumesFromCursor() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+        SessionCursor after = new SessionCursor(LocalDateTime.of(2025, 3, 15, 18, 0), 42L);
+        when(sessionRepository.findPageByUserId(1L, after.sessionDateTime(), 42L, to, PageRequest.ofSize(51)))
+            .thenReturn(List.of());
 
-        List<Session> result = sessionService.getSessionsByUserId(1L);
+        sessionService.getSessionsByUserId(1L, new SessionDateRange(from, to), after, 50);
 
-        assertThat(result).hasSize(1);
+        verify(sessionRepository).findPageByUserId(1L, after.sessionDateTime(), 42L, to, PageRequest.ofSize(51));
+    }
+
+    @Test
+    void getCoachCalendar_countsPerDayOverWholeDays() {
+        List<DailySessionCount> counts = List.of(new DailySessionCount(LocalDate.of(2025, 3, 3), 4));
+        when(sessionRepository.countPerDayByCoachId(1L, LocalDateTime.of(2025, 3, 1, 0, 0),
+                LocalDateTime.of(2025, 4, 1, 0, 0), SessionStatus.SCHEDULED))
+            .thenReturn(counts);
+
+        List<DailySessionCount> result = sessionService.getCoachCalendar(
+            1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1), SessionStatus.SCHEDULED);
+
+        assertThat(result).isEqualTo(counts);
+    }
+
+    @Test
+    void getUserCalendar_countsPerDayOverWholeDays() {
+        when(sessionRepository.countPerDayByUserId(1L, LocalDateTime.of(2025, 3, 1, 0, 0),
+                LocalDateTime.of(2025, 3, 8, 0, 0), null))
+            .thenReturn(List.of());
+
+        assertThat(sessionService.getUserCalendar(1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 8), null))
+            .isEmpty();
+    }
+
+    @Test
+    void getCoachCalendar_invalidRange_throwsException() {
+        assertThatThrownBy(() -> sessionService.getCoachCalendar(
+                1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 1), null))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> sessionService.getCoachCalendar(
+                1L, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 3, 1), null))
+            .isInstanceOf(InvalidRequestException.class);
+        verify(sessionRepository, never()).countPerDayByCoachId(any(), any(), any(), any());
     }
 
     @Test
     void getSessionsByStatus_returnsFilteredSessions() {
-        List<Session> sessions = Collections.singletonList(testSession);
-        when(sessionRepository.findBySessionStatus(SessionStatus.SCHEDULED)).thenReturn(sessions);
+        when(sessionRepository.findPageBySessionStatus(eq(SessionStatus.SCHEDULED), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(summary(1L, testSession.getSessionDateTime())));
 
-        List<Session> result = sessionService.getSessionsByStatus(SessionStatus.SCHEDULED);
+        CursorPage<SessionSummary> result = sessionService.getSessionsByStatus(SessionStatus.SCHEDULED, SessionCursor.START, 50);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getSessionStatus()).isEqualTo(SessionStatus.SCHEDULED);
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.items().get(0).sessionStatus()).isEqualTo(SessionStatus.SCHEDULED);
     }
 
     @Test
@@ -133,7 +248,111 @@ class SessionServiceTest {
         Session result = sessionService.createSession(1L, 1L, newSession);
 
         assertThat(result).isNotNull();
+        verify(coachScheduleIndex).lockSlots(List.of(
+            new SessionSlot(1L, null, newSession.getSessionDateTime(), Session.DEFAULT_DURATION_MINUTES)));
         verify(sessionRepository).save(newSession);
+        verify(coachScheduleIndex).reserve(testSession);
+        verify(aggregateService).sessionAdded(1L);
+    }
+
+    @Test
+    void createSession_overlappingSession_throwsConflict() {
+        when(userService.getUserById(1L)).thenReturn(testUser);
+        when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
+        doThrow(new ConflictException("Coach 1 is already booked")).when(coachScheduleIndex).reserve(testSession);
+
+        assertThatThrownBy(() -> sessionService.createSession(1L, 1L, new Session()))
+            .isInstanceOf(ConflictException.class);
+        verify(aggregateService, never()).sessionAdded(any());
+    }
+
+    @Test
+    void createSession_overlapBookedThroughAnotherInstance_throwsConflictWithoutSaving() {
+        when(userService.getUserById(1L)).thenReturn(testUser);
+        doThrow(new ConflictException("Coach 1 is already booked")).when(coachScheduleIndex).lockSlots(anyList());
+
+        assertThatThrownBy(() -> sessionService.createSession(1L, 1L,
+                Session.builder().sessionDateTime(LocalDateTime.now()).build()))
+            .isInstanceOf(ConflictException.class);
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    void createSession_deactivatedCoach_throwsExceptionWithoutSaving() {
+        doThrow(new ConflictException("Coach 7 is deactivated and cannot be booked"))
+            .when(coachDirectory).requireBookable(7L);
+
+        assertThatThrownBy(() -> sessionService.createSession(1L, 7L, new Session()))
+            .isInstanceOf(ConflictException.class);
+        verify(sessionRepository, never()).save(any());
+        verify(aggregateService, never()).sessionAdded(any());
+    }
+
+    @Test
+    void createSessions_unknownCoach_throwsExceptionWithoutSaving() {
+        doThrow(new ResourceNotFoundException("Coach", 9L))
+            .when(coachDirectory).requireBookable(Set.of(1L, 9L));
+
+        assertThatThrownBy(() -> sessionService.createSessions(List.of(
+                new SessionBooking(1L, 1L, LocalDateTime.now(), null),
+                new SessionBooking(1L, 9L, LocalDateTime.now(), null))))
+            .isInstanceOf(ResourceNotFoundException.class);
+        verify(sessionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createSessions_validatesUsersOnceAndUpdatesAggregatePerCoach() {
+        LocalDateTime at = LocalDateTime.of(2025, 1, 7, 18, 0);
+        List<SessionBooking> bookings = List.of(
+            new SessionBooking(1L, 1L, at, null),
+            new SessionBooking(1L, 1L, at.plusWeeks(1), null),
+            new SessionBooking(1L, 2L, at.plusDays(1), null));
+        when(userService.getUsersByIds(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Session> result = sessionService.createSessions(bookings);
+
+        assertThat(result).hasSize(3).allSatisfy(session -> assertThat(session.getUser()).isEqualTo(testUser));
+        assertThat(result).allSatisfy(session -> assertThat(session.getDurationMinutes()).isEqualTo(60));
+        verify(coachScheduleIndex).lockSlots(result.stream().map(SessionSlot::of).toList());
+        result.forEach(session -> verify(coachScheduleIndex).reserve(session));
+        verify(userService, never()).getUserById(any());
+        verify(aggregateService).sessionsAdded(1L, 2);
+        verify(aggregateService).sessionsAdded(2L, 1);
+    }
+
+    @Test
+    void createSessions_updatesAggregatesInCoachIdOrder() {
+        LocalDateTime at = LocalDateTime.of(2025, 1, 7, 18, 0);
+        List<SessionBooking> bookings = List.of(
+            new SessionBooking(1L, 40L, at, null),
+            new SessionBooking(1L, 2L, at, null),
+            new SessionBooking(1L, 17L, at, null));
+        when(userService.getUsersByIds(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sessionService.createSessions(bookings);
+
+        InOrder inOrder = inOrder(aggregateService);
+        inOrder.verify(aggregateService).sessionsAdded(2L, 1);
+        inOrder.verify(aggregateService).sessionsAdded(17L, 1);
+        inOrder.verify(aggregateService).sessionsAdded(40L, 1);
+    }
+
+    @Test
+    void createSessions_emptyBooking_throwsException() {
+        assertThatThrownBy(() -> sessionService.createSessions(List.of()))
+            .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void createSessions_unknownUser_throwsExceptionWithoutSaving() {
+        when(userService.getUsersByIds(Set.of(99L))).thenThrow(new ResourceNotFoundException("User", 99L));
+
+        assertThatThrownBy(() -> sessionService.createSessions(
+                List.of(new SessionBooking(99L, 1L, LocalDateTime.now(), null))))
+            .isInstanceOf(ResourceNotFoundException.class);
+        verify(sessionRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -144,7 +363,7 @@ class SessionServiceTest {
             .sessionStatus(SessionStatus.COMPLETED)
             .build();
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.findWithUserBySessionId(1L)).thenReturn(Optional.of(testSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
 
         Session result = sessionService.updateSession(1L, updatedDetails);
@@ -154,9 +373,27 @@ class SessionServiceTest {
         verify(sessionRepository).save(testSession);
     }
 
+    @Test
+    void updateSession_movesSlotFromPreviousTime() {
+        SessionSlot previousSlot = SessionSlot.of(testSession);
+        Session updatedDetails = Session.builder()
+            .sessionDateTime(testSession.getSessionDateTime().plusHours(2))
+            .durationMinutes(90)
+            .build();
+        when(sessionRepository.findWithUserBySessionId(1L)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
+
+        Session result = sessionService.updateSession(1L, updatedDetails);
+
+        assertThat(result.getDurationMinutes()).isEqualTo(90);
+        verify(coachScheduleIndex).lockSlots(List.of(
+            new SessionSlot(1L, 1L, previousSlot.start().plusHours(2), 90)));
+        verify(coachScheduleIndex).reschedule(previousSlot, testSession);
+    }
+
     @Test
     void updateSession_nonExistingId_throwsException() {
-        when(sessionRepository.findById(99L)).thenReturn(Optional.empty());
+        when(sessionRepository.findWithUserBySessionId(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> sessionService.updateSession(99L, testSession))
             .isInstanceOf(ResourceNotFoundException.class);
@@ -179,9 +416,42 @@ class SessionServiceTest {
         BigDecimal rating = BigDecimal.valueOf(9.0);
         String comment = "Excellent!";
 
-        sessionService.processReview(1L, rating, comment);
+        boolean processed = sessionService.processReview("msg-1", 1L, rating, comment);
 
+        assertThat(processed).isTrue();
         verify(sessionRatingService).updateSessionRating(1L, rating, comment);
+        verify(processedMessageLedger).markProcessed("msg-1");
+    }
+
+    @Test
+    void processReview_duplicateMessage_isSkipped() {
+        when(processedMessageLedger.isProcessed("msg-1")).thenReturn(true);
+
+        boolean processed = sessionService.processReview("msg-1", 1L, BigDecimal.valueOf(9.0), null);
+
+        assertThat(processed).isFalse();
+        verify(sessionRatingService, never()).updateSessionRating(any(), any(), any());
+        verify(processedMessageLedger, never()).markProcessed(any());
+    }
+
+    @Test
+    void processReviewBatch_skipsDuplicatesAndMarksProcessed() {
+        ReviewMessage first = ReviewMessage.builder().sessionId(1L).rating(BigDecimal.valueOf(9.0)).build();
+        ReviewMessage duplicate = ReviewMessage.builder().sessionId(2L).rating(BigDecimal.valueOf(7.0)).build();
+        Map<String, ReviewMessage> reviews = new LinkedHashMap<>();
+        reviews.put("msg-1", first);
+        reviews.put("msg-2", duplicate);
+
+        when(processedMessageLedger.isProcessed("msg-1")).thenReturn(false);
+        when(processedMessageLedger.isProcessed("msg-2")).thenReturn(true);
+        when(sessionRatingService.updateSessionRatings(List.of(first))).thenReturn(Set.of());
+
+        Set<Long> result = sessionService.processReviewBatch(reviews);
+
+        assertThat(result).isEmpty();
+        verify(sessionRatingService).updateSessionRatings(List.of(first));
+        verify(processedMessageLedger).markProcessed("msg-1");
+        verify(processedMessageLedger, never()).markProcessed("msg-2");
     }
 
     @Test
@@ -191,6 +461,8 @@ class SessionServiceTest {
         sessionService.deleteSession(1L);
 
         verify(sessionRepository).delete(testSession);
+        verify(coachScheduleIndex).release(testSession);
+        verify(aggregateService).sessionRemoved(1L, null);
     }
 
     @Test
@@ -200,4 +472,8 @@ class SessionServiceTest {
         assertThatThrownBy(() -> sessionService.deleteSession(99L))
             .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    private SessionSummary summary(Long sessionId, LocalDateTime sessionDateTime) {
+        return new SessionSummary(sessionId, sessionDateTime, 60, SessionStatus.SCHEDULED, 1L, 1L, null, null);
+    }
 }
@@ -12,11 +12,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,6 +54,24 @@ class UserServiceTest {
         verify(userRepository).findAll();
     }
 
+    @Test
+    void getUsersByIds_allExist_returnsUsersById() {
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(testUser));
+
+        Map<Long, User> result = userService.getUsersByIds(List.of(1L));
+
+        assertThat(result).containsEntry(1L, testUser);
+    }
+
+    @Test
+    void getUsersByIds_missingUser_throwsException() {
+        when(userRepository.findAllById(List.of(1L, 99L))).thenReturn(List.of(testUser));
+
+        assertThatThrownBy(() -> userService.getUsersByIds(List.of(1L, 99L)))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessageContaining("99");
+    }
+
     @Test
     void getUserById_existingId_returnsUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
@@ -107,15 +127,21 @@ class UserServiceTest {
     }
 
     @Test
-    void incrementSessionsTaken_incrementsCounter() {
-        testUser.setSessionsTaken(5);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+    void incrementSessionsTaken_incrementsCounterAtomically() {
+        when(userRepository.incrementSessionsTaken(1L, 1)).thenReturn(1);
 
-        User result = userService.incrementSessionsTaken(1L);
+        userService.incrementSessionsTaken(1L);
 
-        assertThat(result.getSessionsTaken()).isEqualTo(6);
-        verify(userRepository).save(testUser);
+        verify(userRepository).incrementSessionsTaken(1L, 1);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void incrementSessionsTaken_nonExistingUser_throwsException() {
+        when(userRepository.incrementSessionsTaken(99L, 3)).thenReturn(0);
+
+        assertThatThrownBy(() -> userService.incrementSessionsTaken(99L, 3))
+            .isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test